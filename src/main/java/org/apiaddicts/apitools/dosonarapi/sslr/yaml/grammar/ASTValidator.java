@@ -36,7 +36,11 @@ public class ASTValidator implements GrammarValidator {
   }
 
   public List<ValidationIssue> validate(JsonNode node) {
-    ContextImpl context = new ContextImpl();
+    return validate(node, ParseLimits.NONE.newBudget());
+  }
+
+  List<ValidationIssue> validate(JsonNode node, ParseBudget budget) {
+    ContextImpl context = new ContextImpl(budget);
     try {
       context.capture();
       rootRule.visit(node, context);
@@ -49,6 +53,15 @@ public class ASTValidator implements GrammarValidator {
 
   public static class ContextImpl implements ValidationRule.Context {
     private final Deque<List<ValidationIssue>> capturedErrors = new ArrayDeque<>();
+    private final ParseBudget budget;
+
+    public ContextImpl() {
+      this(ParseLimits.NONE.newBudget());
+    }
+
+    ContextImpl(ParseBudget budget) {
+      this.budget = budget;
+    }
 
     @Override
     public void recordFailure(JsonNode node, String message, ValidationIssue... causes) {
@@ -68,6 +81,11 @@ public class ASTValidator implements GrammarValidator {
       }
     }
 
+    @Override
+    public void step() {
+      budget.step();
+    }
+
     @Override
     public void capture() {
       capturedErrors.push(new ArrayList<>());
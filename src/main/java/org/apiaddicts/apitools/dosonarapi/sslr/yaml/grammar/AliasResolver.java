@@ -0,0 +1,110 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.RecognitionException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.AliasNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
+
+/**
+ * Links the aliases of a document to their anchored nodes, once the tree is built. It is shared by the tree builders,
+ * which call it only when the document has aliases.
+ * <p>
+ * The tree is walked in document order, so an alias refers to the last node anchored with its name before it. An alias
+ * inside the node it refers to would make the tree a graph: it is rejected, as an alias with no anchor is. The walk
+ * also counts the nodes of each subtree as if its aliases were copies of the anchored nodes, and checks the
+ * {@link ParseLimits.Limit#ALIAS_EXPANSION} limit: the count only grows with the source, but stands for the work of a
+ * traversal following the aliases.
+ */
+final class AliasResolver {
+  private final ParseBudget budget;
+  // the last node anchored with each name
+  private final Map<String, JsonNode> anchors = new HashMap<>();
+  // the expanded size of the anchored nodes, once they are walked
+  private final Map<JsonNode, Long> sizes = new IdentityHashMap<>();
+
+  private AliasResolver(ParseBudget budget) {
+    this.budget = budget;
+  }
+
+  /**
+   * Resolves the aliases of a document.
+   * @param root the root node of the document
+   * @param budget the budget of the document
+   * @throws RecognitionException if an alias has no anchor, or refers to a node that contains it
+   * @throws ParseLimitExceededException if the document expands beyond the limit of the budget
+   */
+  static void resolve(JsonNode root, ParseBudget budget) {
+    new AliasResolver(budget).expand(root);
+  }
+
+  private long expand(JsonNode node) {
+    budget.tick();
+    if (node.isAlias()) {
+      return link((AliasNode) node);
+    }
+    String anchor = anchorOf(node);
+    if (anchor != null) {
+      anchors.put(anchor, node);
+    }
+    long size = 1;
+    for (JsonNode child : node.getJsonChildren()) {
+      size += expand(child);
+      if (size < 0) {
+        // saturates without a limit
+        size = Long.MAX_VALUE;
+      }
+    }
+    budget.checkExpansion(size, node.getTokenLine());
+    if (anchor != null) {
+      sizes.put(node, size);
+    }
+    return size;
+  }
+
+  private long link(AliasNode alias) {
+    JsonNode anchored = anchors.get(alias.getAnchorName());
+    if (anchored == null) {
+      throw new RecognitionException(alias.getTokenLine(), "Undefined alias: *" + alias.getAnchorName());
+    }
+    Long size = sizes.get(anchored);
+    if (size == null) {
+      throw new RecognitionException(alias.getTokenLine(), "Recursive alias: *" + alias.getAnchorName() + " is inside its anchored node");
+    }
+    alias.setAnchoredNode(anchored);
+    budget.checkExpansion(size, alias.getTokenLine());
+    return size;
+  }
+
+  /**
+   * @return the anchor of a node, its first child, or {@code null} if the node has none
+   */
+  @CheckForNull
+  private static String anchorOf(JsonNode node) {
+    AstNode first = node.getFirstChild();
+    return first != null && first.getType() == Tokens.ANCHOR ? first.getTokenValue() : null;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a set of files on an executor, with a bounded number of parses in flight, and returns the results in
+ * completion order. A new file is only submitted once the result of a previous one has been taken, so at most
+ * {@code maxInFlight} token lists and syntax trees are held in memory on top of the results not consumed yet.
+ * <p>
+ * A file whose parse overflows the stack, such as a deeply nested document, is reported as failed like any other file
+ * that cannot be parsed; other errors, such as {@link OutOfMemoryError}, abort the batch. {@link #close()} cancels
+ * the parses that have not started.
+ */
+class BatchParser implements Iterator<FileParseResult> {
+  private final YamlParser parser;
+  private final Iterator<Path> pending;
+  private final CompletionService<FileParseResult> completion;
+  private final int maxInFlight;
+  // the parses submitted and not taken yet
+  private final Set<Future<FileParseResult>> inFlight = new HashSet<>();
+  private boolean closed = false;
+
+  BatchParser(YamlParser parser, Iterator<Path> paths, Executor executor, int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("The number of parses in flight must be positive, got " + maxInFlight);
+    }
+    this.parser = parser;
+    this.pending = paths;
+    this.completion = new ExecutorCompletionService<>(executor);
+    this.maxInFlight = maxInFlight;
+    submitPending();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !inFlight.isEmpty();
+  }
+
+  @Override
+  public FileParseResult next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    FileParseResult result;
+    try {
+      Future<FileParseResult> parse = completion.take();
+      inFlight.remove(parse);
+      result = parse.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      close();
+      throw new CancellationException("Interrupted while waiting for parse results");
+    } catch (ExecutionException e) {
+      // parse errors are reported in the results, only errors such as OutOfMemoryError get there
+      close();
+      throw new IllegalStateException(e.getCause());
+    }
+    submitPending();
+    return result;
+  }
+
+  /**
+   * Cancels the parses that have not started yet, and submits no more files. The parses already running complete, but
+   * their results are dropped.
+   */
+  void close() {
+    closed = true;
+    for (Future<FileParseResult> parse : inFlight) {
+      parse.cancel(false);
+    }
+    inFlight.clear();
+  }
+
+  private void submitPending() {
+    while (!closed && inFlight.size() < maxInFlight && pending.hasNext()) {
+      Path path = pending.next();
+      inFlight.add(completion.submit(() -> parse(path)));
+    }
+  }
+
+  private FileParseResult parse(Path path) {
+    try {
+      return FileParseResult.success(path, parser.parseResult(path.toFile()));
+    } catch (RuntimeException e) {
+      return FileParseResult.failure(path, e);
+    } catch (StackOverflowError e) {
+      return FileParseResult.failure(path, new IllegalStateException("Stack overflow while parsing " + path, e));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A parsed document whose validation has not run yet. The syntax tree is available right away; the document is
+ * validated either on the first call to {@link #getIssues()}, in the calling thread, or on an executor with
+ * {@link #validateAsync(Executor)}, so that the validation of a document can overlap with the parse of the next one.
+ * The document is validated once, whichever method starts the validation.
+ * <p>
+ * The validation decorates the nodes of the tree with the rules of the grammar. Until the issues are available, the
+ * tree may be read, but not through the rule types of the nodes.
+ */
+public final class DeferredParseResult {
+  private final JsonNode root;
+  private final int tokenCount;
+  private final Supplier<List<ValidationIssue>> validation;
+  private CompletableFuture<List<ValidationIssue>> issues;
+
+  DeferredParseResult(JsonNode root, int tokenCount, Supplier<List<ValidationIssue>> validation) {
+    this.root = root;
+    this.tokenCount = tokenCount;
+    this.validation = validation;
+  }
+
+  /**
+   * @return the root node of the document
+   */
+  public JsonNode getRoot() {
+    return root;
+  }
+
+  /**
+   * Starts validating the document on an executor, unless its validation has already started.
+   * @param executor the executor running the validation
+   * @return the validation issues of the document; in strict mode, the future fails with a {@link ValidationException}
+   * if there are any
+   */
+  public synchronized CompletableFuture<List<ValidationIssue>> validateAsync(Executor executor) {
+    if (issues == null) {
+      issues = CompletableFuture.supplyAsync(validation, executor);
+    }
+    return issues;
+  }
+
+  /**
+   * Returns the validation issues of the document, validating it in the calling thread if its validation has not
+   * started yet, or waiting for the end of the validation started by {@link #validateAsync(Executor)}.
+   * @return the validation issues (errors and warnings) of the document
+   * @throws ValidationException in strict mode, if the document has validation issues
+   */
+  public List<ValidationIssue> getIssues() {
+    CompletableFuture<List<ValidationIssue>> result;
+    synchronized (this) {
+      if (issues == null) {
+        issues = new CompletableFuture<>();
+        try {
+          issues.complete(validation.get());
+        } catch (Throwable e) {
+          // errors such as a stack overflow complete the future too, else the later calls would wait for it forever
+          issues.completeExceptionally(e);
+        }
+      }
+      result = issues;
+    }
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  /**
+   * Returns the result of the parse once the document is validated. See {@link #getIssues()}.
+   * @return the parsed document and its validation issues
+   * @throws ValidationException in strict mode, if the document has validation issues
+   */
+  public ParseResult getResult() {
+    return new ParseResult(root, getIssues(), tokenCount);
+  }
+}
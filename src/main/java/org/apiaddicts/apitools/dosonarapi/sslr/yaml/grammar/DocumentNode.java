@@ -17,32 +17,31 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
 
+import com.sonar.sslr.api.AstNodeType;
 import com.sonar.sslr.api.Token;
-import com.sonar.sslr.impl.Lexer;
-import org.sonar.sslr.channel.Channel;
-import org.sonar.sslr.channel.CodeReader;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.SyntaxNode;
 
-import java.util.List;
-
-public class UnwindIndentChannel extends Channel<Lexer> {
-    private final LexerState state;
-    private final IndentUnwinder unwinder;
+/**
+ * The {@link YamlGrammar#ROOT} node of a document, holding the source of the document when the parser keeps it.
+ */
+final class DocumentNode extends SyntaxNode {
+  @Nullable
+  private DocumentSource source;
 
-    UnwindIndentChannel(LexerState state) {
-        this.state = state;
-        this.unwinder = new IndentUnwinder(state);
-    }
+  DocumentNode(AstNodeType type, String name, @Nullable Token token) {
+    super(type, name, token);
+  }
 
-    @Override
-    public boolean consume(CodeReader code, Lexer output) {
-        state.stalePossibleSimpleKeys(code);
-        List<Token> tokens = unwinder.unwindIndent(code.getColumnPosition(), code.getLinePosition(), code.getColumnPosition(), output.getURI());
-        if (!tokens.isEmpty()) {
-            output.addToken(tokens.toArray(new Token[0]));
-        }
-        return false;
-    }
+  @CheckForNull
+  DocumentSource getSource() {
+    return source;
+  }
 
+  void setSource(DocumentSource source) {
+    this.source = source;
+  }
 }
@@ -0,0 +1,173 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+
+/**
+ * Splits a YAML stream into its documents, reading one document at a time. Documents are separated by a directives
+ * end marker ({@code ---}) or a document end marker ({@code ...}) at the start of a line, followed by a blank or a
+ * line break. Markers are replaced by spaces, so that the columns of the tokens on the same line are preserved.
+ * Documents with no content (only blanks and comments) are skipped.
+ */
+class DocumentReader {
+  private final BufferedReader reader;
+  private final StringBuilder buffer = new StringBuilder();
+  private int lineNumber = 0;
+  private String pushedBack;
+  private boolean ended = false;
+
+  DocumentReader(BufferedReader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Reads the next document of the stream.
+   * @return the next document, or {@code null} if the end of the stream has been reached
+   */
+  @CheckForNull
+  Document next() {
+    while (!ended) {
+      Document document = readDocument();
+      if (document != null) {
+        return document;
+      }
+    }
+    return null;
+  }
+
+  @CheckForNull
+  private Document readDocument() {
+    buffer.setLength(0);
+    int firstLine = lineNumber + 1;
+    boolean hasContent = false;
+    String line;
+    while ((line = readLine()) != null) {
+      if (isMarker(line, '-') && buffer.length() > 0) {
+        // the start marker opens the next document: leave it to the next read
+        pushBack(line);
+        break;
+      }
+      boolean documentEnd = isMarker(line, '.');
+      if (documentEnd || isMarker(line, '-')) {
+        line = "   " + line.substring(3);
+      }
+      buffer.append(line).append('\n');
+      hasContent |= hasContent(line);
+      if (documentEnd) {
+        break;
+      }
+    }
+    if (line == null) {
+      ended = true;
+    }
+    return hasContent ? new Document(buffer.toString(), firstLine) : null;
+  }
+
+  private void pushBack(String line) {
+    pushedBack = line;
+    --lineNumber;
+  }
+
+  @CheckForNull
+  private String readLine() {
+    ++lineNumber;
+    if (pushedBack != null) {
+      String line = pushedBack;
+      pushedBack = null;
+      return line;
+    }
+    try {
+      return reader.readLine();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static boolean isMarker(String line, char c) {
+    return line.length() >= 3 && line.charAt(0) == c && line.charAt(1) == c && line.charAt(2) == c
+      && (line.length() == 3 || line.charAt(3) == ' ' || line.charAt(3) == '\t');
+  }
+
+  private static boolean hasContent(String line) {
+    for (int i = 0; i < line.length(); ++i) {
+      char c = line.charAt(i);
+      if (c == '#') {
+        return false;
+      } else if (c != ' ' && c != '\t') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Moves tokens lexed from a single document to their position in the whole stream.
+   * @param tokens the tokens of the document
+   * @param lineOffset the number of lines preceding the document in the stream
+   * @param uri the URI of the stream
+   * @return the relocated tokens
+   */
+  static List<Token> relocate(List<Token> tokens, int lineOffset, URI uri) {
+    List<Token> result = new ArrayList<>(tokens.size());
+    for (Token token : tokens) {
+      result.add(relocate(token, lineOffset, uri));
+    }
+    return result;
+  }
+
+  private static Token relocate(Token token, int lineOffset, URI uri) {
+    Token.Builder builder = Token.builder(token).setLine(token.getLine() + lineOffset).setURI(uri);
+    if (token.hasTrivia()) {
+      List<Trivia> trivia = new ArrayList<>(token.getTrivia().size());
+      for (Trivia t : token.getTrivia()) {
+        trivia.add(t.isComment() ? Trivia.createComment(relocate(t.getToken(), lineOffset, uri)) : t);
+      }
+      builder.setTrivia(trivia);
+    }
+    return builder.build();
+  }
+
+  static final class Document {
+    private final String text;
+    private final int firstLine;
+
+    Document(String text, int firstLine) {
+      this.text = text;
+      this.firstLine = firstLine;
+    }
+
+    String getText() {
+      return text;
+    }
+
+    int getFirstLine() {
+      return firstLine;
+    }
+  }
+}
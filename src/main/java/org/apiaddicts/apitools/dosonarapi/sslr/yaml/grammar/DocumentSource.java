@@ -0,0 +1,83 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.LineIndex;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.TokenOffsets;
+
+/**
+ * The text of a parsed document and the offsets of its tokens, which the nodes slice by their token indexes. The
+ * index of the lines is only built once a range is asked for.
+ */
+final class DocumentSource {
+  private final CharSequence text;
+  private final TokenOffsets offsets;
+  private final int lineOffset;
+  // built on demand; LineIndex is immutable, so threads racing to build it get equal ones
+  private LineIndex lines;
+
+  /**
+   * @param lineOffset the lines before the document, for a document cut from a multi-document stream
+   */
+  DocumentSource(CharSequence text, TokenOffsets offsets, int lineOffset) {
+    this.text = text;
+    this.offsets = offsets;
+    this.lineOffset = lineOffset;
+  }
+
+  SourceRange range(int fromIndex, int toIndex) {
+    int start = start(fromIndex);
+    int end = end(fromIndex, toIndex, start);
+    LineIndex index = lines();
+    return new SourceRange(start, end, index.getLine(start) + lineOffset, index.getColumn(start),
+      index.getLine(end) + lineOffset, index.getColumn(end));
+  }
+
+  String text(int fromIndex, int toIndex) {
+    int start = start(fromIndex);
+    return text.subSequence(start, end(fromIndex, toIndex, start)).toString();
+  }
+
+  private int start(int fromIndex) {
+    return fromIndex < offsets.size() ? offsets.getStart(fromIndex) : text.length();
+  }
+
+  /**
+   * The end of the last token that is not empty: the tokens that close the blocks stand at the start of the next token,
+   * after the line breaks and comments that follow the node.
+   */
+  private int end(int fromIndex, int toIndex, int start) {
+    for (int i = Math.min(toIndex, offsets.size()) - 1; i >= fromIndex; --i) {
+      if (offsets.getEnd(i) > offsets.getStart(i)) {
+        return offsets.getEnd(i);
+      }
+    }
+    return start;
+  }
+
+  private LineIndex lines() {
+    LineIndex index = lines;
+    if (index == null) {
+      index = LineIndex.of(text);
+      lines = index;
+    }
+    return index;
+  }
+}
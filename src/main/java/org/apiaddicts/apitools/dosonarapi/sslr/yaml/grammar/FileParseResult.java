@@ -0,0 +1,72 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import java.nio.file.Path;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * The outcome of parsing one file of a batch: either a {@link ParseResult}, or the error that prevented parsing the
+ * file, such as a syntax error or a validation error in strict mode.
+ */
+public final class FileParseResult {
+  private final Path path;
+  private final ParseResult result;
+  private final RuntimeException error;
+
+  private FileParseResult(Path path, @Nullable ParseResult result, @Nullable RuntimeException error) {
+    this.path = path;
+    this.result = result;
+    this.error = error;
+  }
+
+  static FileParseResult success(Path path, ParseResult result) {
+    return new FileParseResult(path, result, null);
+  }
+
+  static FileParseResult failure(Path path, RuntimeException error) {
+    return new FileParseResult(path, null, error);
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  /**
+   * @return the result of the parse, or {@code null} if the file could not be parsed
+   */
+  @CheckForNull
+  public ParseResult getResult() {
+    return result;
+  }
+
+  /**
+   * @return the error raised while parsing the file, or {@code null} if the file was parsed
+   */
+  @CheckForNull
+  public RuntimeException getError() {
+    return error;
+  }
+}
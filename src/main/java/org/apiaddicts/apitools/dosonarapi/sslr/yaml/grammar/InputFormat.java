@@ -0,0 +1,41 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+/**
+ * The scanners available to tokenize a document. They produce the same tokens: JSON documents are only scanned
+ * differently, because JSON is a subset of YAML that can be tokenized much faster.
+ */
+public enum InputFormat {
+  /**
+   * The {@link #JSON} scanner for the documents that start with an object or an array, the {@link #YAML} one for the
+   * others.
+   */
+  AUTO,
+  /**
+   * The YAML lexer, for every document.
+   */
+  YAML,
+  /**
+   * A dedicated JSON scanner, for every document. The documents that are not strict JSON, or that the scanner cannot
+   * tokenize like the YAML lexer, are scanned again by the YAML lexer.
+   */
+  JSON
+}
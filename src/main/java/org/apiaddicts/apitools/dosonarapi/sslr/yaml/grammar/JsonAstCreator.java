@@ -30,21 +30,33 @@ import java.util.List;
 import javax.annotation.Nullable;
 
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.SyntaxNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
 import org.sonar.sslr.internal.matchers.ParseNode;
 
 public class JsonAstCreator {
 
   public static JsonNode create(ParseNode node, List<Token> tokens) {
-    JsonNode astNode = new JsonAstCreator(tokens).visit(node);
+    return create(node, tokens, ParseLimits.NONE.newBudget());
+  }
+
+  static JsonNode create(ParseNode node, List<Token> tokens, ParseBudget budget) {
+    JsonAstCreator creator = new JsonAstCreator(tokens, budget);
+    JsonNode astNode = creator.visit(node);
     // Unwrap AstNodeType for root node:
     astNode.hasToBeSkippedFromAst();
+    if (creator.hasAliases) {
+      AliasResolver.resolve(astNode, budget);
+    }
     return astNode;
   }
 
   private final List<Token> tokens;
+  private final ParseBudget budget;
+  private boolean hasAliases = false;
 
-  private JsonAstCreator(List<Token> tokens) {
+  private JsonAstCreator(List<Token> tokens, ParseBudget budget) {
     this.tokens = tokens;
+    this.budget = budget;
   }
 
   private JsonNode visit(ParseNode node) {
@@ -56,10 +68,18 @@ public class JsonAstCreator {
   }
 
   private JsonNode visitNonTerminal(ParseNode node) {
+    budget.tick();
     List<JsonNode> astNodes = new ArrayList<>();
     RuleDefinition ruleMatcher = (RuleDefinition) node.getMatcher();
+    Object ruleKey = ruleMatcher.getRuleKey();
 
-    if (ruleMatcher.getRuleKey() != YamlGrammar.SCALAR) {
+    if (ruleKey == YamlGrammar.SCALAR || ruleKey == YamlGrammar.ALIAS) {
+      // the scalar tokens are not kept as children, only the anchor of the scalar
+      hasAliases |= ruleKey == YamlGrammar.ALIAS;
+      if (tokens.get(node.getStartIndex()).getType() == Tokens.ANCHOR) {
+        astNodes.add(visit(node.getChildren().get(0)));
+      }
+    } else {
       for (ParseNode child : node.getChildren()) {
         JsonNode astNode = visit(child);
         if (astNode == null) {
@@ -73,6 +93,10 @@ public class JsonAstCreator {
     }
 
     Token token = node.getStartIndex() < tokens.size() ? tokens.get(node.getStartIndex()) : null;
+    if (token != null && token.getType() == Tokens.ANCHOR) {
+      // the token of an anchored node is the first one after its anchor
+      token = tokens.get(node.getStartIndex() + 1);
+    }
     JsonNode astNode = createNonSyntaxNode(ruleMatcher, token);
     for (AstNode child : astNodes) {
       astNode.addChild(child);
@@ -86,7 +110,9 @@ public class JsonAstCreator {
   private JsonNode createNonSyntaxNode(RuleDefinition ruleMatcher, @Nullable Token token) {
     YamlGrammar ruleKey = (YamlGrammar)ruleMatcher.getRuleKey();
     Class<? extends JsonNode> nodeClass = ruleKey.getNodeClass();
-    if (nodeClass == null) {
+    if (ruleKey == YamlGrammar.ROOT) {
+      return new DocumentNode(ruleMatcher, ruleMatcher.getName(), token);
+    } else if (nodeClass == null) {
       return new SyntaxNode(ruleMatcher, ruleMatcher.getName(), token);
     }
     try {
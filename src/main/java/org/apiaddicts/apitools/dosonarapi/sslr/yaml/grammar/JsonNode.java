@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.MissingNode;
@@ -96,6 +97,37 @@ public abstract class JsonNode extends AstNode {
     return this.pointer;
   }
 
+  /**
+   * Get the characters of the document spanned by this node, from its first token to its last one, without the line
+   * breaks and comments that follow it.
+   * @return the range, or {@code null} if the parser did not keep the source of the document
+   */
+  @CheckForNull
+  public final SourceRange getSourceRange() {
+    DocumentSource source = findSource();
+    return source == null ? null : source.range(getFromIndex(), getToIndex());
+  }
+
+  /**
+   * Get the source text of this node, as it is in the document, sliced from the text the document was parsed from.
+   * @return the text of {@link #getSourceRange()}, or {@code null} if the parser did not keep the source of the
+   * document
+   */
+  @CheckForNull
+  public final String getSourceText() {
+    DocumentSource source = findSource();
+    return source == null ? null : source.text(getFromIndex(), getToIndex());
+  }
+
+  @CheckForNull
+  private DocumentSource findSource() {
+    AstNode root = this;
+    while (root.getParent() != null) {
+      root = root.getParent();
+    }
+    return root instanceof DocumentNode ? ((DocumentNode) root).getSource() : null;
+  }
+
   private static int findIndex(AstNode parent, AstNode child) {
     int i=0;
     for (AstNode c: parent.getChildren(FLOW_ARRAY_ELEMENT, BLOCK_ARRAY_ELEMENT)) {
@@ -161,6 +193,14 @@ public abstract class JsonNode extends AstNode {
     return false;
   }
 
+  /**
+   * Verify if this node is an alias ({@code *name}) of an anchored node. An alias has the value of the anchored node.
+   * @return {@code true} if this node is an alias
+   */
+  public boolean isAlias() {
+    return false;
+  }
+
   /**
    * Get the property key node associated to this node. If this node is not a property node, a property value node or a
    * property key node, return the Missing node.
@@ -0,0 +1,178 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
+
+/**
+ * The resources spent so far on a document, checked against its {@link ParseLimits}. The budget observes the tokens
+ * as the lexer scans them, and is called by the tree builders and the validator at each step; the checks are a few
+ * comparisons, and the clock is only read every {@value #CLOCK_INTERVAL} calls.
+ * <p>
+ * A budget belongs to the parse of a single document, and must not be shared between threads; the chunks of a document
+ * lexed in parallel get their own {@link #chunkBudgets() budgets}.
+ */
+final class ParseBudget implements Consumer<Token> {
+  private static final int CLOCK_INTERVAL = 256;
+
+  private final ParseLimits limits;
+  private final long start = System.nanoTime();
+  private final long timeout;
+
+  private long tokens = 0;
+  private int depth = 0;
+  private long steps = 0;
+  private int ticks = 0;
+
+  ParseBudget(ParseLimits limits) {
+    this.limits = limits;
+    Duration limit = limits.getTimeout();
+    this.timeout = limit == null ? Long.MAX_VALUE : limit.toNanos();
+  }
+
+  /**
+   * Checks the size of the document, before reading it.
+   * @param size the length of the file in bytes, or of the text in characters
+   */
+  void checkSize(long size) {
+    if (size > limits.getMaxBytes()) {
+      throw new ParseLimitExceededException(ParseLimits.Limit.BYTES, limits.getMaxBytes(), 0);
+    }
+  }
+
+  /**
+   * Resets the token count and the depth, before the document is scanned again by another lexer.
+   */
+  void restartScan() {
+    tokens = 0;
+    depth = 0;
+  }
+
+  /**
+   * Counts a scanned token, and the collections it opens or closes.
+   */
+  @Override
+  public void accept(Token token) {
+    if (++tokens > limits.getMaxTokens()) {
+      throw new ParseLimitExceededException(ParseLimits.Limit.TOKENS, limits.getMaxTokens(), token.getLine());
+    }
+    depth = depthAfter(depth, token);
+    tick();
+  }
+
+  /**
+   * @return the budgets of the chunks of the document lexed in parallel, one per chunk, each used by the thread that
+   * lexes its chunk: they check the depth of their chunk and the time limit, and count the tokens of all the chunks
+   * together, so that the lexing stops once a chunk goes beyond the limits. The document is then lexed again by a single
+   * scanner, whose tokens this budget counts exactly, as it does for the tokens of the joined chunks.
+   */
+  Supplier<Consumer<Token>> chunkBudgets() {
+    AtomicLong scanned = new AtomicLong();
+    return () -> new ChunkBudget(scanned);
+  }
+
+  /**
+   * Checks the size of a node once its aliases are expanded.
+   * @param nodes the number of nodes of the expanded node
+   * @param line the line of the node
+   */
+  void checkExpansion(long nodes, int line) {
+    if (nodes > limits.getMaxAliasExpansion()) {
+      throw new ParseLimitExceededException(ParseLimits.Limit.ALIAS_EXPANSION, limits.getMaxAliasExpansion(), line);
+    }
+  }
+
+  /**
+   * Counts a validation step.
+   */
+  void step() {
+    if (++steps > limits.getMaxValidationSteps()) {
+      throw new ParseLimitExceededException(ParseLimits.Limit.VALIDATION_STEPS, limits.getMaxValidationSteps(), 0);
+    }
+    tick();
+  }
+
+  /**
+   * Checks the time limit, once every {@value #CLOCK_INTERVAL} calls.
+   */
+  void tick() {
+    if (++ticks == CLOCK_INTERVAL) {
+      ticks = 0;
+      checkTime();
+    }
+  }
+
+  private void checkTime() {
+    if (System.nanoTime() - start > timeout) {
+      Duration limit = limits.getTimeout();
+      throw new ParseLimitExceededException(ParseLimits.Limit.TIME, limit == null ? 0 : limit.toMillis(), 0);
+    }
+  }
+
+  /**
+   * @return the depth of the collections after a token
+   */
+  private int depthAfter(int depth, Token token) {
+    TokenType type = token.getType();
+    if (type == Tokens.BLOCK_MAPPING_START || type == Tokens.BLOCK_SEQUENCE_START
+      || type == Tokens.FLOW_MAPPING_START || type == Tokens.FLOW_SEQUENCE_START) {
+      if (depth + 1 > limits.getMaxDepth()) {
+        throw new ParseLimitExceededException(ParseLimits.Limit.DEPTH, limits.getMaxDepth(), token.getLine());
+      }
+      return depth + 1;
+    } else if (type == Tokens.BLOCK_END || type == Tokens.FLOW_MAPPING_END || type == Tokens.FLOW_SEQUENCE_END) {
+      return depth - 1;
+    }
+    return depth;
+  }
+
+  /**
+   * The budget of a chunk, which adds its tokens to the ones of all the chunks and reads the clock once every
+   * {@value #CLOCK_INTERVAL} tokens.
+   */
+  private final class ChunkBudget implements Consumer<Token> {
+    private final AtomicLong scanned;
+    private int tokens = 0;
+    private int depth = 0;
+
+    private ChunkBudget(AtomicLong scanned) {
+      this.scanned = scanned;
+    }
+
+    @Override
+    public void accept(Token token) {
+      depth = depthAfter(depth, token);
+      if (++tokens == CLOCK_INTERVAL) {
+        tokens = 0;
+        if (scanned.addAndGet(CLOCK_INTERVAL) > limits.getMaxTokens()) {
+          throw new ParseLimitExceededException(ParseLimits.Limit.TOKENS, limits.getMaxTokens(), token.getLine());
+        }
+        checkTime();
+      }
+    }
+  }
+}
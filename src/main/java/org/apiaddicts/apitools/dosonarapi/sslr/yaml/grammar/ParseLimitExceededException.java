@@ -0,0 +1,68 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.RecognitionException;
+
+/**
+ * Thrown when a document goes beyond one of the {@link ParseLimits} of the parser. The parse or the validation of the
+ * document is abandoned.
+ */
+public class ParseLimitExceededException extends RecognitionException {
+  private final ParseLimits.Limit limit;
+  private final long maximum;
+
+  public ParseLimitExceededException(ParseLimits.Limit limit, long maximum, int line) {
+    super(line, "Parse limit exceeded: " + describe(limit, maximum));
+    this.limit = limit;
+    this.maximum = maximum;
+  }
+
+  /**
+   * @return the limit that was exceeded
+   */
+  public ParseLimits.Limit getLimit() {
+    return limit;
+  }
+
+  /**
+   * @return the value of the exceeded limit, in bytes, tokens, levels, nodes, steps or milliseconds
+   */
+  public long getMaximum() {
+    return maximum;
+  }
+
+  private static String describe(ParseLimits.Limit limit, long maximum) {
+    switch (limit) {
+      case BYTES:
+        return "the document is larger than " + maximum + " bytes";
+      case TOKENS:
+        return "the document has more than " + maximum + " tokens";
+      case DEPTH:
+        return "the document has more than " + maximum + " nesting levels";
+      case ALIAS_EXPANSION:
+        return "the document expands to more than " + maximum + " nodes through its aliases";
+      case VALIDATION_STEPS:
+        return "the validation takes more than " + maximum + " steps";
+      default:
+        return "the document takes more than " + maximum + " ms to parse";
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import java.time.Duration;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Bounds on the resources spent on a single document. A document that goes beyond one of the limits is rejected with
+ * a {@link ParseLimitExceededException} as soon as the limit is reached: the size before the document is read, the
+ * tokens and the nesting depth while it is scanned, the expansion of its aliases once it is parsed, the validation
+ * steps while it is validated, and the time all along. Limits are immutable and can be shared by any number of parsers.
+ */
+public final class ParseLimits {
+  /**
+   * No limits at all, the default of the parsers.
+   */
+  public static final ParseLimits NONE = builder().build();
+
+  /**
+   * The resources that can be bounded.
+   */
+  public enum Limit {
+    /**
+     * The size of a document: the length of a file in bytes, or of a string in characters.
+     */
+    BYTES,
+    /**
+     * The number of tokens scanned from a document, including the generated ones.
+     */
+    TOKENS,
+    /**
+     * The number of nested collections of a document.
+     */
+    DEPTH,
+    /**
+     * The number of nodes of a document once its aliases are expanded, each alias counting for all the nodes of the
+     * anchored node it refers to. The aliases reference the anchored nodes, so the parse itself is not expanded; the
+     * limit bounds the work of the traversals and validations that follow the aliases.
+     */
+    ALIAS_EXPANSION,
+    /**
+     * The number of validation rules evaluated on a document, including the alternatives that failed.
+     */
+    VALIDATION_STEPS,
+    /**
+     * The time spent parsing and validating a document.
+     */
+    TIME
+  }
+
+  private final long maxBytes;
+  private final long maxTokens;
+  private final int maxDepth;
+  private final long maxAliasExpansion;
+  private final long maxValidationSteps;
+  private final Duration timeout;
+
+  private ParseLimits(Builder builder) {
+    this.maxBytes = builder.maxBytes;
+    this.maxTokens = builder.maxTokens;
+    this.maxDepth = builder.maxDepth;
+    this.maxAliasExpansion = builder.maxAliasExpansion;
+    this.maxValidationSteps = builder.maxValidationSteps;
+    this.timeout = builder.timeout;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public long getMaxTokens() {
+    return maxTokens;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public long getMaxAliasExpansion() {
+    return maxAliasExpansion;
+  }
+
+  public long getMaxValidationSteps() {
+    return maxValidationSteps;
+  }
+
+  /**
+   * @return the time allowed to parse and validate a document, or {@code null} if it is not limited
+   */
+  @CheckForNull
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Starts enforcing the limits on a new document. The time limit runs from this call.
+   */
+  ParseBudget newBudget() {
+    return new ParseBudget(this);
+  }
+
+  public static final class Builder {
+    private long maxBytes = Long.MAX_VALUE;
+    private long maxTokens = Long.MAX_VALUE;
+    private int maxDepth = Integer.MAX_VALUE;
+    private long maxAliasExpansion = Long.MAX_VALUE;
+    private long maxValidationSteps = Long.MAX_VALUE;
+    private Duration timeout;
+
+    private Builder() {
+      // use ParseLimits.builder()
+    }
+
+    public Builder withMaxBytes(long maxBytes) {
+      this.maxBytes = positive(maxBytes, Limit.BYTES);
+      return this;
+    }
+
+    public Builder withMaxTokens(long maxTokens) {
+      this.maxTokens = positive(maxTokens, Limit.TOKENS);
+      return this;
+    }
+
+    public Builder withMaxDepth(int maxDepth) {
+      this.maxDepth = (int) positive(maxDepth, Limit.DEPTH);
+      return this;
+    }
+
+    public Builder withMaxAliasExpansion(long maxAliasExpansion) {
+      this.maxAliasExpansion = positive(maxAliasExpansion, Limit.ALIAS_EXPANSION);
+      return this;
+    }
+
+    public Builder withMaxValidationSteps(long maxValidationSteps) {
+      this.maxValidationSteps = positive(maxValidationSteps, Limit.VALIDATION_STEPS);
+      return this;
+    }
+
+    /**
+     * Limits the time spent on each document, from the start of its parse to the end of its validation.
+     * @param timeout the time allowed, or {@code null} to remove the limit
+     * @return this builder
+     */
+    public Builder withTimeout(@Nullable Duration timeout) {
+      if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+        throw new IllegalArgumentException("The " + Limit.TIME + " limit must be positive, got " + timeout);
+      }
+      this.timeout = timeout;
+      return this;
+    }
+
+    public ParseLimits build() {
+      return new ParseLimits(this);
+    }
+
+    private static long positive(long value, Limit limit) {
+      if (value <= 0) {
+        throw new IllegalArgumentException("The " + limit + " limit must be positive, got " + value);
+      }
+      return value;
+    }
+  }
+}
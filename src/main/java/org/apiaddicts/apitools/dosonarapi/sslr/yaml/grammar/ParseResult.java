@@ -0,0 +1,86 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.AstNode;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The outcome of parsing a single document: its syntax tree, the validation issues found in this document only, and
+ * a few size metrics. Results are immutable once created and can be handed over to other threads.
+ */
+public final class ParseResult {
+  private final JsonNode root;
+  private final List<ValidationIssue> issues;
+  private final int tokenCount;
+  private final int nodeCount;
+
+  ParseResult(JsonNode root, List<ValidationIssue> issues, int tokenCount) {
+    this.root = root;
+    this.issues = Collections.unmodifiableList(issues);
+    this.tokenCount = tokenCount;
+    this.nodeCount = countNodes(root);
+  }
+
+  /**
+   * @return the root node of the document
+   */
+  public JsonNode getRoot() {
+    return root;
+  }
+
+  /**
+   * @return the validation issues (errors and warnings) of the document
+   */
+  public List<ValidationIssue> getIssues() {
+    return issues;
+  }
+
+  /**
+   * @return the number of tokens produced by the lexer, including the generated ones and the end of file
+   */
+  public int getTokenCount() {
+    return tokenCount;
+  }
+
+  /**
+   * @return the number of nodes in the syntax tree, including the root
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  private static int countNodes(AstNode root) {
+    int count = 0;
+    Deque<AstNode> pending = new ArrayDeque<>();
+    pending.push(root);
+    while (!pending.isEmpty()) {
+      AstNode node = pending.pop();
+      ++count;
+      for (AstNode child : node.getChildren()) {
+        pending.push(child);
+      }
+    }
+    return count;
+  }
+}
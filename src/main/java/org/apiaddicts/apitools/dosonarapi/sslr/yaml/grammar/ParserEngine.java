@@ -0,0 +1,380 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.Rule;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.LexerException;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.JsonScanner;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Lexer;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.LexerOptions;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.TokenOffsets;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.YamlScanner;
+import org.sonar.sslr.internal.vm.CompilableGrammarRule;
+import org.sonar.sslr.internal.vm.CompiledGrammar;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.MutableGrammarCompiler;
+
+/**
+ * The immutable part of a {@link YamlParser}: the compiled {@link YamlGrammar}, the lexer configuration and the
+ * grammar validator. An engine holds no per-document state and can be shared by any number of parsers and threads;
+ * every call to {@link #newLexer()}, {@link #parseAst(List)} or {@code parse} works on fresh, call-local state.
+ */
+public final class ParserEngine {
+  // the URI set by the SSLR lexer on the tokens of a string
+  private static final URI STRING_URI = URI.create("tests://unittest");
+
+  private final Charset charset;
+  private final GrammarValidator validator;
+  private final ParserImplementation implementation;
+  private final InputFormat inputFormat;
+  private final ParseLimits limits;
+  private final LexerOptions lexerOptions;
+
+  private ParserEngine(Charset charset, GrammarValidator validator, ParserImplementation implementation, InputFormat inputFormat, ParseLimits limits,
+    LexerOptions lexerOptions) {
+    this.charset = charset;
+    this.validator = validator;
+    this.implementation = implementation;
+    this.inputFormat = inputFormat;
+    this.limits = limits;
+    this.lexerOptions = lexerOptions;
+  }
+
+  /**
+   * Creates an engine that validates the parsed documents against {@code rootRule}.
+   * @param charset the charset used to read files
+   * @param rootRule the root rule of the validation grammar, or {@code null} to skip validation
+   * @return the new engine
+   */
+  public static ParserEngine create(Charset charset, @Nullable ValidationRule rootRule) {
+    return create(charset, rootRule, ParserImplementation.SSLR_MACHINE);
+  }
+
+  /**
+   * Creates an engine that validates the parsed documents against {@code rootRule}.
+   * @param charset the charset used to read files
+   * @param rootRule the root rule of the validation grammar, or {@code null} to skip validation
+   * @param implementation the parser building the syntax trees
+   * @return the new engine
+   */
+  public static ParserEngine create(Charset charset, @Nullable ValidationRule rootRule, ParserImplementation implementation) {
+    return create(charset, rootRule, implementation, InputFormat.AUTO);
+  }
+
+  /**
+   * Creates an engine that validates the parsed documents against {@code rootRule}.
+   * @param charset the charset used to read files
+   * @param rootRule the root rule of the validation grammar, or {@code null} to skip validation
+   * @param implementation the parser building the syntax trees
+   * @param inputFormat the scanner tokenizing the documents given to {@code parse}
+   * @return the new engine
+   */
+  public static ParserEngine create(Charset charset, @Nullable ValidationRule rootRule, ParserImplementation implementation, InputFormat inputFormat) {
+    return create(charset, rootRule, implementation, inputFormat, ParseLimits.NONE, LexerOptions.DEFAULT);
+  }
+
+  /**
+   * Creates an engine that validates the parsed documents against {@code rootRule}. The engines with limits or lexer
+   * options are built by {@link YamlParser.Builder#buildEngine()}.
+   * @param charset the charset used to read files
+   * @param rootRule the root rule of the validation grammar, or {@code null} to skip validation
+   * @param implementation the parser building the syntax trees
+   * @param inputFormat the scanner tokenizing the documents given to {@code parse}
+   * @param limits the limits enforced on each document
+   * @param lexerOptions how the scanners read the documents
+   * @return the new engine
+   */
+  static ParserEngine create(Charset charset, @Nullable ValidationRule rootRule, ParserImplementation implementation, InputFormat inputFormat,
+    ParseLimits limits, LexerOptions lexerOptions) {
+    return new ParserEngine(charset, rootRule == null ? YamlParser.NULL_VALIDATOR : new ASTValidator(rootRule), implementation, inputFormat, limits,
+      lexerOptions);
+  }
+
+  public Charset getCharset() {
+    return charset;
+  }
+
+  public GrammarValidator getValidator() {
+    return validator;
+  }
+
+  public ParserImplementation getImplementation() {
+    return implementation;
+  }
+
+  public InputFormat getInputFormat() {
+    return inputFormat;
+  }
+
+  public ParseLimits getLimits() {
+    return limits;
+  }
+
+  public LexerOptions getLexerOptions() {
+    return lexerOptions;
+  }
+
+  /**
+   * Starts enforcing the engine's limits on a new document.
+   */
+  ParseBudget newBudget() {
+    return limits.newBudget();
+  }
+
+  /**
+   * Creates the lexer for a single document. Lexers carry the scanning state of the document they read, so they must
+   * not be shared between threads.
+   * @return a new lexer using the engine's charset
+   */
+  public com.sonar.sslr.impl.Lexer newLexer() {
+    return Lexer.create(charset, token -> {
+    }, lexerOptions);
+  }
+
+  /**
+   * Builds the AST of a lexed document, with the engine's {@link ParserImplementation}.
+   * @param tokens the tokens of the document, as produced by {@link #newLexer()}
+   * @return the root node of the document
+   */
+  public JsonNode parseAst(List<Token> tokens) {
+    return parseAst(tokens, newBudget());
+  }
+
+  JsonNode parseAst(List<Token> tokens, ParseBudget budget) {
+    JsonNode root;
+    if (implementation == ParserImplementation.SSLR_MACHINE) {
+      root = JsonAstCreator.create(Machine.parse(tokens, CompiledYamlGrammar.INSTANCE), tokens, budget);
+    } else {
+      root = RecursiveDescentParser.parse(tokens, budget);
+    }
+    return (JsonNode) root.getFirstChild();
+  }
+
+  /**
+   * Lexes and parses a file, with the engine's {@link ParserImplementation}. The file is decoded once into a single
+   * buffer read by the scanners; large files are mapped into memory instead of being copied into the heap.
+   * @param file the file to parse
+   * @return the root node of the document
+   * @throws LexerException if the file cannot be lexed
+   * @throws ParseLimitExceededException if the file goes beyond the engine's {@link ParseLimits}
+   */
+  public JsonNode parse(File file) {
+    return parse(file, newBudget());
+  }
+
+  JsonNode parse(File file, ParseBudget budget) {
+    return parse(file.toPath(), file.toURI(), budget);
+  }
+
+  /**
+   * Lexes and parses a file, with the engine's {@link ParserImplementation}. See {@link #parse(File)}.
+   * @param path the file to parse
+   * @return the root node of the document
+   * @throws LexerException if the file cannot be lexed
+   * @throws ParseLimitExceededException if the file goes beyond the engine's {@link ParseLimits}
+   */
+  public JsonNode parse(Path path) {
+    return parse(path, path.toUri(), newBudget());
+  }
+
+  JsonNode parse(Path path, URI uri, ParseBudget budget) {
+    CharBuffer text = read(path, uri, budget);
+    TokenOffsets offsets = newOffsets();
+    if (inputFormat == InputFormat.JSON || (inputFormat == InputFormat.AUTO && JsonScanner.startsLikeJson(text))) {
+      List<Token> tokens = JsonScanner.scan(text, uri, budget, lexerOptions, offsets);
+      if (tokens != null) {
+        return withSource(parseAst(tokens, budget), text, offsets);
+      }
+      budget.restartScan();
+    }
+    if (implementation == ParserImplementation.STREAMING) {
+      return withSource(parseStreaming(text, uri, budget, offsets), text, offsets);
+    }
+    List<Token> tokens = lexInParallel(text, uri, budget, offsets);
+    if (tokens == null) {
+      try {
+        tokens = Lexer.lex(text, uri, budget, lexerOptions, offsets);
+      } catch (LexerException e) {
+        throw limitExceededOr(e);
+      }
+    }
+    return withSource(parseAst(tokens, budget), text, offsets);
+  }
+
+  /**
+   * Lexes and parses a document, with the engine's {@link ParserImplementation}.
+   * @param text the document to parse
+   * @return the root node of the document
+   * @throws LexerException if the document cannot be lexed
+   * @throws ParseLimitExceededException if the document goes beyond the engine's {@link ParseLimits}
+   */
+  public JsonNode parse(String text) {
+    return parse(text, newBudget());
+  }
+
+  JsonNode parse(String text, ParseBudget budget) {
+    budget.checkSize(text.length());
+    TokenOffsets offsets = newOffsets();
+    if (inputFormat == InputFormat.JSON || (inputFormat == InputFormat.AUTO && JsonScanner.startsLikeJson(text))) {
+      List<Token> tokens = JsonScanner.scan(text, STRING_URI, budget, lexerOptions, offsets);
+      if (tokens != null) {
+        return withSource(parseAst(tokens, budget), text, offsets);
+      }
+      budget.restartScan();
+    }
+    if (implementation == ParserImplementation.STREAMING) {
+      return withSource(parseStreaming(text, STRING_URI, budget, offsets), text, offsets);
+    }
+    return withSource(parseAst(lex(text, budget, offsets), budget), text, offsets);
+  }
+
+  /**
+   * Lexes and parses a document cut from a multi-document stream, moving its tokens, and the lines of its source, to
+   * the lines of the stream.
+   * @param firstLine the line of the stream on which the document starts
+   * @param uri the URI of the stream, or {@code null} to keep the one of the tokens
+   * @throws LexerException if the document cannot be lexed
+   * @throws ParseLimitExceededException if the document goes beyond the engine's {@link ParseLimits}
+   */
+  JsonNode parseDocument(String text, int firstLine, @Nullable URI uri, ParseBudget budget) {
+    budget.checkSize(text.length());
+    TokenOffsets offsets = newOffsets();
+    List<Token> tokens = lex(text, budget, offsets);
+    URI tokenUri = uri == null ? tokens.get(0).getURI() : uri;
+    JsonNode root = parseAst(DocumentReader.relocate(tokens, firstLine - 1, tokenUri), budget);
+    return withSource(root, text, offsets, firstLine - 1);
+  }
+
+  private List<Token> lex(String text, ParseBudget budget, @Nullable TokenOffsets offsets) {
+    List<Token> tokens = lexInParallel(text, STRING_URI, budget, offsets);
+    if (tokens != null) {
+      return tokens;
+    }
+    try {
+      // the SSLR lexer copies the text three times, and builds the same tokens
+      return Lexer.lex(text, STRING_URI, budget, lexerOptions, offsets);
+    } catch (LexerException e) {
+      throw limitExceededOr(e);
+    }
+  }
+
+  /**
+   * Lexes a large YAML document in chunks, on the engine's lexing executor, checking the chunks against the budget of
+   * the document as they are scanned.
+   * @return the tokens of the document, or {@code null} if it must be lexed on the calling thread
+   */
+  @CheckForNull
+  private List<Token> lexInParallel(CharSequence text, URI uri, ParseBudget budget, @Nullable TokenOffsets offsets) {
+    return Lexer.lexInParallel(text, uri, budget, budget.chunkBudgets(), lexerOptions, offsets);
+  }
+
+  /**
+   * @return the offsets recording the tokens of a document, or {@code null} if the engine does not keep them
+   */
+  @CheckForNull
+  private TokenOffsets newOffsets() {
+    return lexerOptions.recordsOffsets() ? new TokenOffsets() : null;
+  }
+
+  /**
+   * Keeps the source of a document on its {@link YamlGrammar#ROOT} node, if the engine keeps it.
+   */
+  private static JsonNode withSource(JsonNode root, CharSequence text, @Nullable TokenOffsets offsets) {
+    return withSource(root, text, offsets, 0);
+  }
+
+  private static JsonNode withSource(JsonNode root, CharSequence text, @Nullable TokenOffsets offsets, int lineOffset) {
+    if (offsets != null) {
+      ((DocumentNode) root.getParent()).setSource(new DocumentSource(text, offsets, lineOffset));
+    }
+    return root;
+  }
+
+  /**
+   * Validates a document, counting the validation steps in a budget.
+   */
+  List<ValidationIssue> validate(JsonNode rootNode, ParseBudget budget) {
+    if (validator instanceof ASTValidator) {
+      return ((ASTValidator) validator).validate(rootNode, budget);
+    }
+    return validator.validate(rootNode);
+  }
+
+  /**
+   * The SSLR lexer wraps the exceptions of its channels, including the ones of the budget observing the tokens.
+   */
+  private static RuntimeException limitExceededOr(LexerException e) {
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof ParseLimitExceededException) {
+        return (ParseLimitExceededException) cause;
+      }
+    }
+    return e;
+  }
+
+  /**
+   * Decodes a whole file, once for all the scanners that may read it.
+   */
+  private CharBuffer read(Path path, URI uri, ParseBudget budget) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      budget.checkSize(channel.size());
+      return SourceDecoder.decode(channel, charset);
+    } catch (IOException e) {
+      throw new LexerException("Unable to lex file: " + uri, e);
+    }
+  }
+
+  private JsonNode parseStreaming(CharSequence text, URI uri, ParseBudget budget, @Nullable TokenOffsets offsets) {
+    JsonNode root = RecursiveDescentParser.parse(new ScannerInput(new YamlScanner(text, uri, budget, lexerOptions, offsets)),
+      budget);
+    return (JsonNode) root.getFirstChild();
+  }
+
+  /**
+   * Lazy holder of the YAML grammar. The compiled instructions are read-only, so the grammar is compiled once per class
+   * loader rather than once per parser; this saves little time, since {@code ParserEngineBenchmark} measures the setup
+   * of a shared engine and of a parser of its own within noise of each other.
+   */
+  private static final class CompiledYamlGrammar {
+    private static final CompiledGrammar INSTANCE = compile();
+
+    private CompiledYamlGrammar() {
+      // hidden holder class constructor
+    }
+
+    private static CompiledGrammar compile() {
+      Rule rootRule = YamlGrammar.create().build().getRootRule();
+      return MutableGrammarCompiler.compile((CompilableGrammarRule) rootRule);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+/**
+ * The implementations available to build the syntax tree of a document from its tokens. They produce the same trees
+ * and report the same parse errors.
+ */
+public enum ParserImplementation {
+  /**
+   * The {@link YamlGrammar} compiled and run by the SSLR parsing machine; the {@link JsonNode} tree is then created
+   * from the machine's parse tree.
+   */
+  SSLR_MACHINE,
+  /**
+   * A hand-written recursive descent parser for the {@link YamlGrammar}, which builds the {@link JsonNode} tree
+   * directly from the tokens, without an intermediate parse tree.
+   */
+  RECURSIVE_DESCENT,
+  /**
+   * The {@link #RECURSIVE_DESCENT} parser, pulling the tokens from the lexer while it builds the tree. Errors are
+   * reported from this single pass, like the other implementations do. The lexer still holds the whole text and the
+   * tree every token, so this saves little memory.
+   */
+  STREAMING
+}
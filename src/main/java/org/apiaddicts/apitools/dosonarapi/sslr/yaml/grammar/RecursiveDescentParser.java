@@ -0,0 +1,663 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.AliasNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ArrayNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ObjectNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.PropertyNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ScalarNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.SyntaxNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
+import org.sonar.sslr.internal.vm.lexerful.LexerfulParseErrorFormatter;
+
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.ALIAS;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.BLOCK_ARRAY_ELEMENT;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.BLOCK_MAPPING;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.BLOCK_PROPERTY;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.BLOCK_SEQUENCE;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.FLOW_ARRAY_ELEMENT;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.FLOW_MAPPING;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.FLOW_PROPERTY;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.FLOW_SEQUENCE;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.INDENTLESS_SEQUENCE;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.ROOT;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.SCALAR;
+
+/**
+ * A hand-written parser for the {@link YamlGrammar}, building the {@link JsonNode} tree straight from the tokens.
+ * <p>
+ * Each rule of the grammar is a method. The rules are LL(1), so alternatives are selected on the next token only, or
+ * on the token after it when the next token is the anchor of a node.
+ * Like the SSLR parsing machine, a rule that fails restores the input position, which gives the same results as
+ * the PEG semantics of the grammar. The produced tree is the same as the one built by {@link JsonAstCreator} on the
+ * parse tree of the SSLR machine: same node classes and types, same children, same token indexes. Parse errors are
+ * reported at the same token, with the same message.
+ * <p>
+ * The children of the rule being parsed are kept on a single stack, and attached to their parent once the parent rule
+ * succeeds. Rules skipped from the AST leave their children on the stack, to be adopted by the enclosing rule.
+ * <p>
+ * The tokens are read through a {@link TokenInput}: either the token list of the document, or a {@link ScannerInput}
+ * pulling them from the lexer as the parse goes.
+ */
+final class RecursiveDescentParser {
+  private final TokenInput input;
+  private final ParseBudget budget;
+  private final List<JsonNode> stack = new ArrayList<>();
+  private int index = 0;
+  // index of the last token test that failed
+  private int lastFailure = -1;
+  // furthest index at which a rule failed, as reported by the SSLR machine
+  private int errorIndex = -1;
+  private boolean hasAliases = false;
+
+  private RecursiveDescentParser(TokenInput input, ParseBudget budget) {
+    this.input = input;
+    this.budget = budget;
+  }
+
+  /**
+   * Parses a document.
+   * @param tokens the tokens of the document, ending with the EOF token
+   * @return the {@link YamlGrammar#ROOT} node of the document
+   * @throws RecognitionException if the tokens do not match the grammar
+   */
+  static JsonNode parse(List<Token> tokens) {
+    return parse(tokens, ParseLimits.NONE.newBudget());
+  }
+
+  /**
+   * Parses a document, checking the time limit of a budget as the nodes are built.
+   * @param tokens the tokens of the document, ending with the EOF token
+   * @param budget the budget of the document
+   * @return the {@link YamlGrammar#ROOT} node of the document
+   * @throws RecognitionException if the tokens do not match the grammar
+   */
+  static JsonNode parse(List<Token> tokens, ParseBudget budget) {
+    if (tokens.isEmpty()) {
+      throw new RecognitionException(1, "No tokens");
+    }
+    return parse(new TokenList(tokens), budget);
+  }
+
+  /**
+   * Parses a document read from a {@link TokenInput}.
+   * @param input the tokens of the document, ending with the EOF token
+   * @return the {@link YamlGrammar#ROOT} node of the document
+   * @throws RecognitionException if the tokens do not match the grammar
+   */
+  static JsonNode parse(TokenInput input) {
+    return parse(input, ParseLimits.NONE.newBudget());
+  }
+
+  static JsonNode parse(TokenInput input, ParseBudget budget) {
+    return new RecursiveDescentParser(input, budget).parseRoot();
+  }
+
+  private JsonNode parseRoot() {
+    if (!root()) {
+      throw input.parseError(errorIndex);
+    }
+    JsonNode rootNode = stack.get(0);
+    if (hasAliases) {
+      AliasResolver.resolve(rootNode, budget);
+    }
+    return rootNode;
+  }
+
+  // ROOT = optional(BLOCK_CONTENT), EOF
+  private boolean root() {
+    int start = index;
+    int mark = stack.size();
+    blockContent();
+    if (!token(GenericTokenType.EOF)) {
+      return fail(start, mark);
+    }
+    return reduce(ROOT, start, mark);
+  }
+
+  // BLOCK_OR_INDENTLESS = firstOf(INDENTLESS_SEQUENCE, BLOCK_CONTENT), skipped
+  private boolean blockOrIndentless() {
+    int start = index;
+    int mark = stack.size();
+    if (contentType() == Tokens.BLOCK_ENTRY) {
+      if (indentlessSequence()) {
+        return true;
+      }
+    } else {
+      skipAnchoredAlternative();
+      if (isBlockContentStart() && blockContent()) {
+        return true;
+      }
+    }
+    return failAlternatives(start, mark);
+  }
+
+  // BLOCK_CONTENT = firstOf(SCALAR, ALIAS, BLOCK_COLLECTION, FLOW_COLLECTION), skipped
+  private boolean blockContent() {
+    int start = index;
+    int mark = stack.size();
+    TokenType type = contentType();
+    if (isScalar(type)) {
+      if (scalar()) {
+        return true;
+      }
+    } else if (peek() == Tokens.ALIAS) {
+      skipAlternative();
+      if (alias()) {
+        return true;
+      }
+    } else if (type == Tokens.BLOCK_SEQUENCE_START || type == Tokens.BLOCK_MAPPING_START) {
+      skipAnchoredAlternative();
+      skipAlternative();
+      if (blockCollection()) {
+        return true;
+      }
+    } else if (type == Tokens.FLOW_SEQUENCE_START || type == Tokens.FLOW_MAPPING_START) {
+      skipAnchoredAlternative();
+      skipAlternative();
+      skipAnchoredAlternative();
+      if (flowCollection()) {
+        return true;
+      }
+    }
+    return failAlternatives(start, mark);
+  }
+
+  // FLOW_CONTENT = firstOf(SCALAR, ALIAS, FLOW_COLLECTION), skipped
+  private boolean flowContent() {
+    int start = index;
+    int mark = stack.size();
+    TokenType type = contentType();
+    if (isScalar(type)) {
+      if (scalar()) {
+        return true;
+      }
+    } else if (peek() == Tokens.ALIAS) {
+      skipAlternative();
+      if (alias()) {
+        return true;
+      }
+    } else if (type == Tokens.FLOW_SEQUENCE_START || type == Tokens.FLOW_MAPPING_START) {
+      skipAnchoredAlternative();
+      skipAlternative();
+      if (flowCollection()) {
+        return true;
+      }
+    }
+    return failAlternatives(start, mark);
+  }
+
+  // BLOCK_COLLECTION = firstOf(BLOCK_SEQUENCE, BLOCK_MAPPING), skipped
+  private boolean blockCollection() {
+    int start = index;
+    int mark = stack.size();
+    TokenType type = contentType();
+    if (type == Tokens.BLOCK_SEQUENCE_START) {
+      if (blockSequence()) {
+        return true;
+      }
+    } else if (type == Tokens.BLOCK_MAPPING_START) {
+      skipAnchoredAlternative();
+      if (blockMapping()) {
+        return true;
+      }
+    }
+    return failAlternatives(start, mark);
+  }
+
+  // FLOW_COLLECTION = firstOf(FLOW_SEQUENCE, FLOW_MAPPING), skipped
+  private boolean flowCollection() {
+    int start = index;
+    int mark = stack.size();
+    TokenType type = contentType();
+    if (type == Tokens.FLOW_SEQUENCE_START) {
+      if (flowSequence()) {
+        return true;
+      }
+    } else if (type == Tokens.FLOW_MAPPING_START) {
+      skipAnchoredAlternative();
+      if (flowMapping()) {
+        return true;
+      }
+    }
+    return failAlternatives(start, mark);
+  }
+
+  // FLOW_SEQUENCE_ENTRY = firstOf(FLOW_CONTENT, FLOW_PROPERTY), skipped
+  private boolean flowSequenceEntry() {
+    int start = index;
+    int mark = stack.size();
+    if (peek() == Tokens.KEY) {
+      skipAlternative();
+      if (flowProperty()) {
+        return true;
+      }
+    } else if (isFlowContentStart() && flowContent()) {
+      return true;
+    }
+    return failAlternatives(start, mark);
+  }
+
+  // INDENTLESS_SEQUENCE = optional(ANCHOR), oneOrMore(BLOCK_ENTRY, optional(BLOCK_ARRAY_ELEMENT))
+  private boolean indentlessSequence() {
+    int start = index;
+    int mark = stack.size();
+    token(Tokens.ANCHOR);
+    if (!token(Tokens.BLOCK_ENTRY)) {
+      return fail(start, mark);
+    }
+    blockArrayElement();
+    while (token(Tokens.BLOCK_ENTRY)) {
+      blockArrayElement();
+    }
+    return reduce(INDENTLESS_SEQUENCE, start, mark);
+  }
+
+  // BLOCK_SEQUENCE = optional(ANCHOR), BLOCK_SEQUENCE_START, zeroOrMore(BLOCK_ENTRY, optional(BLOCK_ARRAY_ELEMENT)),
+  //                  BLOCK_END
+  private boolean blockSequence() {
+    int start = index;
+    int mark = stack.size();
+    token(Tokens.ANCHOR);
+    if (!token(Tokens.BLOCK_SEQUENCE_START)) {
+      return fail(start, mark);
+    }
+    while (token(Tokens.BLOCK_ENTRY)) {
+      blockArrayElement();
+    }
+    if (!token(Tokens.BLOCK_END)) {
+      return fail(start, mark);
+    }
+    return reduce(BLOCK_SEQUENCE, start, mark);
+  }
+
+  // BLOCK_ARRAY_ELEMENT = BLOCK_CONTENT
+  private boolean blockArrayElement() {
+    int start = index;
+    int mark = stack.size();
+    if (!blockContent()) {
+      return fail(start, mark);
+    }
+    return reduce(BLOCK_ARRAY_ELEMENT, start, mark);
+  }
+
+  // BLOCK_MAPPING = optional(ANCHOR), BLOCK_MAPPING_START, zeroOrMore(BLOCK_PROPERTY), BLOCK_END
+  private boolean blockMapping() {
+    int start = index;
+    int mark = stack.size();
+    token(Tokens.ANCHOR);
+    if (!token(Tokens.BLOCK_MAPPING_START)) {
+      return fail(start, mark);
+    }
+    while (blockProperty()) {
+      // consume all properties
+    }
+    if (!token(Tokens.BLOCK_END)) {
+      return fail(start, mark);
+    }
+    return reduce(BLOCK_MAPPING, start, mark);
+  }
+
+  // BLOCK_PROPERTY = KEY, optional(BLOCK_OR_INDENTLESS), optional(VALUE, optional(BLOCK_OR_INDENTLESS))
+  private boolean blockProperty() {
+    int start = index;
+    int mark = stack.size();
+    if (!token(Tokens.KEY)) {
+      return fail(start, mark);
+    }
+    blockOrIndentless();
+    if (token(Tokens.VALUE)) {
+      blockOrIndentless();
+    }
+    return reduce(BLOCK_PROPERTY, start, mark);
+  }
+
+  // FLOW_SEQUENCE = optional(ANCHOR), FLOW_SEQUENCE_START, zeroOrMore(FLOW_ARRAY_ELEMENT, FLOW_ENTRY),
+  //                 optional(FLOW_ARRAY_ELEMENT), FLOW_SEQUENCE_END
+  private boolean flowSequence() {
+    int start = index;
+    int mark = stack.size();
+    token(Tokens.ANCHOR);
+    if (!token(Tokens.FLOW_SEQUENCE_START)) {
+      return fail(start, mark);
+    }
+    // The last entry is matched by the optional entry that follows the repetition: instead of backtracking over it
+    // and matching it again, it is kept when the entry separator is missing.
+    while (flowArrayElement() && token(Tokens.FLOW_ENTRY)) {
+      // consume all entries
+    }
+    if (!token(Tokens.FLOW_SEQUENCE_END)) {
+      return fail(start, mark);
+    }
+    return reduce(FLOW_SEQUENCE, start, mark);
+  }
+
+  // FLOW_ARRAY_ELEMENT = FLOW_SEQUENCE_ENTRY
+  private boolean flowArrayElement() {
+    int start = index;
+    int mark = stack.size();
+    if (!flowSequenceEntry()) {
+      return fail(start, mark);
+    }
+    return reduce(FLOW_ARRAY_ELEMENT, start, mark);
+  }
+
+  // FLOW_MAPPING = optional(ANCHOR), FLOW_MAPPING_START, zeroOrMore(FLOW_SEQUENCE_ENTRY, FLOW_ENTRY),
+  //                optional(FLOW_SEQUENCE_ENTRY), FLOW_MAPPING_END
+  private boolean flowMapping() {
+    int start = index;
+    int mark = stack.size();
+    token(Tokens.ANCHOR);
+    if (!token(Tokens.FLOW_MAPPING_START)) {
+      return fail(start, mark);
+    }
+    // The last entry is matched by the optional entry that follows the repetition: instead of backtracking over it
+    // and matching it again, it is kept when the entry separator is missing.
+    while (flowSequenceEntry() && token(Tokens.FLOW_ENTRY)) {
+      // consume all entries
+    }
+    if (!token(Tokens.FLOW_MAPPING_END)) {
+      return fail(start, mark);
+    }
+    return reduce(FLOW_MAPPING, start, mark);
+  }
+
+  // FLOW_PROPERTY = KEY, optional(FLOW_CONTENT), optional(VALUE, optional(FLOW_CONTENT))
+  private boolean flowProperty() {
+    int start = index;
+    int mark = stack.size();
+    if (!token(Tokens.KEY)) {
+      return fail(start, mark);
+    }
+    flowContent();
+    if (token(Tokens.VALUE)) {
+      flowContent();
+    }
+    return reduce(FLOW_PROPERTY, start, mark);
+  }
+
+  // SCALAR = optional(ANCHOR), firstOf(NULL, TRUE, FALSE, INTEGER, FLOAT, STRING); the scalar tokens are not kept as
+  // children, only the anchor
+  private boolean scalar() {
+    int start = index;
+    int mark = stack.size();
+    token(Tokens.ANCHOR);
+    if (!isScalar(peek())) {
+      lastFailure = index;
+      return fail(start, mark);
+    }
+    JsonNode node = new ScalarNode(SCALAR, SCALAR.name(), input.tokenAt(index));
+    ++index;
+    if (stack.size() > mark) {
+      node.addChild(stack.get(mark));
+      truncate(mark);
+    }
+    node.setFromIndex(start);
+    node.setToIndex(index);
+    stack.add(node);
+    return true;
+  }
+
+  // ALIAS = ALIAS; the alias token is not kept as a child
+  private boolean alias() {
+    int start = index;
+    if (peek() != Tokens.ALIAS) {
+      lastFailure = index;
+      return fail(start, stack.size());
+    }
+    JsonNode node = new AliasNode(ALIAS, ALIAS.name(), input.tokenAt(start));
+    ++index;
+    node.setFromIndex(start);
+    node.setToIndex(index);
+    stack.add(node);
+    hasAliases = true;
+    return true;
+  }
+
+  private static boolean isScalar(@Nullable TokenType type) {
+    return type == Tokens.STRING || type == Tokens.INTEGER || type == Tokens.FLOAT
+      || type == Tokens.TRUE || type == Tokens.FALSE || type == Tokens.NULL;
+  }
+
+  private boolean isFlowContentStart() {
+    TokenType type = contentType();
+    return isScalar(type) || peek() == Tokens.ALIAS || type == Tokens.FLOW_SEQUENCE_START || type == Tokens.FLOW_MAPPING_START;
+  }
+
+  private boolean isBlockContentStart() {
+    TokenType type = contentType();
+    return isFlowContentStart() || type == Tokens.BLOCK_SEQUENCE_START || type == Tokens.BLOCK_MAPPING_START;
+  }
+
+  @Nullable
+  private TokenType peek() {
+    return input.typeAt(index);
+  }
+
+  /**
+   * @return the type of the first token of the next node, after its anchor
+   */
+  @Nullable
+  private TokenType contentType() {
+    TokenType type = input.typeAt(index);
+    return type == Tokens.ANCHOR ? input.typeAt(index + 1) : type;
+  }
+
+  /**
+   * @return the index of the first token of the next node, after its anchor
+   */
+  private int contentIndex() {
+    return input.typeAt(index) == Tokens.ANCHOR ? index + 1 : index;
+  }
+
+  private boolean token(TokenType type) {
+    if (input.typeAt(index) != type) {
+      lastFailure = index;
+      return false;
+    }
+    JsonNode node = new SyntaxNode(type, type.getName(), input.tokenAt(index));
+    node.setFromIndex(index);
+    node.setToIndex(index + 1);
+    stack.add(node);
+    ++index;
+    return true;
+  }
+
+  /**
+   * Accounts for an alternative of a choice that cannot start with the next token. The SSLR machine would have tried
+   * it, and every alternative is a rule, whose failure is recorded.
+   */
+  private void skipAlternative() {
+    lastFailure = index;
+    recordFailure();
+  }
+
+  /**
+   * Accounts for an alternative that may start with an anchor, and cannot start with the token after it.
+   */
+  private void skipAnchoredAlternative() {
+    lastFailure = contentIndex();
+    recordFailure();
+  }
+
+  private boolean failAlternatives(int start, int mark) {
+    // the alternatives that were not tried would have failed on the first token, or on the one after its anchor
+    lastFailure = contentIndex();
+    return fail(start, mark);
+  }
+
+  private boolean fail(int start, int mark) {
+    recordFailure();
+    rewind(start, mark);
+    return false;
+  }
+
+  private void recordFailure() {
+    if (errorIndex < lastFailure) {
+      errorIndex = lastFailure;
+    }
+  }
+
+  private void rewind(int start, int mark) {
+    input.rewind(start);
+    index = start;
+    truncate(mark);
+  }
+
+  private void truncate(int mark) {
+    for (int i = stack.size() - 1; i >= mark; --i) {
+      stack.remove(i);
+    }
+  }
+
+  private boolean reduce(YamlGrammar type, int start, int mark) {
+    budget.tick();
+    // the first token of the rule is the token of its first child, unless the rule is empty; the token of an anchored
+    // node is the one after its anchor
+    Token token;
+    if (start == index) {
+      token = input.tokenAt(start);
+    } else if (stack.get(mark).getType() == Tokens.ANCHOR) {
+      token = stack.get(mark + 1).getToken();
+    } else {
+      token = stack.get(mark).getToken();
+    }
+    JsonNode node = createNode(type, token);
+    for (int i = mark; i < stack.size(); ++i) {
+      node.addChild(stack.get(i));
+    }
+    truncate(mark);
+    node.setFromIndex(start);
+    node.setToIndex(index);
+    stack.add(node);
+    return true;
+  }
+
+  private static JsonNode createNode(YamlGrammar type, @Nullable Token token) {
+    switch (type) {
+      case INDENTLESS_SEQUENCE:
+      case BLOCK_SEQUENCE:
+      case FLOW_SEQUENCE:
+        return new ArrayNode(type, type.name(), token);
+      case BLOCK_MAPPING:
+      case FLOW_MAPPING:
+        return new ObjectNode(type, type.name(), token);
+      case BLOCK_PROPERTY:
+      case FLOW_PROPERTY:
+        return new PropertyNode(type, type.name(), token);
+      case ROOT:
+        return new DocumentNode(type, type.name(), token);
+      default:
+        return new SyntaxNode(type, type.name(), token);
+    }
+  }
+
+  /**
+   * @param tokens the tokens of the document, ending with the EOF token
+   * @param errorIndex the index of the token where the parse failed
+   * @return the error reported by the SSLR machine for the same tokens
+   */
+  static RecognitionException parseError(List<Token> tokens, int errorIndex) {
+    String message = new LexerfulParseErrorFormatter().format(tokens, errorIndex);
+    int line = errorIndex < tokens.size() ? tokens.get(errorIndex).getLine() : tokens.get(tokens.size() - 1).getLine();
+    return new RecognitionException(line, message);
+  }
+
+  /**
+   * The tokens of a document, accessed by index. The parser reads them in order, and only goes back to a previous
+   * token when a rule fails.
+   */
+  interface TokenInput {
+    /**
+     * @param index the index of a token
+     * @return the type of the token, or {@code null} past the last token
+     */
+    @Nullable
+    TokenType typeAt(int index);
+
+    /**
+     * @param index the index of a token
+     * @return the token, or {@code null} past the last token
+     */
+    @Nullable
+    Token tokenAt(int index);
+
+    /**
+     * Called when a rule fails, before the parser goes back to the first token of the rule.
+     * @param index the index the parser goes back to
+     */
+    void rewind(int index);
+
+    /**
+     * @param errorIndex the index of the token where the parse failed
+     * @return the error to throw
+     */
+    RuntimeException parseError(int errorIndex);
+  }
+
+  /**
+   * The tokens of a fully lexed document.
+   */
+  private static final class TokenList implements TokenInput {
+    private final List<Token> tokenList;
+    private final Token[] tokens;
+    private final TokenType[] types;
+
+    private TokenList(List<Token> tokens) {
+      this.tokenList = tokens;
+      this.tokens = tokens.toArray(new Token[0]);
+      this.types = new TokenType[this.tokens.length];
+      for (int i = 0; i < this.tokens.length; ++i) {
+        types[i] = this.tokens[i].getType();
+      }
+    }
+
+    @Nullable
+    @Override
+    public TokenType typeAt(int index) {
+      return index < types.length ? types[index] : null;
+    }
+
+    @Nullable
+    @Override
+    public Token tokenAt(int index) {
+      return index < tokens.length ? tokens[index] : null;
+    }
+
+    @Override
+    public void rewind(int index) {
+      // all the tokens are kept
+    }
+
+    @Override
+    public RuntimeException parseError(int errorIndex) {
+      return RecursiveDescentParser.parseError(tokenList, errorIndex);
+    }
+  }
+}
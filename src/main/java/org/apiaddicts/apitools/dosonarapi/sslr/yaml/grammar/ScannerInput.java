@@ -0,0 +1,94 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.YamlScanner;
+
+/**
+ * Feeds the {@link RecursiveDescentParser} with the tokens of a {@link YamlScanner}, as they are scanned.
+ * <p>
+ * The grammar is LL(1), so a valid document is parsed without going back to a consumed token. The parser only does so
+ * when a rule fails after consuming tokens, and a parse error follows. The scanned tokens are kept, so that the parser
+ * can go back to them and report the error in a single pass: the tokens are referenced by the nodes of the tree anyway,
+ * and the input only adds a reference to each of them. On a parse error, the rest of the document is scanned, so that
+ * a lexing error further on is reported first and the message shows the tokens that follow the error, as for the
+ * token list of the document.
+ */
+final class ScannerInput implements RecursiveDescentParser.TokenInput {
+  private final YamlScanner scanner;
+  private final List<Token> tokens = new ArrayList<>();
+
+  ScannerInput(YamlScanner scanner) {
+    this.scanner = scanner;
+  }
+
+  @Nullable
+  @Override
+  public TokenType typeAt(int index) {
+    Token token = tokenAt(index);
+    return token == null ? null : token.getType();
+  }
+
+  @Nullable
+  @Override
+  public Token tokenAt(int index) {
+    while (tokens.size() <= index && scan()) {
+      // scan up to the token
+    }
+    return index < tokens.size() ? tokens.get(index) : null;
+  }
+
+  @Override
+  public void rewind(int index) {
+    // all the scanned tokens are kept
+  }
+
+  @Override
+  public RuntimeException parseError(int errorIndex) {
+    while (scan()) {
+      // scan the rest of the document
+    }
+    return RecursiveDescentParser.parseError(tokens, errorIndex);
+  }
+
+  /**
+   * Scans the next token, reporting the errors of the scanner as the lexer does.
+   * @return {@code false} once the EOF token has been scanned
+   */
+  private boolean scan() {
+    try {
+      if (scanner.peek() == null) {
+        return false;
+      }
+      tokens.add(scanner.next());
+      return true;
+    } catch (ParseLimitExceededException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw scanner.lexerException(e);
+    }
+  }
+}
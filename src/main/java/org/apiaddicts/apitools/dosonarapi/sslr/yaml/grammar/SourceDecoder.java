@@ -0,0 +1,133 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decodes the content of a file into a single character buffer. Large files are mapped into memory rather than copied
+ * into the heap, and the ASCII characters of files in UTF-8, US-ASCII or ISO-8859-1 are widened directly into the
+ * buffer, without going through a {@link CharsetDecoder}. Malformed and unmappable input is replaced, as done by an
+ * {@link java.io.InputStreamReader}.
+ * <p>
+ * The buffer wraps a whole array of the length of the text, which the scanners then read in place. The array of a file
+ * that is not only made of ASCII characters is copied once to its exact length, once decoded.
+ */
+final class SourceDecoder {
+  // below this size, reading the file is cheaper than mapping it
+  static final int MAPPING_THRESHOLD = 64 * 1024;
+
+  private SourceDecoder() {
+    // hidden utility class constructor
+  }
+
+  /**
+   * Reads and decodes the rest of a file.
+   * @param channel the file, read from its current position
+   * @param charset the charset of the file
+   * @return the characters of the file, wrapping a whole array
+   * @throws IOException if the file cannot be read
+   */
+  static CharBuffer decode(FileChannel channel, Charset charset) throws IOException {
+    long size = channel.size() - channel.position();
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("File too large: " + size + " bytes");
+    }
+    ByteBuffer bytes;
+    if (size >= MAPPING_THRESHOLD) {
+      bytes = channel.map(FileChannel.MapMode.READ_ONLY, channel.position(), size);
+    } else {
+      bytes = ByteBuffer.allocate((int) size);
+      while (bytes.hasRemaining() && channel.read(bytes) != -1) {
+        // read until the buffer is full
+      }
+      bytes.flip();
+    }
+    return decode(bytes, charset);
+  }
+
+  /**
+   * Decodes bytes into a character buffer.
+   * @param bytes the bytes to decode, from their position to their limit
+   * @param charset the charset of the bytes
+   * @return the decoded characters, wrapping a whole array
+   */
+  static CharBuffer decode(ByteBuffer bytes, Charset charset) {
+    boolean latin1 = charset.equals(StandardCharsets.ISO_8859_1);
+    if (!latin1 && !charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)) {
+      return decodeWith(newDecoder(charset), bytes);
+    }
+    // these charsets never decode more characters than there are bytes
+    char[] chars = new char[bytes.remaining()];
+    int start = bytes.position();
+    int limit = bytes.limit();
+    int i = start;
+    while (i < limit) {
+      byte b = bytes.get(i);
+      if (b < 0 && !latin1) {
+        break;
+      }
+      chars[i - start] = (char) (b & 0xFF);
+      ++i;
+    }
+    if (i == limit) {
+      return CharBuffer.wrap(chars);
+    }
+    bytes.position(i);
+    CharBuffer out = CharBuffer.wrap(chars, i - start, chars.length - (i - start));
+    CharsetDecoder decoder = newDecoder(charset);
+    CoderResult result = decoder.decode(bytes, out, true);
+    if (result.isUnderflow()) {
+      result = decoder.flush(out);
+    }
+    if (!result.isUnderflow()) {
+      // cannot happen with a replacing decoder, decode the whole input again to be safe
+      bytes.position(start);
+      return decodeWith(newDecoder(charset), bytes);
+    }
+    return CharBuffer.wrap(Arrays.copyOf(chars, out.position()));
+  }
+
+  private static CharsetDecoder newDecoder(Charset charset) {
+    return charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  private static CharBuffer decodeWith(CharsetDecoder decoder, ByteBuffer bytes) {
+    try {
+      CharBuffer chars = decoder.decode(bytes);
+      return chars.limit() == chars.array().length ? chars : CharBuffer.wrap(Arrays.copyOf(chars.array(), chars.limit()));
+    } catch (CharacterCodingException e) {
+      // not thrown by a replacing decoder
+      throw new IllegalStateException(e);
+    }
+  }
+}
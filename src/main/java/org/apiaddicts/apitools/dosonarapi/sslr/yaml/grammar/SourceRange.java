@@ -0,0 +1,104 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+/**
+ * The characters of a document spanned by a node, from the start of its first token to the end of its last one. The
+ * offsets count the characters from the start of the document, the lines are numbered from 1 and the columns from 0, as
+ * they are on the tokens.
+ */
+public final class SourceRange {
+  private final int start;
+  private final int end;
+  private final int startLine;
+  private final int startColumn;
+  private final int endLine;
+  private final int endColumn;
+
+  public SourceRange(int start, int end, int startLine, int startColumn, int endLine, int endColumn) {
+    this.start = start;
+    this.end = end;
+    this.startLine = startLine;
+    this.startColumn = startColumn;
+    this.endLine = endLine;
+    this.endColumn = endColumn;
+  }
+
+  /**
+   * @return the offset of the first character of the range
+   */
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * @return the offset of the character after the range
+   */
+  public int getEnd() {
+    return end;
+  }
+
+  public int getLength() {
+    return end - start;
+  }
+
+  public int getStartLine() {
+    return startLine;
+  }
+
+  public int getStartColumn() {
+    return startColumn;
+  }
+
+  /**
+   * @return the line of the character after the range, which is the line after the last one of a range ending with a
+   * line break
+   */
+  public int getEndLine() {
+    return endLine;
+  }
+
+  public int getEndColumn() {
+    return endColumn;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SourceRange)) {
+      return false;
+    }
+    SourceRange that = (SourceRange) o;
+    return start == that.start && end == that.end && startLine == that.startLine && startColumn == that.startColumn
+      && endLine == that.endLine && endColumn == that.endColumn;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * start + end;
+  }
+
+  @Override
+  public String toString() {
+    return "[" + start + ", " + end + ") " + startLine + ":" + startColumn + "-" + endLine + ":" + endColumn;
+  }
+}
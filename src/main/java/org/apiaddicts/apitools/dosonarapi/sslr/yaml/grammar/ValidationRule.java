@@ -61,5 +61,13 @@ public interface ValidationRule {
      * @return the list of captured warnings and errors
      */
     List<ValidationIssue> captured();
+
+    /**
+     * Records a validation step, before a rule or an alternative is evaluated. The context may abort the validation
+     * with a {@link ParseLimitExceededException} when the document takes too many steps or too long to validate.
+     */
+    default void step() {
+      // no limits by default
+    }
   }
 }
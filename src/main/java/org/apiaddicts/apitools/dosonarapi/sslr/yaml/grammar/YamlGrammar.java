@@ -24,6 +24,7 @@ import javax.annotation.Nullable;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Lexer;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.grammar.LexerfulGrammarBuilder;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.AliasNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ArrayNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ObjectNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.PropertyNode;
@@ -32,6 +33,7 @@ import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.SyntaxNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
 
 import static com.sonar.sslr.api.GenericTokenType.EOF;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.ANCHOR;
 import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.BLOCK_END;
 import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.BLOCK_ENTRY;
 import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.BLOCK_MAPPING_START;
@@ -72,6 +74,7 @@ public enum YamlGrammar implements GrammarRuleKey {
   FLOW_ARRAY_ELEMENT(SyntaxNode.class),
   BLOCK_ARRAY_ELEMENT(SyntaxNode.class),
   SCALAR(ScalarNode.class),
+  ALIAS(AliasNode.class),
   // Generated by second pass parsing
   MISSING(SyntaxNode.class);
 
@@ -88,6 +91,8 @@ public enum YamlGrammar implements GrammarRuleKey {
   /**
    * Builds an SSLR-compatible grammar descriptor for YAML. It is designed to be used in conjunction with the
    * {@link Lexer}.
+   * <p>
+   * The anchor of a node is the first child of the node, and an alias is a leaf node referencing the anchored node.
    *
    * @return a new builder with a configured YAML grammar
    */
@@ -97,33 +102,34 @@ public enum YamlGrammar implements GrammarRuleKey {
     b.rule(ROOT).is(b.optional(BLOCK_CONTENT), EOF); // Important: comments may be associated to the EOF token
 
     b.rule(BLOCK_OR_INDENTLESS).is(b.firstOf(INDENTLESS_SEQUENCE, BLOCK_CONTENT)).skip();
-    b.rule(BLOCK_CONTENT).is(b.firstOf(SCALAR, BLOCK_COLLECTION, FLOW_COLLECTION)).skip();
-    b.rule(FLOW_CONTENT).is(b.firstOf(SCALAR, FLOW_COLLECTION)).skip();
+    b.rule(BLOCK_CONTENT).is(b.firstOf(SCALAR, ALIAS, BLOCK_COLLECTION, FLOW_COLLECTION)).skip();
+    b.rule(FLOW_CONTENT).is(b.firstOf(SCALAR, ALIAS, FLOW_COLLECTION)).skip();
     b.rule(BLOCK_COLLECTION).is(b.firstOf(BLOCK_SEQUENCE, BLOCK_MAPPING)).skip();
     b.rule(FLOW_COLLECTION).is(b.firstOf(FLOW_SEQUENCE, FLOW_MAPPING)).skip();
     b.rule(FLOW_SEQUENCE_ENTRY).is(b.firstOf(FLOW_CONTENT, FLOW_PROPERTY)).skip();
 
-    b.rule(INDENTLESS_SEQUENCE).is(b.oneOrMore(BLOCK_ENTRY, b.optional(BLOCK_ARRAY_ELEMENT)));
-    b.rule(BLOCK_SEQUENCE).is(b.sequence(BLOCK_SEQUENCE_START, b.zeroOrMore(BLOCK_ENTRY, b.optional(BLOCK_ARRAY_ELEMENT)), BLOCK_END));
+    b.rule(INDENTLESS_SEQUENCE).is(b.optional(ANCHOR), b.oneOrMore(BLOCK_ENTRY, b.optional(BLOCK_ARRAY_ELEMENT)));
+    b.rule(BLOCK_SEQUENCE).is(b.sequence(b.optional(ANCHOR), BLOCK_SEQUENCE_START, b.zeroOrMore(BLOCK_ENTRY, b.optional(BLOCK_ARRAY_ELEMENT)), BLOCK_END));
     b.rule(BLOCK_ARRAY_ELEMENT).is(BLOCK_CONTENT);
-    b.rule(BLOCK_MAPPING).is(b.sequence(BLOCK_MAPPING_START,
+    b.rule(BLOCK_MAPPING).is(b.sequence(b.optional(ANCHOR), BLOCK_MAPPING_START,
       b.zeroOrMore(BLOCK_PROPERTY),
       BLOCK_END));
     b.rule(BLOCK_PROPERTY).is(b.sequence(
         KEY,
         b.optional(BLOCK_OR_INDENTLESS),
         b.optional(VALUE, b.optional(BLOCK_OR_INDENTLESS))));
-    b.rule(FLOW_SEQUENCE).is(b.sequence(FLOW_SEQUENCE_START,
+    b.rule(FLOW_SEQUENCE).is(b.sequence(b.optional(ANCHOR), FLOW_SEQUENCE_START,
       b.zeroOrMore(FLOW_ARRAY_ELEMENT, Tokens.FLOW_ENTRY),
       b.optional(FLOW_ARRAY_ELEMENT),
       FLOW_SEQUENCE_END));
     b.rule(FLOW_ARRAY_ELEMENT).is(FLOW_SEQUENCE_ENTRY);
-    b.rule(FLOW_MAPPING).is(b.sequence(FLOW_MAPPING_START,
+    b.rule(FLOW_MAPPING).is(b.sequence(b.optional(ANCHOR), FLOW_MAPPING_START,
       b.zeroOrMore(FLOW_SEQUENCE_ENTRY, Tokens.FLOW_ENTRY),
       b.optional(FLOW_SEQUENCE_ENTRY),
       FLOW_MAPPING_END));
     b.rule(FLOW_PROPERTY).is(b.sequence(KEY, b.optional(FLOW_CONTENT), b.optional(VALUE, b.optional(FLOW_CONTENT))));
-    b.rule(SCALAR).is(b.firstOf(NULL, TRUE, FALSE, INTEGER, FLOAT, STRING));
+    b.rule(SCALAR).is(b.optional(ANCHOR), b.firstOf(NULL, TRUE, FALSE, INTEGER, FLOAT, STRING));
+    b.rule(ALIAS).is(Tokens.ALIAS);
     return b;
   }
 }
@@ -20,32 +20,41 @@
 package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
 
 import com.sonar.sslr.api.AstNode;
-import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.RecognitionException;
-import com.sonar.sslr.api.Rule;
-import com.sonar.sslr.api.Token;
 import com.sonar.sslr.impl.LexerException;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.RuleDefinition;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.SyntaxNode;
-import org.sonar.sslr.internal.vm.CompilableGrammarRule;
-import org.sonar.sslr.internal.vm.CompiledGrammar;
-import org.sonar.sslr.internal.vm.Machine;
-import org.sonar.sslr.internal.vm.MutableGrammarCompiler;
-import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Lexer;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.LexerOptions;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.ScalarSchema;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.StringInterning;
 
 public class YamlParser {
   public static final GrammarValidator NULL_VALIDATOR = node -> Collections.emptyList();
-  private final Charset charset;
+  private final ParserEngine engine;
   private final boolean strict;
-  private final GrammarValidator validator;
   private final List<ValidationIssue> issues = new ArrayList<>();
 
   public YamlParser(Charset charset) {
@@ -57,13 +66,17 @@ public class YamlParser {
   }
 
   public YamlParser(Charset charset, @Nullable RuleDefinition rootRule, boolean strict) {
-    this.charset = charset;
+    this(ParserEngine.create(charset, rootRule), strict);
+  }
+
+  /**
+   * Creates a parser on top of an existing engine. Parsers built from the same engine share the compiled grammar.
+   * @param engine the engine holding the grammar, lexer configuration and validator
+   * @param strict if {@code true}, validation errors are thrown as a {@link ValidationException}
+   */
+  public YamlParser(ParserEngine engine, boolean strict) {
+    this.engine = engine;
     this.strict = strict;
-    if (rootRule != null) {
-      this.validator = new ASTValidator(rootRule);
-    } else {
-      this.validator = NULL_VALIDATOR;
-    }
   }
 
   public static Builder builder() {
@@ -71,45 +84,261 @@ public class YamlParser {
   }
 
   public JsonNode parse(File file) {
+    ParseBudget budget = engine.newBudget();
+    return validate(parseAst(file, budget), budget);
+  }
+
+  public JsonNode parse(Path path) {
+    ParseBudget budget = engine.newBudget();
+    return validate(parseAst(path, budget), budget);
+  }
+
+  public JsonNode parse(String text) {
+    ParseBudget budget = engine.newBudget();
+    return validate(parseAst(text, budget), budget);
+  }
+
+  /**
+   * Parses the documents of a multi-document YAML stream, one at a time. Only the document being parsed is held in
+   * memory, so the file can be much larger than any of its documents. Each document is parsed and validated as with
+   * {@link #parse(File)}; the tokens keep their line numbers in the whole file. The returned stream must be closed to
+   * release the file.
+   * @param file the file to parse
+   * @return the root nodes of the non-empty documents of the file, in order
+   */
+  public Stream<JsonNode> parseDocuments(File file) {
+    BufferedReader reader;
+    try {
+      reader = Files.newBufferedReader(file.toPath(), engine.getCharset());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return parseDocuments(reader, file.toURI()).onClose(() -> {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Parses the documents of a multi-document YAML stream, one at a time. See {@link #parseDocuments(File)}. The reader
+   * is not closed by the parser.
+   * @param reader the YAML stream
+   * @return the root nodes of the non-empty documents of the stream, in order
+   */
+  public Stream<JsonNode> parseDocuments(Reader reader) {
+    return parseDocuments(reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader), null);
+  }
+
+  private Stream<JsonNode> parseDocuments(BufferedReader reader, @Nullable URI uri) {
+    DocumentReader documents = new DocumentReader(reader);
+    Iterator<JsonNode> iterator = new Iterator<JsonNode>() {
+      private DocumentReader.Document next;
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          next = documents.next();
+        }
+        return next != null;
+      }
+
+      @Override
+      public JsonNode next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        DocumentReader.Document document = next;
+        next = null;
+        ParseBudget budget = engine.newBudget();
+        return validate(parseAst(document, uri, budget), budget);
+      }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Parses and validates a document. Unlike {@link #parse(File)}, this method keeps no state in the parser: the
+   * returned result only holds the issues of this document, and concurrent calls on the same parser are safe.
+   * @param file the document to parse
+   * @return the parsed document and its validation issues
+   * @throws ValidationException in strict mode, if the document has validation issues
+   */
+  public ParseResult parseResult(File file) {
+    ParseBudget budget = engine.newBudget();
+    return parseResult(parseAst(file, budget), budget);
+  }
+
+  /**
+   * Parses and validates a document. See {@link #parseResult(File)}.
+   * @param path the document to parse
+   * @return the parsed document and its validation issues
+   * @throws ValidationException in strict mode, if the document has validation issues
+   */
+  public ParseResult parseResult(Path path) {
+    ParseBudget budget = engine.newBudget();
+    return parseResult(parseAst(path, budget), budget);
+  }
+
+  /**
+   * Parses and validates a document. See {@link #parseResult(File)}.
+   * @param text the document to parse
+   * @return the parsed document and its validation issues
+   * @throws ValidationException in strict mode, if the document has validation issues
+   */
+  public ParseResult parseResult(String text) {
+    ParseBudget budget = engine.newBudget();
+    return parseResult(parseAst(text, budget), budget);
+  }
+
+  /**
+   * Parses a document and defers its validation. The returned result holds the syntax tree right away; the document
+   * is validated when its issues are first requested, or on an executor with
+   * {@link DeferredParseResult#validateAsync(Executor)}, so that the validation of a file can overlap with the parse of
+   * the next one. Like {@link #parseResult(File)}, this method keeps no state in the parser.
+   * @param file the document to parse
+   * @return the parsed document, to be validated
+   */
+  public DeferredParseResult parseDeferred(File file) {
+    return deferredResult(parseAst(file, engine.newBudget()));
+  }
+
+  /**
+   * Parses a document and defers its validation. See {@link #parseDeferred(File)}.
+   * @param path the document to parse
+   * @return the parsed document, to be validated
+   */
+  public DeferredParseResult parseDeferred(Path path) {
+    return deferredResult(parseAst(path, engine.newBudget()));
+  }
+
+  /**
+   * Parses a document and defers its validation. See {@link #parseDeferred(File)}.
+   * @param text the document to parse
+   * @return the parsed document, to be validated
+   */
+  public DeferredParseResult parseDeferred(String text) {
+    return deferredResult(parseAst(text, engine.newBudget()));
+  }
+
+  /**
+   * Parses a batch of files on an executor, with at most twice as many parses in flight as there are available
+   * processors. See {@link #parseAll(Collection, Executor, int)}.
+   * @param paths the files to parse
+   * @param executor the executor running the parses, for instance a {@link java.util.concurrent.ForkJoinPool}
+   * @return the results of the parses, in completion order
+   */
+  public Stream<FileParseResult> parseAll(Collection<Path> paths, Executor executor) {
+    return parseAll(paths, executor, 2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Parses a batch of files on an executor. The parses start right away; the returned stream yields each result as
+   * soon as its parse completes, and a new file is submitted each time a result is consumed, so that no more than
+   * {@code maxInFlight} documents are being parsed or waiting to be consumed at any time. A file that cannot be
+   * parsed does not abort the batch, its error is reported in its {@link FileParseResult}, even when its parse
+   * overflows the stack. Closing the stream, for instance in a try-with-resources statement, cancels the parses that
+   * have not started, which a stream abandoned before its end would otherwise leave to run.
+   * @param paths the files to parse
+   * @param executor the executor running the parses
+   * @param maxInFlight the maximum number of parses submitted and not consumed yet
+   * @return the results of the parses, in completion order
+   */
+  public Stream<FileParseResult> parseAll(Collection<Path> paths, Executor executor, int maxInFlight) {
+    BatchParser batch = new BatchParser(this, new ArrayList<>(paths).iterator(), executor, maxInFlight);
+    return StreamSupport.stream(Spliterators.spliterator(batch, paths.size(), Spliterator.NONNULL), false)
+      .onClose(batch::close);
+  }
+
+  /**
+   * Returns the issues accumulated by all calls to {@link #parse(File)} and {@link #parse(String)} on this parser.
+   * Use {@link #parseResult(File)} to get the issues of a single document.
+   * @return the validation issues of all the documents parsed so far
+   */
+  public List<ValidationIssue> getIssues() {
+    return Collections.unmodifiableList(issues);
+  }
+
+  private JsonNode parseAst(File file, ParseBudget budget) {
     try {
-      com.sonar.sslr.impl.Lexer lexer = Lexer.create(charset);
-      return parseAndValidate(lexer.lex(file));
+      return engine.parse(file, budget);
     } catch (LexerException e) {
       throw new RecognitionException(e);
     }
   }
 
-  public JsonNode parse(String text) {
+  private JsonNode parseAst(Path path, ParseBudget budget) {
     try {
-      com.sonar.sslr.impl.Lexer lexer = Lexer.create(charset);
-      return parseAndValidate(lexer.lex(text));
+      return engine.parse(path, path.toUri(), budget);
     } catch (LexerException e) {
       throw new RecognitionException(e);
     }
   }
 
-  public List<ValidationIssue> getIssues() {
-    return Collections.unmodifiableList(issues);
+  private JsonNode parseAst(String text, ParseBudget budget) {
+    try {
+      return engine.parse(text, budget);
+    } catch (LexerException e) {
+      throw new RecognitionException(e);
+    }
   }
 
-  private JsonNode parseAndValidate(List<Token> tokens) {
-    JsonNode rootNode = parseAst(tokens);
-    issues.addAll(validator.validate(rootNode));
+  private JsonNode parseAst(DocumentReader.Document document, @Nullable URI uri, ParseBudget budget) {
+    try {
+      return engine.parseDocument(document.getText(), document.getFirstLine(), uri, budget);
+    } catch (LexerException e) {
+      throw new RecognitionException(e);
+    }
+  }
+
+  private JsonNode validate(JsonNode rootNode, ParseBudget budget) {
+    issues.addAll(engine.validate(rootNode, budget));
     if (!strict || issues.isEmpty()) {
-      // Add the EOF node to preserve comments on last line
-      AstNode eof = rootNode.getNextSibling();
-      rootNode.addChild(new SyntaxNode(eof.getType(), eof.getName(), eof.getToken()));
+      addEndOfFile(rootNode);
       return rootNode;
     } else {
-      throw new ValidationException(rootNode, "Validation errors", issues.stream().map(ValidationException::toException).collect(Collectors.toList()));
+      throw validationErrors(rootNode, issues);
+    }
+  }
+
+  private ParseResult parseResult(JsonNode rootNode, ParseBudget budget) {
+    List<ValidationIssue> documentIssues = engine.validate(rootNode, budget);
+    if (strict && !documentIssues.isEmpty()) {
+      throw validationErrors(rootNode, documentIssues);
     }
+    addEndOfFile(rootNode);
+    // the root rule spans all the tokens of the document
+    int tokenCount = rootNode.getParent().getToIndex();
+    return new ParseResult(rootNode, documentIssues, tokenCount);
+  }
+
+  private DeferredParseResult deferredResult(JsonNode rootNode) {
+    int tokenCount = rootNode.getParent().getToIndex();
+    addEndOfFile(rootNode);
+    // the validation gets its own budget, the time limit does not count the wait for an executor
+    return new DeferredParseResult(rootNode, tokenCount, () -> {
+      List<ValidationIssue> documentIssues = engine.validate(rootNode, engine.newBudget());
+      if (strict && !documentIssues.isEmpty()) {
+        throw validationErrors(rootNode, documentIssues);
+      }
+      return documentIssues;
+    });
   }
 
-  private JsonNode parseAst(List<Token> tokens) {
-    Grammar grammar = YamlGrammar.create().build();
-    Rule rootRule = grammar.getRootRule();
-    CompiledGrammar g = MutableGrammarCompiler.compile((CompilableGrammarRule) rootRule);
-    return (JsonNode) JsonAstCreator.create(Machine.parse(tokens, g), tokens).getFirstChild();
+  private void addEndOfFile(JsonNode rootNode) {
+    if (!engine.getLexerOptions().keepsComments()) {
+      // the lexer skipped the comments, the EOF node would hold none
+      return;
+    }
+    // Add the EOF node to preserve comments on last line
+    AstNode eof = rootNode.getNextSibling();
+    rootNode.addChild(new SyntaxNode(eof.getType(), eof.getName(), eof.getToken()));
+  }
+
+  private static ValidationException validationErrors(JsonNode rootNode, List<ValidationIssue> issues) {
+    return new ValidationException(rootNode, "Validation errors", issues.stream().map(ValidationException::toException).collect(Collectors.toList()));
   }
 
   public static final class Builder {
@@ -117,6 +346,10 @@ public class YamlParser {
     private Charset charset = Charset.defaultCharset();
     private RuleDefinition rootRule;
     private boolean strict = false;
+    private ParserImplementation implementation = ParserImplementation.SSLR_MACHINE;
+    private InputFormat inputFormat = InputFormat.AUTO;
+    private ParseLimits limits = ParseLimits.NONE;
+    private final LexerOptions.Builder lexerOptions = LexerOptions.builder();
 
     public Builder withCharset(Charset charset) {
       this.charset = charset;
@@ -138,8 +371,78 @@ public class YamlParser {
       return this;
     }
 
+    public Builder withParserImplementation(ParserImplementation implementation) {
+      this.implementation = implementation;
+      return this;
+    }
+
+    public Builder withInputFormat(InputFormat inputFormat) {
+      this.inputFormat = inputFormat;
+      return this;
+    }
+
+    public Builder withParseLimits(ParseLimits limits) {
+      this.limits = limits;
+      return this;
+    }
+
+    /**
+     * Selects the rules resolving the type of the plain scalars. The default {@link ScalarSchema#YAML_1_1} keeps the
+     * YAML 1.1 booleans, such as {@code yes} and {@code off}.
+     */
+    public Builder withScalarSchema(ScalarSchema schema) {
+      lexerOptions.withScalarSchema(schema);
+      return this;
+    }
+
+    /**
+     * Shares the strings of the scalars that the documents repeat, such as keys and references, between their tokens.
+     * The default {@link StringInterning#NONE} gives each scalar its own strings.
+     */
+    public Builder withStringInterning(StringInterning interning) {
+      lexerOptions.withStringInterning(interning);
+      return this;
+    }
+
+    /**
+     * Whether the comments of the documents are kept in the trivia of their tokens, which is the default. Without
+     * comments, the lexer skips them without building tokens or trivia, and the root nodes do not get the end of file
+     * node holding the comments of the last line.
+     */
+    public Builder withComments(boolean keepComments) {
+      lexerOptions.withComments(keepComments);
+      return this;
+    }
+
+    /**
+     * Lexes the large YAML documents in chunks, on the threads of an executor. The documents are cut at the keys of
+     * their root mapping, and the tokens are the ones of a single thread; documents that cannot be cut, and documents
+     * parsed by the {@link ParserImplementation#STREAMING} parser, are lexed on the calling thread. The calling thread
+     * lexes the chunks that no thread of the executor has started, so the executor may also be the one given to
+     * {@code parseAll}.
+     */
+    public Builder withParallelLexing(Executor executor) {
+      lexerOptions.withParallelLexing(executor);
+      return this;
+    }
+
+    /**
+     * Whether the parsed documents keep their text and the character offsets of their tokens, so that
+     * {@link JsonNode#getSourceRange()} and {@link JsonNode#getSourceText()} slice the source of any node. This costs
+     * the text and two integers per token for as long as the tree is held, and is off by default; the lines of the
+     * documents read one by one by {@code parseDocuments} are the lines of the stream.
+     */
+    public Builder withSourceRanges(boolean keepSourceRanges) {
+      lexerOptions.withOffsets(keepSourceRanges);
+      return this;
+    }
+
+    public ParserEngine buildEngine() {
+      return ParserEngine.create(this.charset, rootRule, implementation, inputFormat, limits, lexerOptions.build());
+    }
+
     public YamlParser build() {
-      return new YamlParser(this.charset, rootRule, strict);
+      return new YamlParser(buildEngine(), strict);
     }
 
   }
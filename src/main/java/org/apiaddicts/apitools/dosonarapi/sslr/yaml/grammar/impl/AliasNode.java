@@ -0,0 +1,170 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.Token;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.JsonNode;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.Utils;
+
+/**
+ * An alias ({@code *name}) of an anchored node. The alias references the anchored node instead of copying it, and
+ * stands for it: the accessors of the value (type, properties, elements, scalar values and pointers) are those of the
+ * anchored node, while the position in the document ({@link #key()}, {@link #value()}, the token) is the alias' own.
+ */
+public class AliasNode extends JsonNode {
+  private JsonNode anchored = MissingNode.MISSING;
+  private AstNodeType anchoredType = MissingNode.MISSING.getType();
+
+  public AliasNode(AstNodeType type, String name, @Nullable Token token) {
+    super(type, name, token);
+  }
+
+  /**
+   * @return the name of the anchor this alias refers to
+   */
+  public String getAnchorName() {
+    return getTokenValue();
+  }
+
+  /**
+   * @return the anchored node, or the Missing node if the alias has not been resolved
+   */
+  public JsonNode getAnchoredNode() {
+    return anchored;
+  }
+
+  /**
+   * @return the type the anchored node was parsed as, which the rules validating the anchored node do not change
+   */
+  public AstNodeType getAnchoredType() {
+    return anchoredType;
+  }
+
+  /**
+   * Sets the node this alias stands for. Called by the parser once the document is built, before it is validated.
+   * @param anchored the anchored node
+   */
+  public void setAnchoredNode(JsonNode anchored) {
+    this.anchored = anchored;
+    this.anchoredType = anchored.getType();
+  }
+
+  @Override
+  public boolean isAlias() {
+    return true;
+  }
+
+  @Override
+  public JsonNode get(String fieldName) {
+    return anchored.get(fieldName);
+  }
+
+  @Override
+  public boolean isObject() {
+    return anchored.isObject();
+  }
+
+  @Override
+  public boolean isArray() {
+    return anchored.isArray();
+  }
+
+  @Override
+  public boolean isScalar() {
+    return anchored.isScalar();
+  }
+
+  @Override
+  public boolean isNull() {
+    return anchored.isNull();
+  }
+
+  @Override
+  public List<String> propertyNames() {
+    return anchored.propertyNames();
+  }
+
+  @Override
+  public Collection<JsonNode> properties() {
+    return anchored.properties();
+  }
+
+  @Override
+  public Map<String, JsonNode> propertyMap() {
+    return anchored.propertyMap();
+  }
+
+  @Override
+  public <T> Map<String, T> propertyMap(Function<JsonNode, T> mapper) {
+    return anchored.propertyMap(mapper);
+  }
+
+  @Override
+  public List<JsonNode> elements() {
+    return anchored.elements();
+  }
+
+  @Override
+  public boolean isRef() {
+    return anchored.isRef();
+  }
+
+  /**
+   * Resolves the anchored node, and the reference it may be.
+   * @return the resolved node
+   */
+  @Override
+  public JsonNode resolve() {
+    return anchored.resolve();
+  }
+
+  @Override
+  public String stringValue() {
+    return anchored.stringValue();
+  }
+
+  @Override
+  public boolean booleanValue() {
+    return anchored.booleanValue();
+  }
+
+  @Override
+  public double floatValue() {
+    return anchored.floatValue();
+  }
+
+  @Override
+  public int intValue() {
+    return anchored.intValue();
+  }
+
+  @Override
+  protected JsonNode internalAt(JsonPointer ptr) {
+    // the first segment of the pointer, looked up in the anchored node
+    return anchored.at("/" + Utils.escapeJsonPointer(ptr.getMatchingProperty()));
+  }
+}
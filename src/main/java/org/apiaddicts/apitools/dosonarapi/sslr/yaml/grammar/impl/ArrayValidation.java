@@ -20,15 +20,10 @@
 package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl;
 
 import com.sonar.sslr.api.AstNode;
-import com.sonar.sslr.api.AstNodeType;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.JsonNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.ValidationRule;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar;
 
-import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.BLOCK_SEQUENCE;
-import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.FLOW_SEQUENCE;
-import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.INDENTLESS_SEQUENCE;
-
 public class ArrayValidation extends ValidationBase {
   private final ValidationRule elementValidation;
 
@@ -38,8 +33,7 @@ public class ArrayValidation extends ValidationBase {
 
   @Override
   protected boolean validate(JsonNode node, Context context) {
-    AstNodeType type = node.getType();
-    if (type != FLOW_SEQUENCE && type != BLOCK_SEQUENCE && type != INDENTLESS_SEQUENCE) {
+    if (!node.isArray()) {
       context.recordFailure(node, "Expected array, got: " + node.getType());
       return false;
     }
@@ -37,6 +37,7 @@ public class FirstOfValidation implements ValidationRule {
   public boolean visit(JsonNode node, Context context) {
     List<ValidationIssue> errorMessages = new ArrayList<>();
     for (ValidationRule delegate : delegates) {
+      context.step();
       context.capture();
       boolean valid = delegate.visit(node, context);
       List<ValidationIssue> issues = context.captured();
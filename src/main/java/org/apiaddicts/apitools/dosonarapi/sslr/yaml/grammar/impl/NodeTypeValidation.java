@@ -33,10 +33,27 @@ public class NodeTypeValidation extends ValidationBase {
     Collections.addAll(this.types, types);
   }
 
+  /**
+   * Validates an alias against the type its anchored node was parsed as: the anchored node itself may already be
+   * decorated with the rule that validated it.
+   */
+  @Override
+  public boolean visit(JsonNode node, Context context) {
+    if (node.isAlias()) {
+      AliasNode alias = (AliasNode) node;
+      return validate(alias.getAnchoredNode(), alias.getAnchoredType(), context);
+    }
+    return validate(node, node.getType(), context);
+  }
+
   @Override
   public boolean validate(JsonNode node, Context context) {
-    if(!types.contains(node.getType())) {
-      context.recordFailure(node, "Expected: " + toString() + ", got: " + node.getType());
+    return validate(node, node.getType(), context);
+  }
+
+  private boolean validate(JsonNode node, AstNodeType type, Context context) {
+    if (!types.contains(type)) {
+      context.recordFailure(node, "Expected: " + toString() + ", got: " + type);
       return false;
     }
     return true;
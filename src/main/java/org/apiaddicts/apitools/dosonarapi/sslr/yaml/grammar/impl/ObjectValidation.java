@@ -32,8 +32,6 @@ import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.*;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.ValidationRule;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
 
-import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.BLOCK_MAPPING;
-
 /**
  * Validates the structure of an object. This rule returns {@code true} if the structure of the object is respected,
  * i.e. if all mandatory properties are present, and all the discriminant are valid. Non-discriminant properties that
@@ -69,7 +67,7 @@ public class ObjectValidation extends ValidationBase {
 
   @Override
   protected boolean validate(JsonNode node, ValidationRule.Context context) {
-    if (node.getType() != YamlGrammar.FLOW_MAPPING && node.getType() != BLOCK_MAPPING) {
+    if (!node.isObject()) {
       context.recordFailure(node, "Expected object, got: " + node.getType());
       return false;
     }
@@ -65,6 +65,7 @@ public class RuleDefinition implements GrammarRuleKey, ValidationRule {
 
   @Override
   public boolean visit(JsonNode node, Context context) {
+    context.step();
     boolean valid = validation.visit(node, context);
     if (valid && astNodeSkippingPolicy == NeverSkipFromAst.INSTANCE) {
       node.decorate(ruleKey);
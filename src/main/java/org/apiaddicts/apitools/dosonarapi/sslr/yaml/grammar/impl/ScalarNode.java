@@ -39,12 +39,30 @@ public class ScalarNode extends JsonNode {
 
   @Override
   public double floatValue() {
-    return Float.parseFloat(getTokenValue());
+    String value = getTokenValue();
+    if (value.startsWith("0x") || value.startsWith("0o")) {
+      return intValue();
+    }
+    // the infinities and NaN of the YAML 1.2 core schema
+    boolean signed = value.startsWith("-") || value.startsWith("+");
+    if (value.regionMatches(true, signed ? 1 : 0, ".inf", 0, 4) && value.length() == (signed ? 5 : 4)) {
+      return value.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    } else if (".nan".equalsIgnoreCase(value)) {
+      return Double.NaN;
+    }
+    return Float.parseFloat(value);
   }
 
   @Override
   public int intValue() {
-    return Integer.parseInt(getTokenValue());
+    String value = getTokenValue();
+    // the hexadecimal and octal integers of the YAML 1.2 core schema
+    if (value.startsWith("0x")) {
+      return Integer.parseInt(value.substring(2), 16);
+    } else if (value.startsWith("0o")) {
+      return Integer.parseInt(value.substring(2), 8);
+    }
+    return Integer.parseInt(value);
   }
 
   @Override
@@ -25,8 +25,6 @@ import java.util.Collections;
 import java.util.Set;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.JsonNode;
 
-import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar.SCALAR;
-
 public class TokenTypeValidation extends ValidationBase {
   private final Set<TokenType> types;
 
@@ -37,7 +35,7 @@ public class TokenTypeValidation extends ValidationBase {
 
   @Override
   public boolean validate(JsonNode node, Context context) {
-    if(node.getType() != SCALAR || !types.contains(node.getToken().getType())) {
+    if(!node.isScalar() || !types.contains(node.getToken().getType())) {
       context.recordFailure(node, "Expected: " + toString() + ", got: " + node.getType());
       return false;
     }
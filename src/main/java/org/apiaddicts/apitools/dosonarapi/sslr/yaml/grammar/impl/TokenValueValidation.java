@@ -20,7 +20,6 @@
 package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl;
 
 import com.sonar.sslr.api.AstNode;
-import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammar;
 
 public class TokenValueValidation extends ValueValidation {
   private final String content;
@@ -31,7 +30,7 @@ public class TokenValueValidation extends ValueValidation {
 
   @Override
   public boolean isValueValid(AstNode node, Context context) {
-    return node.getType() == YamlGrammar.SCALAR && content.equals(node.getTokenValue());
+    return node instanceof ScalarNode && content.equals(node.getTokenValue());
   }
 
   @Override
@@ -22,10 +22,13 @@ package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.JsonNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.ValidationRule;
 
+/**
+ * Base of the rules validating the value of a node. An alias is validated as the node it refers to.
+ */
 public abstract class ValidationBase implements ValidationRule {
   @Override
   public boolean visit(JsonNode node, Context context) {
-    return validate(node, context);
+    return validate(node.isAlias() ? ((AliasNode) node).getAnchoredNode() : node, context);
   }
 
   protected abstract boolean validate(JsonNode node, Context context);
@@ -0,0 +1,88 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.Token;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeBuffer;
+import org.sonar.sslr.channel.CodeReader;
+
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.FLOW_INDICATOR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.NULL_BL_T_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.is;
+
+/**
+ * Scans the ANCHOR ({@code &name}) and ALIAS ({@code *name}) tokens. The value of the token is the name, and its
+ * original value the whole indicator. A name runs up to a blank, a line break or a flow indicator; a ':' followed by a
+ * blank ends it too, so that an alias can be used as a simple key.
+ */
+public class AnchorChannel extends Channel<YamlScanner> {
+    private final LexerState state;
+    private final Token.Builder tokenBuilder = Token.builder();
+
+    public AnchorChannel(LexerState state) {
+        this.state = state;
+    }
+
+    @Override
+    public boolean consume(CodeReader code, YamlScanner output) {
+        char c = code.charAt(0);
+        if (c == '&' || c == '*') {
+            fetchAnchor(c == '&', code, output);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Fetch an anchor or an alias.
+     *
+     * @see http://www.yaml.org/spec/1.1/#id863975
+     */
+    private void fetchAnchor(boolean isAnchor, CodeReader code, YamlScanner output) {
+        // ALIAS and ANCHOR could start a simple key.
+        state.savePossibleSimpleKey(code, output);
+
+        // No simple keys after ALIAS and ANCHOR.
+        state.allowSimpleKey(false);
+
+        CodeBuffer.Cursor startMark = code.getCursor().clone();
+        int length = 1;
+        char c = code.charAt(length);
+        while (!is(c, NULL_BL_T_LINEBR | FLOW_INDICATOR) && (c != ':' || !is(code.charAt(length + 1), NULL_BL_T_LINEBR))) {
+            c = code.charAt(++length);
+        }
+        if (length == 1) {
+            String name = isAnchor ? "an anchor" : "an alias";
+            throw new YamlLexerException("while scanning " + name, startMark,
+                    "expected the name of " + name + ", but found '" + c + "'", code.getCursor());
+        }
+        String originalValue = output.getSpans().forward(code, length);
+        Token token = tokenBuilder
+                .setType(isAnchor ? Tokens.ANCHOR : Tokens.ALIAS)
+                .setValueAndOriginalValue(originalValue.substring(1), originalValue)
+                .setURI(output.getURI())
+                .setLine(startMark.getLine())
+                .setColumn(startMark.getColumn())
+                .build();
+        output.addToken(token);
+    }
+}
@@ -20,17 +20,10 @@
 package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
 
 import com.sonar.sslr.api.Token;
-import com.sonar.sslr.impl.Lexer;
 import org.sonar.sslr.channel.Channel;
 import org.sonar.sslr.channel.CodeReader;
 
-class BlockEntryChannel extends Channel<Lexer> {
-    private static final String LINEBR_S = "\n\u0085\u2028\u2029";
-    private static final String FULL_LINEBR_S = "\r" + LINEBR_S;
-    private static final String NULL_OR_LINEBR_S = "\0" + FULL_LINEBR_S;
-    private static final String NULL_BL_LINEBR_S = " " + NULL_OR_LINEBR_S;
-    private static final String NULL_BL_T_LINEBR_S = "\t" + NULL_BL_LINEBR_S;
-
+class BlockEntryChannel extends Channel<YamlScanner> {
     private final LexerState state;
     private Token.Builder tokenBuilder = Token.builder();
 
@@ -39,8 +32,9 @@ class BlockEntryChannel extends Channel<Lexer> {
     }
 
     @Override
-    public boolean consume(CodeReader code, Lexer output) {
-        if (code.peek() == '-' && NULL_BL_T_LINEBR_S.indexOf(code.charAt(1)) != -1) {
+    public boolean consume(CodeReader code, YamlScanner output) {
+        // unlike the other indicators, a '-' at the end of the input does not start an entry
+        if (code.peek() == '-' && CharClasses.is(code.charAt(1), CharClasses.NULL_BL_T_LINEBR & ~CharClasses.END)) {
             fetchBlockEntry(code, output);
             return true;
         }
@@ -52,7 +46,7 @@ class BlockEntryChannel extends Channel<Lexer> {
      *
      * @see http://www.yaml.org/spec/1.1/#id863975
      */
-    private void fetchBlockEntry(CodeReader code, Lexer output) {
+    private void fetchBlockEntry(CodeReader code, YamlScanner output) {
         // Block context needs additional checks.
         if (state.flowLevel() == 0) {
             // Are we allowed to start a new entry?
@@ -0,0 +1,106 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+/**
+ * The character classes of the YAML scanner, as bit sets looked up in a table. A character belongs to the classes of
+ * {@code mask} if {@code is(c, mask)}; the masks below combine the classes tested by the channels.
+ */
+final class CharClasses {
+    /** {@code '\n'}, NEL, line and paragraph separators. */
+    static final int BREAK = 1;
+    /** {@code '\uFFFF'}, read by the {@link org.sonar.sslr.channel.CodeReader} past the end of the input. */
+    static final int END = 1 << 1;
+    /** {@code '\r'}. */
+    static final int CR = 1 << 2;
+    /** {@code '\0'}. */
+    static final int NUL = 1 << 3;
+    /** {@code ' '}. */
+    static final int SPACE = 1 << 4;
+    /** {@code '\t'}. */
+    static final int TAB = 1 << 5;
+    /** The flow collection indicators, {@code ',[]{}'}. */
+    static final int FLOW_INDICATOR = 1 << 6;
+    /** The mapping indicators, {@code '?'} and {@code ':'}. */
+    static final int MAPPING_INDICATOR = 1 << 7;
+    /** The other indicators, <code>-#&amp;*!|&gt;'"%@`</code>. */
+    static final int INDICATOR = 1 << 8;
+    /** The quotes and the escape character, {@code '}, {@code "} and {@code \}. */
+    static final int QUOTE = 1 << 9;
+
+    static final int LINEBR = BREAK | END;
+    static final int FULL_LINEBR = LINEBR | CR;
+    static final int NULL_OR_LINEBR = NUL | FULL_LINEBR;
+    static final int NULL_BL_LINEBR = SPACE | NULL_OR_LINEBR;
+    static final int NULL_BL_T_LINEBR = TAB | NULL_BL_LINEBR;
+    static final int BLANK = SPACE | TAB;
+    /** The characters that cannot start a plain scalar, unless followed by a non-blank character. */
+    static final int SPECIAL = NULL_BL_T_LINEBR | FLOW_INDICATOR | MAPPING_INDICATOR | INDICATOR;
+
+    private static final int[] ASCII = new int[128];
+
+    static {
+        ASCII['\n'] = BREAK;
+        ASCII['\r'] = CR;
+        ASCII['\0'] = NUL;
+        ASCII[' '] = SPACE;
+        ASCII['\t'] = TAB;
+        set(",[]{}", FLOW_INDICATOR);
+        set("?:", MAPPING_INDICATOR);
+        set("-#&*!|>'\"%@`", INDICATOR);
+        set("'\"\\", QUOTE);
+    }
+
+    private CharClasses() {
+        // hidden utility class constructor
+    }
+
+    private static void set(String chars, int charClass) {
+        for (int i = 0; i < chars.length(); ++i) {
+            ASCII[chars.charAt(i)] |= charClass;
+        }
+    }
+
+    /**
+     * Tells whether a character belongs to any of the given classes.
+     * @param c the character
+     * @param mask the classes
+     * @return {@code true} if the character belongs to one of the classes
+     */
+    static boolean is(char c, int mask) {
+        return (classesOf(c) & mask) != 0;
+    }
+
+    private static int classesOf(char c) {
+        if (c < ASCII.length) {
+            return ASCII[c];
+        }
+        switch (c) {
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                return BREAK;
+            case '\uFFFF':
+                return END;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * Lexes a large block mapping in chunks, on several threads, into the tokens that a single {@link YamlScanner} produces.
+ * <p>
+ * The document is cut at the lines starting at column 0 with a key: in a block mapping at column 0, such a line closes
+ * the blocks and the scalars of the previous lines, so the scanner starts it in the state of a new document. Each chunk
+ * is scanned by its own scanner, from the line where it starts, and the tokens that only exist because the chunks are
+ * separate documents are dropped: the start of the mapping in all the chunks but the first one, and the end of the
+ * mapping and the EOF in all the chunks but the last one. The comments before a cut, held by the dropped EOF, go to the
+ * token that holds them in a single scan.
+ * <p>
+ * A chunk may still end in a flow collection, or inside a quoted scalar, when such a line continues it. The chunks are
+ * checked as they are stitched, and the document must be lexed by a single scanner when one of them does not end in
+ * the block context, does not start with a key, or cannot be lexed. The tokens are reported to the observer once all
+ * the chunks are stitched, in the order in which a single scanner reports them, and so are the offsets of the tokens,
+ * which the scanners record from the start of their chunk.
+ * <p>
+ * The threads of the executor and the calling thread take the chunks one at a time, until none is left: the calling
+ * thread only waits for the chunks that other threads are scanning, so the executor may be the one running the parse,
+ * even a pool with a single thread, whose queued tasks then find no chunk left.
+ */
+final class ChunkedLexer {
+  /**
+   * The size of the chunks, in characters.
+   */
+  static final int CHUNK_SIZE = 1 << 20;
+
+  private static final Consumer<Token> NO_CHECK = token -> {
+  };
+
+  private ChunkedLexer() {
+  }
+
+  /**
+   * Lexes a document in chunks of about the given size, on the lexing executor of the options and the calling thread,
+   * or on the calling thread alone if the options have no executor.
+   * @return the tokens of the document, ending with an EOF token, or {@code null} if the document must be lexed by a
+   * single scanner
+   */
+  @CheckForNull
+  static List<Token> lex(CharSequence text, URI uri, Consumer<Token> observer, LexerOptions options, int chunkSize) {
+    return lex(text, uri, observer, () -> NO_CHECK, options, chunkSize, null);
+  }
+
+  /**
+   * Lexes a document in chunks of about the given size, and adds the offsets of the tokens to the given ones if the
+   * chunks join. The tokens of each chunk are checked as they are scanned, by a check of its own called on the thread
+   * scanning the chunk; once a check or a scanner fails, the chunks that are not scanned yet are left, the ones being
+   * scanned stop, and the document is left to a single scanner, which reports the failure with the tokens of the
+   * whole document.
+   * @return the tokens of the document, ending with an EOF token, or {@code null} if the document must be lexed by a
+   * single scanner
+   */
+  @CheckForNull
+  static List<Token> lex(CharSequence text, URI uri, Consumer<Token> observer, Supplier<? extends Consumer<Token>> checks,
+    LexerOptions options, int chunkSize, @Nullable TokenOffsets offsets) {
+    List<Chunk> chunks = split(text, chunkSize);
+    if (chunks.size() < 2) {
+      return null;
+    }
+    Scan scan = new Scan(chunks, text, uri, checks, options, offsets != null);
+    Executor executor = options.getLexingExecutor();
+    for (int i = 1; executor != null && i < chunks.size(); ++i) {
+      try {
+        executor.execute(scan);
+      } catch (RejectedExecutionException e) {
+        break;
+      }
+    }
+    // the calling thread scans the chunks that no thread of the executor has taken, so that it only waits for the
+    // chunks being scanned, even when it is itself a thread of the executor
+    scan.run();
+    try {
+      for (Chunk chunk : chunks) {
+        chunk.done.join();
+      }
+    } catch (RuntimeException e) {
+      if (e.getCause() instanceof Error) {
+        // not an error of the document, such as a stack overflow on a thread of the executor
+        throw (Error) e.getCause();
+      }
+      // lexed again by a single scanner, to report the error
+      return null;
+    }
+    List<Token> tokens = stitch(chunks);
+    if (tokens != null) {
+      if (offsets != null) {
+        for (Chunk chunk : chunks) {
+          for (int i = chunk.from; i < chunk.to; ++i) {
+            offsets.add(chunk.start + chunk.offsets.getStart(i), chunk.start + chunk.offsets.getEnd(i));
+          }
+        }
+      }
+      replay(chunks, observer);
+    }
+    return tokens;
+  }
+
+  /**
+   * Cuts a document at the first key line after each chunk size. The line numbers are counted as the {@link CodeReader}
+   * counts them.
+   */
+  static List<Chunk> split(CharSequence text, int chunkSize) {
+    List<Chunk> chunks = new ArrayList<>();
+    int length = text.length();
+    int start = 0;
+    int startLine = 1;
+    int line = 1;
+    int next = chunkSize;
+    for (int i = 0; i < length; ++i) {
+      char c = text.charAt(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == length || text.charAt(i + 1) != '\n'))) {
+        ++line;
+        if (i + 1 >= next && c == '\n' && i + 1 < length && startsKey(text, i + 1)) {
+          chunks.add(new Chunk(start, i + 1, startLine));
+          start = i + 1;
+          startLine = line;
+          next = start + chunkSize;
+        }
+      }
+    }
+    chunks.add(new Chunk(start, length, startLine));
+    return chunks;
+  }
+
+  /**
+   * A key at column 0 starts with neither a blank, a line break, a sequence entry nor a comment. The explicit keys and
+   * values, the directives and the document markers are left out as well.
+   */
+  private static boolean startsKey(CharSequence text, int index) {
+    char c = text.charAt(index);
+    return c > ' ' && c != '-' && c != '#' && c != '?' && c != ':' && c != '%' && !CharClasses.is(c, CharClasses.NULL_OR_LINEBR) && c != '\uFEFF'
+      && !(c == '.' && index + 2 < text.length() && text.charAt(index + 1) == '.' && text.charAt(index + 2) == '.');
+  }
+
+  /**
+   * Joins the tokens of the chunks.
+   * @return the tokens, or {@code null} if the chunks do not join as a single document
+   */
+  @CheckForNull
+  private static List<Token> stitch(List<Chunk> chunks) {
+    int size = 0;
+    for (Chunk chunk : chunks) {
+      size += chunk.tokens.size();
+    }
+    List<Token> tokens = new ArrayList<>(size);
+    List<Trivia> comments = Collections.emptyList();
+    int last = chunks.size() - 1;
+    for (int i = 0; i <= last; ++i) {
+      Chunk chunk = chunks.get(i);
+      List<Token> chunkTokens = chunk.tokens;
+      Token first = chunkTokens.get(0);
+      if (first.getType() != Tokens.BLOCK_MAPPING_START || first.getColumn() != 0) {
+        return null;
+      }
+      int from = 0;
+      int to = chunkTokens.size();
+      if (i > 0) {
+        // the mapping goes on: its start is dropped, and the comments before the key go to the KEY inserted in front of
+        // it, and to its first token as the observer sees it before the KEY is inserted
+        if (first.getLine() != chunk.line || to < 3 || chunkTokens.get(1).getType() != Tokens.KEY
+          || chunkTokens.get(2) != chunk.scanned.get(0)) {
+          return null;
+        }
+        if (!comments.isEmpty()) {
+          chunk.addTrivia(1, comments);
+          chunk.scanned.set(0, withTrivia(chunk.scanned.get(0), comments));
+        }
+        from = 1;
+      }
+      if (i < last) {
+        Token eof = chunkTokens.get(to - 1);
+        Chunk next = chunks.get(i + 1);
+        if (!chunk.endsInBlockContext || eof.getLine() != next.line || eof.getColumn() != 0) {
+          return null;
+        }
+        // the blocks closed at the end of the chunk, the last one being the mapping at column 0
+        int blockEnds = to - 1;
+        while (blockEnds > from && isBlockEndAt(chunkTokens.get(blockEnds - 1), eof)) {
+          --blockEnds;
+        }
+        if (blockEnds == to - 1) {
+          return null;
+        }
+        to -= 2;
+        chunk.closed = chunkTokens.subList(blockEnds, to);
+        if (blockEnds < to) {
+          // the comments before the next key go to the first block it closes
+          chunk.addTrivia(blockEnds, eof.getTrivia());
+          comments = Collections.emptyList();
+        } else {
+          comments = eof.getTrivia();
+        }
+      }
+      tokens.addAll(chunkTokens.subList(from, to));
+      chunk.from = from;
+      chunk.to = to;
+    }
+    return tokens;
+  }
+
+  private static Token withTrivia(Token token, List<Trivia> comments) {
+    List<Trivia> trivia = new ArrayList<>(comments);
+    trivia.addAll(token.getTrivia());
+    return Token.builder(token).setTrivia(trivia).build();
+  }
+
+  private static int indexOf(List<Token> tokens, Token token) {
+    for (int i = 0; i < tokens.size(); ++i) {
+      if (tokens.get(i) == token) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int lastIndexOf(List<Token> tokens, Token token) {
+    for (int i = tokens.size() - 1; i >= 0; --i) {
+      if (tokens.get(i) == token) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isBlockEndAt(Token token, Token eof) {
+    return token.getType() == Tokens.BLOCK_END && token.getLine() == eof.getLine() && token.getColumn() == eof.getColumn();
+  }
+
+  /**
+   * Reports the tokens to the observer as a single scanner does: in the order they were scanned, a KEY being reported
+   * after the scalar it is inserted in front of, and without the blocks closed at the end of the document.
+   */
+  private static void replay(List<Chunk> chunks, Consumer<Token> observer) {
+    int last = chunks.size() - 1;
+    for (int i = 0; i <= last; ++i) {
+      Chunk chunk = chunks.get(i);
+      Token mappingStart = i > 0 ? chunk.tokens.get(0) : null;
+      Token eof = i < last ? chunk.tokens.get(chunk.tokens.size() - 1) : null;
+      for (Token token : chunk.scanned) {
+        if (token != mappingStart && token != eof) {
+          observer.accept(token);
+        }
+      }
+      // closed by the next key in a single scan
+      chunk.closed.forEach(observer);
+    }
+  }
+
+  /**
+   * The chunks of a document, taken one at a time by the threads that run the scan until none is left. The first
+   * chunk that fails stops the others.
+   */
+  private static final class Scan implements Runnable {
+    private final List<Chunk> chunks;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile boolean failed = false;
+    private final CharSequence text;
+    private final URI uri;
+    private final Supplier<? extends Consumer<Token>> checks;
+    private final LexerOptions options;
+    private final boolean withOffsets;
+
+    private Scan(List<Chunk> chunks, CharSequence text, URI uri, Supplier<? extends Consumer<Token>> checks,
+      LexerOptions options, boolean withOffsets) {
+      this.chunks = chunks;
+      this.text = text;
+      this.uri = uri;
+      this.checks = checks;
+      this.options = options;
+      this.withOffsets = withOffsets;
+    }
+
+    @Override
+    public void run() {
+      for (int i = next.getAndIncrement(); i < chunks.size(); i = next.getAndIncrement()) {
+        Chunk chunk = chunks.get(i);
+        if (failed) {
+          chunk.done.cancel(false);
+          continue;
+        }
+        try {
+          chunk.scan(this);
+          chunk.done.complete(null);
+        } catch (RuntimeException e) {
+          failed = true;
+          chunk.done.completeExceptionally(e);
+        } catch (Throwable e) {
+          // errors such as a stack overflow complete the chunk all the same, else the thread lexing the document
+          // would wait for it forever
+          failed = true;
+          chunk.done.completeExceptionally(e);
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * The lines of a document scanned by one scanner.
+   */
+  static final class Chunk {
+    final int start;
+    final int end;
+    final int line;
+    List<Token> tokens;
+    // the tokens in the order they were reported by the scanner
+    final List<Token> scanned = new ArrayList<>();
+    boolean endsInBlockContext;
+    // the blocks closed by the EOF, but the mapping at column 0
+    List<Token> closed = Collections.emptyList();
+    // the offsets of the tokens from the start of the chunk, if recorded
+    TokenOffsets offsets;
+    // completed once the chunk is scanned, by the thread that scanned it
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    // the tokens kept in the document
+    int from;
+    int to;
+
+    Chunk(int start, int end, int line) {
+      this.start = start;
+      this.end = end;
+      this.line = line;
+    }
+
+    void scan(Scan scan) {
+      CodeReader code = CodeReaders.of(scan.text, start, end);
+      code.setLinePosition(line);
+      offsets = scan.withOffsets ? new TokenOffsets() : null;
+      Consumer<Token> check = scan.checks.get();
+      Consumer<Token> observer = token -> {
+        scanned.add(token);
+        check.accept(token);
+      };
+      YamlScanner scanner = new YamlScanner(code, scan.uri, observer, scan.options, offsets);
+      List<Token> chunkTokens = new ArrayList<>();
+      Token token;
+      do {
+        if (scan.failed) {
+          throw new CancellationException();
+        }
+        token = scanner.next();
+        chunkTokens.add(token);
+      } while (token.getType() != GenericTokenType.EOF);
+      tokens = chunkTokens;
+      endsInBlockContext = scanner.endsInBlockContext();
+    }
+
+    /**
+     * Adds the comments scanned before a token, in the token list and in the scanned tokens.
+     */
+    void addTrivia(int index, List<Trivia> comments) {
+      Token token = tokens.get(index);
+      Token withTrivia = withTrivia(token, comments);
+      tokens.set(index, withTrivia);
+      int scannedIndex = index < tokens.size() / 2 ? indexOf(scanned, token) : lastIndexOf(scanned, token);
+      if (scannedIndex >= 0) {
+        scanned.set(scannedIndex, withTrivia);
+      }
+    }
+  }
+}
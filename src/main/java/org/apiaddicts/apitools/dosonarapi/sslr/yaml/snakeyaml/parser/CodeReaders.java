@@ -0,0 +1,144 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import java.lang.reflect.Field;
+import java.nio.CharBuffer;
+import javax.annotation.CheckForNull;
+import org.sonar.sslr.channel.CodeBuffer;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * Creates the readers of the scanners over a text already in memory. A {@link CodeReader} reads its input into a
+ * {@code StringBuilder}, then a {@code String}, then the array it scans, and has no constructor taking the array
+ * itself: the array of the reader is set directly instead, so that a text held in an array of its exact length, such
+ * as a decoded file, is scanned in place, and any other text is copied once.
+ * <p>
+ * The {@link SpanScanner} also reads that array, and moves the readers past a span of characters on a single line at
+ * once, where {@link CodeReader#pop()} moves them one character at a time. If the array of the readers cannot be set,
+ * the readers are created from the text as a string, and moved character by character.
+ */
+final class CodeReaders {
+  @CheckForNull
+  private static final Field BUFFER = field("buffer", char[].class);
+  @CheckForNull
+  private static final Field POSITION = field("bufferPosition", int.class);
+
+  private CodeReaders() {
+    // hidden utility class constructor
+  }
+
+  /**
+   * @return a reader of the whole text
+   */
+  static CodeReader of(CharSequence text) {
+    if (BUFFER != null && text instanceof CharBuffer) {
+      CharBuffer buffer = (CharBuffer) text;
+      if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+        && buffer.limit() == buffer.array().length) {
+        return withBuffer(buffer.array());
+      }
+    }
+    return of(text, 0, text.length());
+  }
+
+  /**
+   * @return a reader of the characters of the text from {@code start} to {@code end}, copied once
+   */
+  static CodeReader of(CharSequence text, int start, int end) {
+    if (BUFFER == null) {
+      return new CodeReader(text.subSequence(start, end).toString());
+    }
+    char[] chars = new char[end - start];
+    if (text instanceof String) {
+      ((String) text).getChars(start, end, chars, 0);
+    } else if (text instanceof CharBuffer && ((CharBuffer) text).hasArray()) {
+      CharBuffer buffer = (CharBuffer) text;
+      System.arraycopy(buffer.array(), buffer.arrayOffset() + buffer.position() + start, chars, 0, chars.length);
+    } else {
+      for (int i = start; i < end; ++i) {
+        chars[i - start] = text.charAt(i);
+      }
+    }
+    return withBuffer(chars);
+  }
+
+  /**
+   * @return the array scanned by the reader, of which the reader has {@link CodeReader#length()} characters left to
+   * read at its end, or null if the readers cannot be moved past a span at once
+   */
+  @CheckForNull
+  static char[] array(CodeReader code) {
+    if (BUFFER == null || POSITION == null) {
+      return null;
+    }
+    try {
+      return (char[]) BUFFER.get(code);
+    } catch (IllegalAccessException e) {
+      // cannot happen once the field is accessible
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Moves a reader past characters that are neither line breaks nor tabs, so that only the column of the reader
+   * changes. Unlike {@link CodeReader#pop()}, this leaves {@link CodeReader#lastChar()} as it was.
+   */
+  static void skipInLine(CodeReader code, int count) {
+    if (POSITION == null) {
+      for (int i = 0; i < count; ++i) {
+        code.pop();
+      }
+      return;
+    }
+    try {
+      POSITION.setInt(code, POSITION.getInt(code) + count);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    code.setColumnPosition(code.getColumnPosition() + count);
+  }
+
+  private static CodeReader withBuffer(char[] chars) {
+    CodeReader code = new CodeReader("");
+    try {
+      BUFFER.set(code, chars);
+    } catch (IllegalAccessException e) {
+      // cannot happen once the field is accessible
+      throw new IllegalStateException(e);
+    }
+    return code;
+  }
+
+  @CheckForNull
+  private static Field field(String name, Class<?> type) {
+    try {
+      Field field = CodeBuffer.class.getDeclaredField(name);
+      if (field.getType() != type) {
+        return null;
+      }
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException | RuntimeException e) {
+      // another version of SSLR, or a security manager forbidding it
+      return null;
+    }
+  }
+}
@@ -21,29 +21,33 @@ package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
 
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
-import java.util.List;
 import org.sonar.sslr.channel.Channel;
 import org.sonar.sslr.channel.CodeReader;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import static com.sonar.sslr.api.GenericTokenType.COMMENT;
 import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.LineBreakChannel.scanLineBreak;
 
-public class CommentChannel extends Channel<com.sonar.sslr.impl.Lexer> {
-    private static final Matcher MATCHER = Pattern.compile("[^" + Lexer.NULL_OR_LINEBR_S + "]*+").matcher("");
-
-    private final StringBuilder tmpBuilder = new StringBuilder();
+public class CommentChannel extends Channel<YamlScanner> {
     private final Token.Builder tokenBuilder = Token.builder();
     private final boolean ignoreLineEndings;
+    private final boolean keepComments;
 
     public CommentChannel(boolean ignoreLineEndings) {
+        this(ignoreLineEndings, true);
+    }
+
+    /**
+     * @param ignoreLineEndings whether the line break after a full comment line is left to the other channels
+     * @param keepComments whether the comments are added to the trivia of the next token, or skipped without building
+     *                     a token
+     */
+    public CommentChannel(boolean ignoreLineEndings, boolean keepComments) {
         this.ignoreLineEndings = ignoreLineEndings;
+        this.keepComments = keepComments;
     }
 
     @Override
-    public boolean consume(CodeReader code, com.sonar.sslr.impl.Lexer lexer) {
+    public boolean consume(CodeReader code, YamlScanner lexer) {
         // If the character we have skipped forward to is a comment (#),
         // then peek ahead until we find the next end of line. YAML
         // comments are from a # to the next new-line. We then forward
@@ -52,16 +56,28 @@ public class CommentChannel extends Channel<com.sonar.sslr.impl.Lexer> {
             return false;
         }
         code.pop();
-        String value = "";
         int line = code.getLinePosition();
-        int column = code.getColumnPosition() - 1;
-        if (Lexer.NULL_OR_LINEBR_S.indexOf(code.charAt(0)) == -1 && code.popTo(MATCHER, tmpBuilder) > 0) {
-            value = tmpBuilder.toString();
-            tmpBuilder.delete(0, tmpBuilder.length());
-            line = code.getPreviousCursor().getLine();
-            column = code.getPreviousCursor().getColumn() - 1;
+        SpanScanner spans = lexer.getSpans();
+        int length = spans.lineEnd(code, 0);
+        if (keepComments) {
+            addComment(code, lexer, spans, length);
+        } else {
+            spans.skip(code, length);
+        }
+
+        if (!ignoreLineEndings && lexer.getLastTokenLine() < line) {
+            // If we are the first token of the line (so this is a full comment line),
+            // need to consume the line breaks to not confuse the IndentUnwinder
+            scanLineBreak(code);
         }
 
+        return true;
+    }
+
+    private void addComment(CodeReader code, YamlScanner lexer, SpanScanner spans, int length) {
+        int line = code.getLinePosition();
+        int column = code.getColumnPosition() - 1;
+        String value = length == 0 ? "" : spans.forward(code, length);
         Token token = tokenBuilder
                 .setType(COMMENT)
                 .setValueAndOriginalValue(value)
@@ -71,18 +87,5 @@ public class CommentChannel extends Channel<com.sonar.sslr.impl.Lexer> {
                 .build();
 
         lexer.addTrivia(Trivia.createComment(token));
-
-        List<Token> tokens = lexer.getTokens();
-        if (!ignoreLineEndings && hasNoPrecedingTokenOnLine(tokens, line)) {
-            // If we are the first token of the line (so this is a full comment line),
-            // need to consume the line breaks to not confuse the IndentUnwinder
-            scanLineBreak(code);
-        }
-
-        return true;
-    }
-
-    private static boolean hasNoPrecedingTokenOnLine(List<Token> tokens, int line) {
-        return tokens.isEmpty() || tokens.get(tokens.size() - 1).getLine() < line;
     }
 }
@@ -57,7 +57,7 @@ class IndentUnwinder {
     public List<Token> unwindIndent(int col, int tokenLine, int tokenCol, URI uri) {
         // In the flow context, indentation is ignored. We make the scanner less
         // restrictive then specification requires.
-        if (state.flowLevel() != 0) {
+        if (state.flowLevel() != 0 || state.indent() <= col) {
             return Collections.emptyList();
         }
 
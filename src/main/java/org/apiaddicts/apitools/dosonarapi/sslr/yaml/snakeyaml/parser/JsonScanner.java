@@ -0,0 +1,466 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * A scanner for documents written in plain JSON, which is a subset of the YAML flow syntax.
+ * <p>
+ * JSON has no indentation, no comments and no implicit keys other than the strings before a {@code ':'}, so the
+ * document can be tokenized in a single pass over its characters, without the channels and the simple key tracking
+ * of the {@link YamlScanner}. The tokens are the ones the {@link Lexer} produces for the same document.
+ * <p>
+ * The scanner only accepts the documents for which it is sure to produce these tokens: a single object or array, in
+ * strict JSON, without tabs, carriage returns that are not followed by a line feed, or keys separated from their
+ * {@code ':'} by a line break. Anything else is left to the {@link Lexer}, which also reports the errors.
+ */
+public final class JsonScanner {
+  private static final int EXPECT_VALUE = 0;
+  private static final int EXPECT_FIRST_VALUE = 1;
+  private static final int EXPECT_KEY = 2;
+  private static final int EXPECT_FIRST_KEY = 3;
+  private static final int EXPECT_SEPARATOR = 4;
+  private static final int EXPECT_END = 5;
+  // the document must be read by the Lexer
+  private static final int NOT_JSON = -1;
+
+  private final CharSequence text;
+  private final URI uri;
+  private final Consumer<Token> observer;
+  @Nullable
+  private final TokenOffsets offsets;
+  private final ScalarSchema schema;
+  private final StringTable strings;
+  private final List<Token> tokens = new ArrayList<>();
+  private final Token.Builder tokenBuilder = Token.builder();
+  private final StringBuilder unescaped = new StringBuilder();
+
+  // the open collections, true for objects
+  private boolean[] objects = new boolean[16];
+  private int depth = 0;
+
+  private int index = 0;
+  private int line = 1;
+  private int lineStart = 0;
+
+  private JsonScanner(CharSequence text, URI uri, Consumer<Token> observer, ScalarSchema schema, StringTable strings,
+    @Nullable TokenOffsets offsets) {
+    this.text = text;
+    this.uri = uri;
+    this.observer = observer;
+    this.offsets = offsets;
+    this.schema = schema;
+    this.strings = strings;
+  }
+
+  /**
+   * Tells whether a document looks like JSON, that is whether its first non-blank character opens an object or an
+   * array.
+   * @param text the document
+   * @return {@code true} if the document starts with <code>{</code> or {@code [}
+   */
+  public static boolean startsLikeJson(CharSequence text) {
+    for (int i = 0; i < text.length(); ++i) {
+      char c = text.charAt(i);
+      if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+        return c == '{' || c == '[';
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Tokenizes a JSON document.
+   * @param text the document
+   * @param uri the URI set on the tokens
+   * @return the tokens of the document, ending with an EOF token, or {@code null} if the document must be read by
+   * the {@link Lexer}
+   */
+  @CheckForNull
+  public static List<Token> scan(CharSequence text, URI uri) {
+    return scan(text, uri, token -> {
+    }, LexerOptions.DEFAULT, null);
+  }
+
+  /**
+   * Tokenizes a JSON document, reporting each token to an observer as soon as it is scanned, resolving the type of the
+   * literals with the schema of the options, as the {@link Lexer} does for the plain scalars, and recording the
+   * character offsets of the tokens. The observer may abort the scan by throwing an exception.
+   * @param text the document
+   * @param uri the URI set on the tokens
+   * @param observer the observer of the scanned tokens
+   * @param options the schema and string interning of the scan
+   * @param offsets the empty offsets where the offsets of the tokens are added, left empty if {@code null} is returned,
+   * or {@code null} not to record them
+   * @return the tokens of the document, ending with an EOF token, or {@code null} if the document must be read by
+   * the {@link Lexer}
+   */
+  @CheckForNull
+  public static List<Token> scan(CharSequence text, URI uri, Consumer<Token> observer, LexerOptions options,
+    @Nullable TokenOffsets offsets) {
+    int size = offsets == null ? 0 : offsets.size();
+    List<Token> tokens = new JsonScanner(text, uri, observer, options.getScalarSchema(), options.getStringInterning().table(), offsets)
+      .scan();
+    if (tokens == null && offsets != null) {
+      offsets.truncate(size);
+    }
+    return tokens;
+  }
+
+  @CheckForNull
+  private List<Token> scan() {
+    int expected = EXPECT_VALUE;
+    while (skipBlanks()) {
+      if (index == text.length()) {
+        if (expected != EXPECT_END) {
+          return null;
+        }
+        addToken(GenericTokenType.EOF, "EOF", "EOF", line, index - lineStart);
+        return tokens;
+      }
+      char c = text.charAt(index);
+      switch (expected) {
+        case EXPECT_FIRST_VALUE:
+          expected = c == ']' ? closeCollection(c) : scanValue(c);
+          break;
+        case EXPECT_VALUE:
+          expected = scanValue(c);
+          break;
+        case EXPECT_FIRST_KEY:
+          expected = c == '}' ? closeCollection(c) : scanEntry(c);
+          break;
+        case EXPECT_KEY:
+          expected = scanEntry(c);
+          break;
+        case EXPECT_SEPARATOR:
+          expected = scanSeparator(c);
+          break;
+        default:
+          return null;
+      }
+      if (expected == NOT_JSON) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Skips the spaces and line breaks before the next token.
+   * @return {@code false} if a character that JSON and YAML treat differently was found
+   */
+  private boolean skipBlanks() {
+    while (index < text.length()) {
+      char c = text.charAt(index);
+      if (c == '\n') {
+        ++index;
+        ++line;
+        lineStart = index;
+      } else if (c == '\r') {
+        if (index + 1 == text.length() || text.charAt(index + 1) != '\n') {
+          return false;
+        }
+        ++index;
+      } else if (c == ' ') {
+        ++index;
+      } else {
+        return true;
+      }
+    }
+    return true;
+  }
+
+  private int scanValue(char c) {
+    if (c == '{' || c == '[') {
+      if (depth == objects.length) {
+        objects = Arrays.copyOf(objects, depth * 2);
+      }
+      objects[depth++] = c == '{';
+      addToken(c == '{' ? Tokens.FLOW_MAPPING_START : Tokens.FLOW_SEQUENCE_START, String.valueOf(c), line, index - lineStart);
+      ++index;
+      return c == '{' ? EXPECT_FIRST_KEY : EXPECT_FIRST_VALUE;
+    }
+    if (depth == 0) {
+      // a YAML document may be a scalar, JSON documents are not
+      return NOT_JSON;
+    }
+    if (c == '"') {
+      Token string = scanString();
+      if (string == null) {
+        return NOT_JSON;
+      }
+      addToken(string);
+    } else if (!scanLiteral()) {
+      return NOT_JSON;
+    }
+    return EXPECT_SEPARATOR;
+  }
+
+  /**
+   * Scans a key, its value indicator and the start of the value. The KEY token precedes the key, where the
+   * {@link Lexer} moves it.
+   */
+  private int scanEntry(char c) {
+    if (c != '"') {
+      return NOT_JSON;
+    }
+    int keyLine = line;
+    int keyColumn = index - lineStart;
+    Token key = scanString();
+    if (key == null) {
+      return NOT_JSON;
+    }
+    // the key is only implicit if the ':' is on the same line
+    while (index < text.length() && text.charAt(index) == ' ') {
+      ++index;
+    }
+    if (index == text.length() || text.charAt(index) != ':') {
+      return NOT_JSON;
+    }
+    addToken(Tokens.KEY, "?", "", keyLine, keyColumn);
+    addToken(key);
+    addToken(Tokens.VALUE, ":", line, index - lineStart);
+    ++index;
+    return EXPECT_VALUE;
+  }
+
+  private int scanSeparator(char c) {
+    if (c == ',') {
+      addToken(Tokens.FLOW_ENTRY, ",", line, index - lineStart);
+      ++index;
+      return objects[depth - 1] ? EXPECT_KEY : EXPECT_VALUE;
+    }
+    if (c == (objects[depth - 1] ? '}' : ']')) {
+      return closeCollection(c);
+    }
+    return NOT_JSON;
+  }
+
+  private int closeCollection(char c) {
+    addToken(c == '}' ? Tokens.FLOW_MAPPING_END : Tokens.FLOW_SEQUENCE_END, String.valueOf(c), line, index - lineStart);
+    ++index;
+    --depth;
+    return depth == 0 ? EXPECT_END : EXPECT_SEPARATOR;
+  }
+
+  /**
+   * Scans a string. Unlike YAML, JSON strings hold neither line breaks nor tabs, and have fewer escape sequences.
+   * @return the string token, or {@code null} if the string is not valid JSON
+   */
+  @CheckForNull
+  private Token scanString() {
+    int start = index;
+    int column = index - lineStart;
+    unescaped.setLength(0);
+    int chunk = ++index;
+    while (index < text.length()) {
+      char c = text.charAt(index);
+      if (c == '"') {
+        String value;
+        if (unescaped.length() == 0 && chunk == start + 1) {
+          value = strings.get(text, chunk, index);
+        } else {
+          value = unescaped.append(text, chunk, index).toString();
+        }
+        ++index;
+        return tokenBuilder
+          .setType(Tokens.STRING)
+          .setValueAndOriginalValue(value, strings.get(text, start, index))
+          .setURI(uri)
+          .setLine(line)
+          .setColumn(column)
+          .build();
+      } else if (c == '\\') {
+        unescaped.append(text, chunk, index);
+        if (!scanEscape()) {
+          return null;
+        }
+        chunk = index;
+      } else if (c < ' ' || isYamlSpecial(c)) {
+        return null;
+      } else {
+        ++index;
+      }
+    }
+    return null;
+  }
+
+  private boolean scanEscape() {
+    if (index + 1 == text.length()) {
+      return false;
+    }
+    char c = text.charAt(index + 1);
+    index += 2;
+    switch (c) {
+      case '"':
+      case '\\':
+        unescaped.append(c);
+        return true;
+      case 'b':
+        unescaped.append('\b');
+        return true;
+      case 'f':
+        unescaped.append('\f');
+        return true;
+      case 'n':
+        unescaped.append('\n');
+        return true;
+      case 'r':
+        unescaped.append('\r');
+        return true;
+      case 't':
+        unescaped.append('\t');
+        return true;
+      case 'u':
+        return scanUnicodeEscape();
+      default:
+        // '\/' is JSON only
+        return false;
+    }
+  }
+
+  private boolean scanUnicodeEscape() {
+    if (index + 4 > text.length()) {
+      return false;
+    }
+    int code = 0;
+    for (int i = 0; i < 4; ++i) {
+      int digit = Character.digit(text.charAt(index + i), 16);
+      if (digit < 0) {
+        return false;
+      }
+      code = code * 16 + digit;
+    }
+    index += 4;
+    unescaped.append((char) code);
+    return true;
+  }
+
+  /**
+   * Scans a number, {@code true}, {@code false} or {@code null}. The literal must end where the {@link Lexer} ends
+   * the plain scalar: before a {@code ','} or the end of the collection, possibly after blanks.
+   */
+  private boolean scanLiteral() {
+    int start = index;
+    while (index < text.length() && isLiteralChar(text.charAt(index))) {
+      ++index;
+    }
+    String value = strings.get(text, start, index);
+    if (!isJsonLiteral(value)) {
+      return false;
+    }
+    addToken(schema.resolve(value), value, line, start - lineStart);
+    // a plain scalar goes on after blanks, unless they are followed by the end of the entry
+    return skipBlanks() && index < text.length() && ",]}".indexOf(text.charAt(index)) != -1;
+  }
+
+  private static boolean isLiteralChar(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '+' || c == '.';
+  }
+
+  private static boolean isJsonLiteral(String value) {
+    if ("true".equals(value) || "false".equals(value) || "null".equals(value)) {
+      return true;
+    }
+    int i = 0;
+    int length = value.length();
+    if (i < length && value.charAt(i) == '-') {
+      ++i;
+    }
+    if (i < length && value.charAt(i) == '0') {
+      ++i;
+    } else {
+      int digits = skipDigits(value, i);
+      if (digits == i) {
+        return false;
+      }
+      i = digits;
+    }
+    if (i < length && value.charAt(i) == '.') {
+      int digits = skipDigits(value, i + 1);
+      if (digits == i + 1) {
+        return false;
+      }
+      i = digits;
+    }
+    if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+      ++i;
+      if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+        ++i;
+      }
+      int digits = skipDigits(value, i);
+      if (digits == i) {
+        return false;
+      }
+      i = digits;
+    }
+    return i == length;
+  }
+
+  private static int skipDigits(String value, int start) {
+    int i = start;
+    while (i < value.length() && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+      ++i;
+    }
+    return i;
+  }
+
+  /**
+   * The characters that YAML reads as line breaks or as the end of the input.
+   */
+  private static boolean isYamlSpecial(char c) {
+    return c == '\u0085' || c == '\u2028' || c == '\u2029' || c == '\uFFFF';
+  }
+
+  private void addToken(TokenType type, String value, int line, int column) {
+    addToken(type, value, value, line, column);
+  }
+
+  private void addToken(TokenType type, String value, String originalValue, int line, int column) {
+    addToken(tokenBuilder
+      .setType(type)
+      .setValueAndOriginalValue(value, originalValue)
+      .setURI(uri)
+      .setLine(line)
+      .setColumn(column)
+      .build());
+  }
+
+  private void addToken(Token token) {
+    observer.accept(token);
+    tokens.add(token);
+    if (offsets != null) {
+      // the tokens are on the current line, and their original value is their source text
+      int start = lineStart + token.getColumn();
+      int length = token.getType() == GenericTokenType.EOF ? 0 : token.getOriginalValue().length();
+      offsets.add(start, start + length);
+    }
+  }
+}
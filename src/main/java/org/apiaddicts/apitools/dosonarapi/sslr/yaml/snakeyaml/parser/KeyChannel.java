@@ -24,7 +24,7 @@ import org.sonar.sslr.channel.Channel;
 import org.sonar.sslr.channel.CodeBuffer;
 import org.sonar.sslr.channel.CodeReader;
 
-public class KeyChannel extends Channel<com.sonar.sslr.impl.Lexer> {
+public class KeyChannel extends Channel<YamlScanner> {
     private final LexerState state;
     private final Token.Builder tokenBuilder = Token.builder();
 
@@ -33,8 +33,8 @@ public class KeyChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     }
 
     @Override
-    public boolean consume(CodeReader code, com.sonar.sslr.impl.Lexer output) {
-        if (code.charAt(0) == '?' && (state.flowLevel() != 0 || Lexer.NULL_BL_T_LINEBR_S.indexOf(code.charAt(1)) != -1)) {
+    public boolean consume(CodeReader code, YamlScanner output) {
+        if (code.charAt(0) == '?' && (state.flowLevel() != 0 || CharClasses.is(code.charAt(1), CharClasses.NULL_BL_T_LINEBR))) {
             fetchKey(code, output);
             return true;
         } else {
@@ -47,7 +47,7 @@ public class KeyChannel extends Channel<com.sonar.sslr.impl.Lexer> {
      *
      * @see http://www.yaml.org/spec/1.1/#id863975
      */
-    private void fetchKey(CodeReader reader, com.sonar.sslr.impl.Lexer output) {
+    private void fetchKey(CodeReader reader, YamlScanner output) {
         // Block context needs additional checks.
         if (state.flowLevel() == 0) {
             // Are we allowed to start a key (not necessary a simple)?
@@ -19,38 +19,130 @@
  */
 package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
 
-import com.sonar.sslr.impl.channel.BlackHoleChannel;
-import com.sonar.sslr.impl.channel.UnknownCharacterChannel;
-
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.LexerException;
+import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
 
 public abstract class Lexer {
-    protected static final String LINEBR_S = "\n\u0085\u2028\u2029\uFFFF";
-    private static final String FULL_LINEBR_S = "\r" + LINEBR_S;
-    protected static final String NULL_OR_LINEBR_S = "\0" + FULL_LINEBR_S;
-    protected static final String NULL_BL_LINEBR_S = " " + NULL_OR_LINEBR_S;
-    protected static final String NULL_BL_T_LINEBR_S = "\t" + NULL_BL_LINEBR_S;
-
     private Lexer() {
         // hidden utility class constructor
     }
 
+    /**
+     * Creates an SSLR lexer producing the whole token list of a document. The tokens are scanned by a
+     * {@link YamlScanner}; use the scanner directly to read them one at a time.
+     */
     public static com.sonar.sslr.impl.Lexer create(Charset charset) {
-        LexerState state = new LexerState();
+        return create(charset, token -> {
+        }, LexerOptions.DEFAULT);
+    }
+
+    /**
+     * Creates an SSLR lexer reporting each token to an observer as soon as it is scanned, and scanning with the given
+     * options. See {@link YamlScanner#YamlScanner(CharSequence, URI, Consumer, LexerOptions, TokenOffsets)}. The lexer
+     * neither records offsets nor lexes in parallel.
+     */
+    public static com.sonar.sslr.impl.Lexer create(Charset charset, Consumer<Token> observer, LexerOptions options) {
         return com.sonar.sslr.impl.Lexer.builder()
                 .withCharset(charset)
                 .withFailIfNoChannelToConsumeOneCharacter(true)
-                .withPreprocessor(new FinalIndentUnwinder(state))
-                .withChannel(new BlackHoleChannel(" ++"))
-                .withChannel(new CommentChannel(false))
-                .withChannel(new UnwindIndentChannel(state))
-                .withChannel(new LineBreakChannel(state))
-                .withChannel(new BlockEntryChannel(state))
-                .withChannel(new FlowCollectionChannel(state))
-                .withChannel(new KeyChannel(state))
-                .withChannel(new ValueChannel(state))
-                .withChannel(new ScalarChannel(state))
-                .withChannel(new UnknownCharacterChannel())
+                .withChannel(new ScannerChannel(observer, options))
                 .build();
     }
+
+    /**
+     * Lexes a document without the SSLR lexer, which only reads strings, files and URLs. The tokens are the ones the
+     * lexer of {@link #create(Charset, Consumer, LexerOptions)} produces for the same document. A document held in an
+     * array of its exact length, such as a {@link java.nio.CharBuffer} wrapping the whole array, is scanned in place,
+     * and any other document is copied once.
+     *
+     * @param text the document
+     * @param uri the URI set on the tokens
+     * @param observer the observer of the scanned tokens
+     * @param options the schema, string interning and comments of the scan
+     * @param offsets the empty offsets where the offsets of the tokens are added, or {@code null} not to record them
+     * @return the tokens of the document, ending with an EOF token
+     * @throws LexerException if the document cannot be lexed
+     */
+    public static List<Token> lex(CharSequence text, URI uri, Consumer<Token> observer, LexerOptions options,
+            @Nullable TokenOffsets offsets) {
+        YamlScanner scanner = new YamlScanner(CodeReaders.of(text), uri, observer, options, offsets);
+        List<Token> tokens = new ArrayList<>();
+        try {
+            Token token;
+            do {
+                token = scanner.next();
+                tokens.add(token);
+            } while (token.getType() != GenericTokenType.EOF);
+        } catch (RuntimeException e) {
+            throw scanner.lexerException(e);
+        }
+        return tokens;
+    }
+
+    /**
+     * Lexes a large block mapping in chunks, on the threads of the lexing executor of the options. The document is cut
+     * at the keys of the mapping that start a line at column 0, once every megabyte or so, and the tokens, their
+     * offsets and the order in which they are reported to the observer are the ones of {@link #lex(CharSequence,
+     * URI, Consumer, LexerOptions, TokenOffsets)}. The observer is only called once all the chunks are lexed, from the
+     * calling thread, which lexes the chunks that no thread of the executor has started: the executor may run the
+     * calling thread itself.
+     *
+     * @param text the document
+     * @param uri the URI set on the tokens
+     * @param observer the observer of the scanned tokens
+     * @param checks the checks of the tokens of the chunks, one per chunk, called on the thread scanning it: a check
+     * that throws stops the lexing of all the chunks, and {@code null} is returned
+     * @param options the schema, string interning and comments of the scan, and the executor lexing the chunks
+     * @param offsets the empty offsets where the offsets of the tokens are added, left empty if {@code null} is
+     * returned, or {@code null} not to record them
+     * @return the tokens of the document, ending with an EOF token, or {@code null} if the options have no lexing
+     * executor, or the document is too small or cannot be cut, or does not lex, in which case it must be lexed with
+     * {@link #lex(CharSequence, URI, Consumer, LexerOptions, TokenOffsets)}
+     */
+    @CheckForNull
+    public static List<Token> lexInParallel(CharSequence text, URI uri, Consumer<Token> observer,
+            Supplier<? extends Consumer<Token>> checks, LexerOptions options, @Nullable TokenOffsets offsets) {
+        if (options.getLexingExecutor() == null) {
+            return null;
+        }
+        return ChunkedLexer.lex(text, uri, observer, checks, options, ChunkedLexer.CHUNK_SIZE, offsets);
+    }
+
+    /**
+     * Drains a {@link YamlScanner} into the SSLR lexer, which adds the final EOF token itself.
+     */
+    private static final class ScannerChannel extends Channel<com.sonar.sslr.impl.Lexer> {
+        private final Consumer<Token> observer;
+        private final LexerOptions options;
+
+        private ScannerChannel(Consumer<Token> observer, LexerOptions options) {
+            this.observer = observer;
+            this.options = options;
+        }
+
+        @Override
+        public boolean consume(CodeReader code, com.sonar.sslr.impl.Lexer lexer) {
+            YamlScanner scanner = new YamlScanner(code, lexer.getURI(), observer, options, null);
+            Token token = scanner.next();
+            while (token.getType() != GenericTokenType.EOF) {
+                lexer.addTrivia(token.getTrivia());
+                lexer.addToken(token);
+                token = scanner.next();
+            }
+            // the comments at the end of the document
+            lexer.addTrivia(token.getTrivia());
+            return true;
+        }
+    }
 }
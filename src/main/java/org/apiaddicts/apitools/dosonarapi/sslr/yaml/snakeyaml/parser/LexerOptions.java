@@ -0,0 +1,140 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import java.util.concurrent.Executor;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * How the scanners read a document: the schema resolving the type of the plain scalars, whether the strings of the
+ * repeated scalars are shared, whether the comments are kept, whether the offsets of the tokens are recorded, and the
+ * executor lexing the chunks of the large documents. Options are immutable and can be shared by any number of
+ * scanners; they are built once, usually by {@code YamlParser.Builder}, and handed down to the {@link Lexer} and the
+ * {@link YamlScanner}.
+ */
+public final class LexerOptions {
+  /**
+   * The options of the scanners created without options: the YAML 1.1 schema, no shared strings, the comments kept,
+   * no offsets and no parallel lexing.
+   */
+  public static final LexerOptions DEFAULT = builder().build();
+
+  private final ScalarSchema schema;
+  private final StringInterning interning;
+  private final boolean keepComments;
+  private final boolean recordOffsets;
+  private final Executor lexingExecutor;
+
+  private LexerOptions(Builder builder) {
+    this.schema = builder.schema;
+    this.interning = builder.interning;
+    this.keepComments = builder.keepComments;
+    this.recordOffsets = builder.recordOffsets;
+    this.lexingExecutor = builder.lexingExecutor;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public ScalarSchema getScalarSchema() {
+    return schema;
+  }
+
+  public StringInterning getStringInterning() {
+    return interning;
+  }
+
+  public boolean keepsComments() {
+    return keepComments;
+  }
+
+  public boolean recordsOffsets() {
+    return recordOffsets;
+  }
+
+  /**
+   * @return the executor lexing the chunks of the large YAML documents, or {@code null} if they are lexed on the
+   * calling thread
+   */
+  @CheckForNull
+  public Executor getLexingExecutor() {
+    return lexingExecutor;
+  }
+
+  public static final class Builder {
+    private ScalarSchema schema = ScalarSchema.YAML_1_1;
+    private StringInterning interning = StringInterning.NONE;
+    private boolean keepComments = true;
+    private boolean recordOffsets = false;
+    private Executor lexingExecutor;
+
+    private Builder() {
+      // use LexerOptions.builder()
+    }
+
+    /**
+     * Resolves the type of the plain scalars, and of the JSON literals, with a schema.
+     */
+    public Builder withScalarSchema(ScalarSchema schema) {
+      this.schema = schema;
+      return this;
+    }
+
+    /**
+     * Shares the strings of the scalars that the documents repeat between their tokens.
+     */
+    public Builder withStringInterning(StringInterning interning) {
+      this.interning = interning;
+      return this;
+    }
+
+    /**
+     * Whether the comments are kept in the trivia of the tokens, or skipped without building a token.
+     */
+    public Builder withComments(boolean keepComments) {
+      this.keepComments = keepComments;
+      return this;
+    }
+
+    /**
+     * Whether the character offsets of the tokens are recorded, for the source ranges of the nodes: the parsers then
+     * give the scanners the {@link TokenOffsets} of each document.
+     */
+    public Builder withOffsets(boolean recordOffsets) {
+      this.recordOffsets = recordOffsets;
+      return this;
+    }
+
+    /**
+     * Lexes the large block mappings in chunks, on the threads of an executor, or on the calling thread if
+     * {@code null}.
+     */
+    public Builder withParallelLexing(@Nullable Executor lexingExecutor) {
+      this.lexingExecutor = lexingExecutor;
+      return this;
+    }
+
+    public LexerOptions build() {
+      return new LexerOptions(this);
+    }
+  }
+}
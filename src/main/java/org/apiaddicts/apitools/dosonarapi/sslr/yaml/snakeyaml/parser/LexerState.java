@@ -19,21 +19,25 @@
  */
 package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
 
-import com.sonar.sslr.impl.Lexer;
 import com.sonar.sslr.impl.LexerException;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
 import org.sonar.sslr.channel.CodeReader;
 
 public class LexerState {
   private int flowLevel = 0;
   private boolean allowSimpleKey = true;
   private int indent = -1;
-  private Deque<Integer> indents;
-  private Map<Integer, SimpleKey> possibleSimpleKeys;
+  // the past indentation levels, the last one on top
+  private int[] indents = new int[16];
+  private int indentCount = 0;
+  /*
+   * Keep track of possible simple keys. There can be no more that one possible
+   * simple key for each flow level, so they are kept in slots indexed by
+   * `flow_level` (see slot(int)) and reused from one key to the next. A simple
+   * key may start with ALIAS, ANCHOR, TAG, SCALAR(flow), '[', or '{' tokens.
+   */
+  private SimpleKey[] possibleSimpleKeys = new SimpleKey[8];
+  private int possibleSimpleKeyCount = 0;
 
   /**
    * The number of unclosed '{' and '['. `flow_level == 0` means block context.
@@ -64,7 +68,7 @@ public class LexerState {
    * @return the new indentation level
    */
   public int popIndent() {
-    indent = indents.pop();
+    indent = indents[--indentCount];
     return indent;
   }
 
@@ -99,21 +103,39 @@ public class LexerState {
     this.allowSimpleKey = allowSimpleKey;
   }
 
-  /*
-   * Keep track of possible simple keys. This is a dictionary. The key is
-   * `flow_level`; there can be no more that one possible simple key for each
-   * level. The value is a SimpleKey record: (token_number, required, index,
-   * line, column, mark) A simple key may start with ALIAS, ANCHOR, TAG,
-   * SCALAR(flow), '[', or '{' tokens.
+  /**
+   * Takes the possible simple key of the current flow level out of its slot. The returned key is only valid until
+   * the next simple key is saved.
+   * @return the key, or {@code null} if no simple key is possible at the current flow level
    */
-  public Map<Integer, SimpleKey> possibleSimpleKeys() {
-    return possibleSimpleKeys;
+  SimpleKey takePossibleSimpleKey() {
+    int slot = slot(flowLevel);
+    if (slot >= possibleSimpleKeys.length) {
+      return null;
+    }
+    SimpleKey key = possibleSimpleKeys[slot];
+    if (key == null || !key.isPossible()) {
+      return null;
+    }
+    key.setPossible(false);
+    --possibleSimpleKeyCount;
+    return key;
   }
 
-  public LexerState() {
-    this.indents = new ArrayDeque<>();
-    // The order in possibleSimpleKeys is kept for nextPossibleSimpleKey()
-    this.possibleSimpleKeys = new LinkedHashMap<>();
+  /**
+   * The number of the first token that may still start a simple key. The tokens from this one on cannot be read yet,
+   * since a KEY may have to be inserted in front of them.
+   * @return the token number, or {@link Integer#MAX_VALUE} if no simple key is possible
+   */
+  int nextPossibleSimpleKey() {
+    int tokenNumber = Integer.MAX_VALUE;
+    for (int slot = 0; possibleSimpleKeyCount > 0 && slot < possibleSimpleKeys.length; ++slot) {
+      SimpleKey key = possibleSimpleKeys[slot];
+      if (key != null && key.isPossible() && key.getTokenNumber() < tokenNumber) {
+        tokenNumber = key.getTokenNumber();
+      }
+    }
+    return tokenNumber;
   }
 
   /**
@@ -121,7 +143,10 @@ public class LexerState {
    */
   boolean addIndent(int column) {
     if (this.indent < column) {
-      this.indents.push(this.indent);
+      if (indentCount == indents.length) {
+        indents = Arrays.copyOf(indents, indentCount * 2);
+      }
+      indents[indentCount++] = this.indent;
       this.indent = column;
       return true;
     }
@@ -133,7 +158,7 @@ public class LexerState {
    * its position. This function is called for ALIAS, ANCHOR, TAG,
    * SCALAR(flow), '[', and '{'.
    */
-  void savePossibleSimpleKey(CodeReader reader, Lexer output) {
+  void savePossibleSimpleKey(CodeReader reader, YamlScanner output) {
     // The next token may start a simple key. We check if it's possible
     // and save its position. This function is called for
     // ALIAS, ANCHOR, TAG, SCALAR(flow), '[', and '{'.
@@ -155,18 +180,39 @@ public class LexerState {
     // position.
     if (this.allowSimpleKey) {
       removePossibleSimpleKey(reader);
-      int tokenNumber = output.getTokens().size();
-      SimpleKey key = new SimpleKey(tokenNumber, required,
-        reader.getLinePosition(), reader.getColumnPosition());
-      this.possibleSimpleKeys.put(this.flowLevel, key);
+      int tokenNumber = output.getTokenCount();
+      int slot = slot(this.flowLevel);
+      if (slot >= possibleSimpleKeys.length) {
+        possibleSimpleKeys = Arrays.copyOf(possibleSimpleKeys, Math.max(slot + 1, possibleSimpleKeys.length * 2));
+      }
+      SimpleKey key = possibleSimpleKeys[slot];
+      if (key == null) {
+        key = new SimpleKey();
+        possibleSimpleKeys[slot] = key;
+      }
+      key.set(tokenNumber, required, reader.getLinePosition(), reader.getColumnPosition());
+      ++possibleSimpleKeyCount;
+    }
+  }
+
+  /**
+   * @return {@code true} if a possible simple key must still be followed by a {@code ':'}
+   */
+  boolean hasRequiredSimpleKey() {
+    for (int slot = 0; possibleSimpleKeyCount > 0 && slot < possibleSimpleKeys.length; ++slot) {
+      SimpleKey key = possibleSimpleKeys[slot];
+      if (key != null && key.isPossible() && key.isRequired()) {
+        return true;
+      }
     }
+    return false;
   }
 
   /**
    * Remove the saved possible key position at the current flow level.
    */
   void removePossibleSimpleKey(CodeReader code) {
-    SimpleKey key = possibleSimpleKeys.remove(flowLevel);
+    SimpleKey key = takePossibleSimpleKey();
     if (key != null && key.isRequired()) {
       throw new YamlLexerException("while scanning a simple key", null,
         "could not find expected ':'", code.getCursor());
@@ -184,25 +230,31 @@ public class LexerState {
    * </pre>
    */
   void stalePossibleSimpleKeys(CodeReader code) {
-    if (!possibleSimpleKeys.isEmpty()) {
-      for (Iterator<SimpleKey> iterator = possibleSimpleKeys.values().iterator(); iterator
-        .hasNext();) {
-        SimpleKey key = iterator.next();
-        if (key.getLine() != code.getLinePosition()) {
-          // TODO - we should check that we have not moved more than 1024 characters forward
-          // If the key is not on the same line as the current
-          // position OR the difference in column between the token
-          // start and the current position is more than the maximum
-          // simple key length, then this cannot be a simple key.
-          if (key.isRequired()) {
-            // If the key was required, this implies an error
-            // condition.
-            throw new YamlLexerException("While scanning a simple key", code.getCursor(),
-              "could not find expected ':'", code.getCursor());
-          }
-          iterator.remove();
+    for (int slot = 0; possibleSimpleKeyCount > 0 && slot < possibleSimpleKeys.length; ++slot) {
+      SimpleKey key = possibleSimpleKeys[slot];
+      if (key != null && key.isPossible() && key.getLine() != code.getLinePosition()) {
+        // TODO - we should check that we have not moved more than 1024 characters forward
+        // If the key is not on the same line as the current
+        // position OR the difference in column between the token
+        // start and the current position is more than the maximum
+        // simple key length, then this cannot be a simple key.
+        if (key.isRequired()) {
+          // If the key was required, this implies an error
+          // condition.
+          throw new YamlLexerException("While scanning a simple key", code.getCursor(),
+            "could not find expected ':'", code.getCursor());
         }
+        key.setPossible(false);
+        --possibleSimpleKeyCount;
       }
     }
   }
+
+  /**
+   * The slot of the simple key of a flow level. A stray ']' or '}' takes the flow level below zero, so the negative
+   * levels are interleaved with the positive ones.
+   */
+  private static int slot(int flowLevel) {
+    return flowLevel >= 0 ? 2 * flowLevel : -2 * flowLevel - 1;
+  }
 }
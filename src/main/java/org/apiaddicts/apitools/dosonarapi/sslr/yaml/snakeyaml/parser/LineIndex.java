@@ -0,0 +1,109 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import java.util.Arrays;
+
+/**
+ * The offsets of the lines of a document, converting character offsets to the lines and columns of the tokens. Lines
+ * end as they end for the scanners: at a line feed, or at a carriage return that is not followed by a line feed.
+ * Lines are numbered from 1 and columns from 0.
+ */
+public final class LineIndex {
+  private final int[] lineStarts;
+  private final int lineCount;
+  private final int length;
+
+  private LineIndex(int[] lineStarts, int lineCount, int length) {
+    this.lineStarts = lineStarts;
+    this.lineCount = lineCount;
+    this.length = length;
+  }
+
+  /**
+   * Finds the lines of a document.
+   * @param text the document
+   * @return the index of the lines of the document
+   */
+  public static LineIndex of(CharSequence text) {
+    int[] starts = new int[64];
+    int count = 1;
+    int length = text.length();
+    for (int i = 0; i < length; ++i) {
+      char c = text.charAt(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == length || text.charAt(i + 1) != '\n'))) {
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, 2 * count);
+        }
+        starts[count++] = i + 1;
+      }
+    }
+    return new LineIndex(starts, count, length);
+  }
+
+  /**
+   * @return the number of lines of the document, at least 1
+   */
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * @param line a line number
+   * @return the offset of the first character of the line
+   */
+  public int getLineStart(int line) {
+    if (line < 1 || line > lineCount) {
+      throw new IndexOutOfBoundsException("Line: " + line + ", Lines: " + lineCount);
+    }
+    return lineStarts[line - 1];
+  }
+
+  /**
+   * @param line a line number
+   * @param column a column of the line
+   * @return the offset of the character at the given line and column
+   */
+  public int getOffset(int line, int column) {
+    return getLineStart(line) + column;
+  }
+
+  /**
+   * Finds the line of an offset, in O(log n).
+   * @param offset an offset in the document, or its length
+   * @return the number of the line holding the character at the offset
+   */
+  public int getLine(int offset) {
+    if (offset < 0 || offset > length) {
+      throw new IndexOutOfBoundsException("Offset: " + offset + ", Length: " + length);
+    }
+    int line = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+    // the line starting at the offset, or the one before the insertion point
+    return line >= 0 ? line + 1 : -line - 1;
+  }
+
+  /**
+   * @param offset an offset in the document, or its length
+   * @return the column of the character at the offset
+   */
+  public int getColumn(int offset) {
+    return offset - lineStarts[getLine(offset) - 1];
+  }
+}
@@ -22,43 +22,41 @@ package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
 import com.google.common.annotations.VisibleForTesting;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.TokenType;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.sonar.sslr.channel.Channel;
 import org.sonar.sslr.channel.CodeBuffer;
 import org.sonar.sslr.channel.CodeReader;
 
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.BLANK;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.BREAK;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.CR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.FLOW_INDICATOR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.MAPPING_INDICATOR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.NULL_BL_T_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.NULL_OR_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.QUOTE;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.SPECIAL;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.is;
 import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.LineBreakChannel.scanLineBreak;
-import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Lexer.NULL_BL_T_LINEBR_S;
 
-class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
-
-  private static final String SPECIAL = NULL_BL_T_LINEBR_S + "-?:,[]{}#&*!|>\'\"%@`";
-  private static final Pattern PATTERN_FLOAT = Pattern.compile("[-+]?([0-9][0-9_]*)?\\.[0-9]*([eE][-+][0-9]+)?");
-
-  /**
-   * A regular expression matching characters which are not in the hexadecimal
-   * set (0-9, A-F, a-f).
-   */
-  private static final Pattern NOT_HEXA = Pattern.compile("[^0-9A-Fa-f]");
+class ScalarChannel extends Channel<YamlScanner> {
 
   /**
    * A mapping from an escaped character in the input stream to the character
-   * that they should be replaced with.
+   * that they should be replaced with, indexed by the escaped character.
    *
    * YAML defines several common and a few uncommon escape sequences.
    *
    * @see <a href="http://www.yaml.org/spec/current.html#id2517668">4.1.6.
    *      Escape Sequences</a>
    */
-  private static final Map<Character, String> ESCAPE_REPLACEMENTS = new HashMap<>();
+  private static final char[] ESCAPE_REPLACEMENTS = new char[128];
 
   /**
    * A mapping from a character to a number of bytes to read-ahead for that
-   * escape sequence. These escape sequences are used to handle unicode
-   * escaping in the following formats, where H is a hexadecimal character:
+   * escape sequence, indexed by the character. These escape sequences are used
+   * to handle unicode escaping in the following formats, where H is a
+   * hexadecimal character:
    *
    * <pre>
    * &#92;xHH         : escaped 8-bit Unicode character
@@ -69,60 +67,67 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
    * @see <a href="http://yaml.org/spec/1.1/current.html#id872840">5.6. Escape
    *      Sequences</a>
    */
-  private static final Map<Character, Integer> ESCAPE_CODES = new HashMap<>();
+  private static final int[] ESCAPE_CODES = new int[128];
   private static final String WHILE_SCANNING_BLOCK_SCALAR = "while scanning a block scalar";
+  private static final String WHILE_SCANNING_A_QUOTED_SCALAR = "while scanning a quoted scalar";
 
   static {
     // ASCII null
-    ESCAPE_REPLACEMENTS.put('0', "\0");
+    ESCAPE_REPLACEMENTS['0'] = '\0';
     // ASCII bell
-    ESCAPE_REPLACEMENTS.put('a', "\u0007");
+    ESCAPE_REPLACEMENTS['a'] = '\u0007';
     // ASCII backspace
-    ESCAPE_REPLACEMENTS.put('b', "\u0008");
+    ESCAPE_REPLACEMENTS['b'] = '\u0008';
     // ASCII horizontal tab
-    ESCAPE_REPLACEMENTS.put('t', "\u0009");
+    ESCAPE_REPLACEMENTS['t'] = '\u0009';
     // ASCII newline (line feed; &#92;n maps to 0x0A)
-    ESCAPE_REPLACEMENTS.put('n', "\n");
+    ESCAPE_REPLACEMENTS['n'] = '\n';
     // ASCII vertical tab
-    ESCAPE_REPLACEMENTS.put('v', "\u000B");
+    ESCAPE_REPLACEMENTS['v'] = '\u000B';
     // ASCII form-feed
-    ESCAPE_REPLACEMENTS.put('f', "\u000C");
+    ESCAPE_REPLACEMENTS['f'] = '\u000C';
     // carriage-return (&#92;r maps to 0x0D)
-    ESCAPE_REPLACEMENTS.put('r', "\r");
+    ESCAPE_REPLACEMENTS['r'] = '\r';
     // ASCII escape character (Esc)
-    ESCAPE_REPLACEMENTS.put('e', "\u001B");
+    ESCAPE_REPLACEMENTS['e'] = '\u001B';
     // ASCII space
-    ESCAPE_REPLACEMENTS.put(' ', "\u0020");
+    ESCAPE_REPLACEMENTS[' '] = '\u0020';
     // ASCII double-quote
-    ESCAPE_REPLACEMENTS.put('"', "\"");
+    ESCAPE_REPLACEMENTS['"'] = '"';
     // ASCII backslash
-    ESCAPE_REPLACEMENTS.put('\\', "\\");
+    ESCAPE_REPLACEMENTS['\\'] = '\\';
     // Unicode next line
-    ESCAPE_REPLACEMENTS.put('N', "\u0085");
+    ESCAPE_REPLACEMENTS['N'] = '\u0085';
     // Unicode non-breaking-space
-    ESCAPE_REPLACEMENTS.put('_', "\u00A0");
+    ESCAPE_REPLACEMENTS['_'] = '\u00A0';
     // Unicode line-separator
-    ESCAPE_REPLACEMENTS.put('L', "\u2028");
+    ESCAPE_REPLACEMENTS['L'] = '\u2028';
     // Unicode paragraph separator
-    ESCAPE_REPLACEMENTS.put('P', "\u2029");
+    ESCAPE_REPLACEMENTS['P'] = '\u2029';
 
     // 8-bit Unicode
-    ESCAPE_CODES.put('x', 2);
+    ESCAPE_CODES['x'] = 2;
     // 16-bit Unicode
-    ESCAPE_CODES.put('u', 4);
+    ESCAPE_CODES['u'] = 4;
     // 32-bit Unicode (Supplementary characters are supported)
-    ESCAPE_CODES.put('U', 8);
+    ESCAPE_CODES['U'] = 8;
   }
 
   private final LexerState state;
+  private final ScalarSchema schema;
+  private final SpanScanner spans;
   private final Token.Builder tokenBuilder = Token.builder();
+  private final CommentChannel trailingComment;
 
-  ScalarChannel(LexerState state) {
+  ScalarChannel(LexerState state, ScalarSchema schema, SpanScanner spans, boolean keepComments) {
     this.state = state;
+    this.schema = schema;
+    this.spans = spans;
+    this.trailingComment = new CommentChannel(true, keepComments);
   }
 
   @Override
-  public boolean consume(CodeReader code, com.sonar.sslr.impl.Lexer output) {
+  public boolean consume(CodeReader code, YamlScanner output) {
     tokenBuilder.setURI(output.getURI());
     char c = code.charAt(0);
     if (state.flowLevel() == 0 && (c == '|' || c == '>')) {
@@ -144,7 +149,7 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
    *
    * @see http://www.yaml.org/spec/1.1/#id863975
    */
-  private void fetchFlowScalar(char style, CodeReader code, com.sonar.sslr.impl.Lexer output) {
+  private void fetchFlowScalar(char style, CodeReader code, YamlScanner output) {
     // A flow scalar could be a simple key.
     state.savePossibleSimpleKey(code, output);
 
@@ -156,47 +161,74 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     // The style will be either single- or double-quoted; we determine this
     // by the first character in the entry (supplied)
     isDoubleQuote = style == '"';
-    StringBuilder chunks = new StringBuilder();
-    StringBuilder originalChunks = new StringBuilder();
     CodeBuffer.Cursor startMark = code.getCursor().clone();
-    char quote = code.charAt(0);
-    code.pop(originalChunks);
-    chunks.append(scanFlowScalarNonSpaces(code, isDoubleQuote, startMark, originalChunks));
-    while (code.charAt(0) != quote) {
-      chunks.append(scanFlowScalarSpaces(code, startMark, originalChunks));
-      chunks.append(scanFlowScalarNonSpaces(code, isDoubleQuote, startMark, originalChunks));
+    int start = spans.offset(code);
+    String value;
+    String originalValue;
+    int length = scanQuotedLine(code, style);
+    if (length != -1) {
+      // Neither escapes nor line breaks: the value is the text between the quotes.
+      value = spans.shared(code, 1, length - 2);
+      originalValue = spans.forwardShared(code, length);
+    } else {
+      StringBuilder chunks = new StringBuilder();
+      StringBuilder originalChunks = new StringBuilder();
+      char quote = code.charAt(0);
+      code.pop(originalChunks);
+      scanFlowScalarNonSpaces(code, isDoubleQuote, startMark, chunks, originalChunks);
+      while (code.charAt(0) != quote) {
+        scanFlowScalarSpaces(code, startMark, chunks, originalChunks);
+        scanFlowScalarNonSpaces(code, isDoubleQuote, startMark, chunks, originalChunks);
+      }
+      code.pop(originalChunks);
+      value = chunks.toString();
+      originalValue = originalChunks.toString();
     }
-    code.pop(originalChunks);
     Token token = tokenBuilder
       .setType(Tokens.STRING)
-      .setValueAndOriginalValue(chunks.toString(), originalChunks.toString())
+      .setValueAndOriginalValue(value, originalValue)
       .setLine(startMark.getLine())
       .setColumn(startMark.getColumn())
       .build();
-    output.addToken(token);
+    output.addToken(token, start, spans.offset(code));
+  }
+
+  /**
+   * Looks ahead for the closing quote of a scalar without escapes, on the line of its opening quote.
+   * @return the length of the scalar with its quotes, or {@code -1} if the scalar must be scanned by parts
+   */
+  private static int scanQuotedLine(CodeReader code, char quote) {
+    int i = 1;
+    while (true) {
+      char ch = code.charAt(i);
+      if (ch == quote) {
+        // two single quotes are an escaped one
+        return quote == '\'' && code.charAt(i + 1) == '\'' ? -1 : i + 1;
+      } else if ((ch == '\\' && quote == '"') || is(ch, NULL_OR_LINEBR)) {
+        return -1;
+      }
+      ++i;
+    }
   }
 
   /**
    * Scan some number of flow-scalar non-space characters.
    */
-  private String scanFlowScalarNonSpaces(CodeReader reader, boolean doubleQuoted, CodeReader.Cursor startMark, StringBuilder originalChunks) {
+  private void scanFlowScalarNonSpaces(CodeReader reader, boolean doubleQuoted, CodeReader.Cursor startMark, StringBuilder chunks,
+    StringBuilder originalChunks) {
     // See the specification for details.
-    StringBuilder chunks = new StringBuilder();
     while (true) {
       // Scan through any number of characters which are not: NUL, blank,
       // tabs, line breaks, single-quotes, double-quotes, or backslashes.
-      String forbidden = NULL_BL_T_LINEBR_S + "\'\"\\";
-      StringBuilder chunk = new StringBuilder();
-      while (forbidden.indexOf(reader.charAt(0)) == -1) {
-        reader.pop(chunk);
+      int length = spans.spanEnd(reader, 0, NULL_BL_T_LINEBR | QUOTE);
+      if (length != 0) {
+        spans.forward(reader, length, chunks, originalChunks);
       }
-      chunks.append(chunk.toString());
-      originalChunks.append(chunk.toString());
       // Depending on our quoting-type, the characters ', " and \ have
       // differing meanings.
       char ch = reader.charAt(0);
       if (isEscapedSingleQuote(reader, doubleQuoted, ch)) {
-        chunks.append("'");
+        chunks.append('\'');
         reader.pop(originalChunks);
         reader.pop(originalChunks);
       } else if (isRegularQuote(doubleQuoted, ch)) {
@@ -204,15 +236,15 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
         reader.pop(originalChunks);
       } else if (isEscapeChar(doubleQuoted, ch)) {
         reader.pop(originalChunks);
-        chunks.append(scanFlowScalarEscapeChar(reader, startMark, originalChunks));
+        scanFlowScalarEscapeChar(reader, startMark, chunks, originalChunks);
       } else {
-        return chunks.toString();
+        return;
       }
     }
   }
 
   private static boolean isRegularQuote(boolean doubleQuoted, char ch) {
-    return (doubleQuoted && ch == '\'') || (!doubleQuoted && "\"\\".indexOf(ch) != -1);
+    return (doubleQuoted && ch == '\'') || (!doubleQuoted && (ch == '"' || ch == '\\'));
   }
 
   private static boolean isEscapeChar(boolean doubleQuoted, char ch) {
@@ -223,34 +255,49 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     return !doubleQuoted && ch == '\'' && reader.charAt(1) == '\'';
   }
 
-  private String scanFlowScalarEscapeChar(CodeReader reader, CodeBuffer.Cursor startMark, StringBuilder originalChunks) {
+  private static void scanFlowScalarEscapeChar(CodeReader reader, CodeBuffer.Cursor startMark, StringBuilder chunks,
+    StringBuilder originalChunks) {
     char ch = reader.charAt(0);
-    int length;
-    if (ESCAPE_REPLACEMENTS.containsKey(ch)) {
+    char replacement = ch < ESCAPE_REPLACEMENTS.length ? ESCAPE_REPLACEMENTS[ch] : 0;
+    int length = ch < ESCAPE_CODES.length ? ESCAPE_CODES[ch] : 0;
+    // '\0' is replaced by the NUL character
+    if (replacement != 0 || ch == '0') {
       // The character is one of the single-replacement
       // types; these are replaced with a literal character
       // from the mapping.
       reader.pop(originalChunks);
-      return ESCAPE_REPLACEMENTS.get(ch);
-    } else if (ESCAPE_CODES.containsKey(ch)) {
+      chunks.append(replacement);
+    } else if (length != 0) {
       // The character is a multi-digit escape sequence, with
       // length defined by the value in the ESCAPE_CODES map.
-      length = ESCAPE_CODES.get(ch);
       reader.pop(originalChunks);
-      String hex = new String(reader.peek(length));
-      if (NOT_HEXA.matcher(hex).find()) {
-        throw new YamlLexerException("while scanning a double-quoted scalar",
-          startMark, "expected escape sequence of " + length
-            + " hexadecimal numbers, but found: " + hex,
-          reader.getCursor());
+      int decimal = 0;
+      for (int i = 0; i < length; ++i) {
+        int digit = hexDigit(reader.charAt(i));
+        if (digit == -1) {
+          throw new YamlLexerException("while scanning a double-quoted scalar",
+            startMark, "expected escape sequence of " + length
+              + " hexadecimal numbers, but found: " + new String(reader.peek(length)),
+            reader.getCursor());
+        }
+        // no longer accumulated beyond the last code point, so that the 8 digits of a \U escape cannot overflow
+        decimal = decimal <= Character.MAX_CODE_POINT ? decimal * 16 + digit : decimal;
+      }
+      if (decimal > Character.MAX_CODE_POINT) {
+        throw new YamlLexerException("while scanning a double-quoted scalar", startMark,
+          "found escape sequence of a code point beyond 10FFFF", reader.getCursor());
+      }
+      if (Character.isBmpCodePoint(decimal)) {
+        chunks.append((char) decimal);
+      } else {
+        chunks.append(Character.toChars(decimal));
+      }
+      for (int i = 0; i < length; ++i) {
+        reader.pop(originalChunks);
       }
-      int decimal = Integer.parseInt(hex, 16);
-      String unicode = new String(Character.toChars(decimal));
-      originalChunks.append(forward(reader, length));
-      return unicode;
     } else if (scanLineBreak(reader).length() != 0) {
       originalChunks.append('\n');
-      return scanFlowScalarBreaks(reader, startMark, originalChunks);
+      scanFlowScalarBreaks(reader, startMark, chunks, originalChunks);
     } else {
       throw new YamlLexerException("while scanning a double-quoted scalar", startMark,
         "found unknown escape character " + ch + "(" + ((int) ch) + ")",
@@ -258,54 +305,60 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     }
   }
 
-  private String scanFlowScalarSpaces(CodeReader reader, CodeReader.Cursor startMark, StringBuilder originalChunks) {
+  private static int hexDigit(char ch) {
+    if (ch >= '0' && ch <= '9') {
+      return ch - '0';
+    } else if (ch >= 'a' && ch <= 'f') {
+      return ch - 'a' + 10;
+    } else if (ch >= 'A' && ch <= 'F') {
+      return ch - 'A' + 10;
+    }
+    return -1;
+  }
+
+  private static void scanFlowScalarSpaces(CodeReader reader, CodeReader.Cursor startMark, StringBuilder chunks,
+    StringBuilder originalChunks) {
     // See the specification for details.
-    StringBuilder chunks = new StringBuilder();
     // Scan through any number of whitespace (space, tab) characters,
     // consuming them.
-    StringBuilder b = new StringBuilder();
-    while (" \t".indexOf(reader.charAt(0)) != -1) {
-      reader.pop(b);
+    int start = originalChunks.length();
+    while (is(reader.charAt(0), BLANK)) {
+      reader.pop(originalChunks);
     }
-    String whitespaces = b.toString();
-    originalChunks.append(whitespaces);
-    char ch = reader.charAt(0);
-    if (ch == '\0') {
+    int end = originalChunks.length();
+    if (isEndOfStream(reader)) {
       // A flow scalar cannot end with an end-of-stream
-      throw new YamlLexerException("while scanning a quoted scalar", startMark,
+      throw new YamlLexerException(WHILE_SCANNING_A_QUOTED_SCALAR, startMark,
         "found unexpected end of stream", reader.getCursor());
     }
     // If we encounter a line break, scan it into our assembled string...
     String lineBreak = scanLineBreak(reader);
     originalChunks.append(lineBreak);
     if (lineBreak.length() != 0) {
-      String breaks = scanFlowScalarBreaks(reader, startMark, originalChunks);
+      int breaks = chunks.length();
+      scanFlowScalarBreaks(reader, startMark, chunks, originalChunks);
       if (!"\n".equals(lineBreak)) {
-        chunks.append(lineBreak);
-      } else if (breaks.length() == 0) {
-        chunks.append(" ");
+        chunks.insert(breaks, lineBreak);
+      } else if (chunks.length() == breaks) {
+        chunks.append(' ');
       }
-      chunks.append(breaks);
     } else {
-      chunks.append(whitespaces);
+      chunks.append(originalChunks, start, end);
     }
-    return chunks.toString();
   }
 
-  private String scanFlowScalarBreaks(CodeReader reader, CodeReader.Cursor startMark, StringBuilder originalChunks) {
+  private static void scanFlowScalarBreaks(CodeReader reader, CodeReader.Cursor startMark, StringBuilder chunks,
+    StringBuilder originalChunks) {
     // See the specification for details.
-    StringBuilder chunks = new StringBuilder();
     while (true) {
       // Instead of checking indentation, we check for document
       // separators.
-      String prefix = new String(reader.peek(3));
-      if (("---".equals(prefix) || "...".equals(prefix))
-        && NULL_BL_T_LINEBR_S.indexOf(reader.charAt(3)) != -1) {
-        throw new YamlLexerException("while scanning a quoted scalar", startMark,
+      if (isDocumentSeparator(reader)) {
+        throw new YamlLexerException(WHILE_SCANNING_A_QUOTED_SCALAR, startMark,
           "found unexpected document separator", reader.getCursor());
       }
       // Scan past any number of spaces and tabs, ignoring them
-      while (" \t".indexOf(reader.charAt(0)) != -1) {
+      while (is(reader.charAt(0), BLANK)) {
         reader.pop(originalChunks);
       }
       // If we stopped at a line break, add that; otherwise, return the
@@ -315,23 +368,21 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
         chunks.append(lineBreak);
         originalChunks.append(lineBreak);
       } else {
-        return chunks.toString();
+        return;
       }
     }
   }
 
-  private static String forward(CodeReader reader, int count) {
-    StringBuilder b = new StringBuilder();
-    for (int i = 0; i < count; ++i) {
-      reader.pop(b);
-    }
-    return b.toString();
+  private static boolean isDocumentSeparator(CodeReader reader) {
+    char ch = reader.charAt(0);
+    return (ch == '-' || ch == '.') && reader.charAt(1) == ch && reader.charAt(2) == ch
+      && is(reader.charAt(3), NULL_BL_T_LINEBR);
   }
 
   /**
    * Fetch a plain scalar.
    */
-  private void fetchPlain(CodeReader code, com.sonar.sslr.impl.Lexer output) {
+  private void fetchPlain(CodeReader code, YamlScanner output) {
     // A plain scalar could be a simple key.
     state.savePossibleSimpleKey(code, output);
 
@@ -341,64 +392,137 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     state.allowSimpleKey(false);
 
     // Scan and add SCALAR. May change `allow_simple_key`.
-    StringBuilder chunks = new StringBuilder();
-    StringBuilder originalChunks = new StringBuilder();
     CodeBuffer.Cursor startMark = code.getCursor().clone();
-    int indent = state.indent() + 1;
-    String[] spaces = {"", ""};
-    while (true) {
-      // A comment indicates the end of the scalar.
-      if (code.charAt(0) == '#') {
-        break;
-      }
-      int length = skipPlainChars(code);
-      // It's not clear what we should do with ':' in the flow context.
-      if (state.flowLevel() != 0 && hasUnexpectedColonAt(code, length)) {
-        originalChunks.append(forward(code, length));
-        throw new YamlLexerException("while scanning a plain scalar", startMark,
-          "found unexpected ':'", code.getCursor());
-      }
-      if (length == 0) {
-        break;
+    int start = spans.offset(code);
+    int end = start;
+    String value;
+    String originalValue;
+    int length = scanPlainLine(code, startMark);
+    int blanks = length;
+    while (is(code.charAt(blanks), BLANK)) {
+      ++blanks;
+    }
+    if (length == 0 || !is(code.charAt(blanks), BREAK | CR)) {
+      // A single line scalar: its value is its source text, and the blanks after it are skipped.
+      value = spans.forwardShared(code, length);
+      originalValue = value;
+      end += length;
+      for (int i = length; i < blanks; ++i) {
+        code.pop();
       }
-      state.allowSimpleKey(false);
-      chunks.append(spaces[0]);
-      originalChunks.append(spaces[1]);
-      String chunk = forward(code, length);
+    } else {
+      // The scalar may go on on the next lines, where its line breaks are folded.
+      StringBuilder chunks = new StringBuilder();
+      StringBuilder originalChunks = new StringBuilder();
+      String chunk = spans.forwardShared(code, length);
       chunks.append(chunk);
       originalChunks.append(chunk);
-      spaces = scanPlainSpaces(code);
-      if (spaces[0].length() == 0 || code.charAt(0) == '#'
-        || (state.flowLevel() == 0 && code.getColumnPosition() < indent)) {
-        break;
+      end = scanPlainLines(code, startMark, chunks, originalChunks);
+      if (chunks.length() == length) {
+        // the scalar ends on its first line after all
+        value = chunk;
+        originalValue = chunk;
+      } else {
+        value = chunks.toString();
+        originalValue = originalChunks.toString();
       }
     }
-    String value = chunks.toString();
-    TokenType type = decodePlainScalar(value);
+    TokenType type = schema.resolve(value);
     Token token = tokenBuilder
       .setType(type)
-      .setValueAndOriginalValue(value, originalChunks.toString())
+      .setValueAndOriginalValue(value, originalValue)
       .setLine(startMark.getLine())
       .setColumn(startMark.getColumn())
       .build();
-    output.addToken(token);
+    output.addToken(token, start, end);
+  }
+
+  /**
+   * Looks ahead for the chunks of a plain scalar on its first line, and the blanks between them. The scalar ends on
+   * this line unless it is followed by a line break.
+   * @return the length of the chunks and blanks, without the blanks after the last chunk
+   */
+  private int scanPlainLine(CodeReader code, CodeBuffer.Cursor startMark) {
+    int length = 0;
+    int end = 0;
+    // A comment indicates the end of the scalar.
+    while (code.charAt(end) != '#') {
+      int chunkEnd = skipPlainChars(code, end);
+      // It's not clear what we should do with ':' in the flow context.
+      if (state.flowLevel() != 0 && hasUnexpectedColonAt(code, chunkEnd)) {
+        spans.forward(code, chunkEnd);
+        throw new YamlLexerException("while scanning a plain scalar", startMark,
+          "found unexpected ':'", code.getCursor());
+      }
+      if (chunkEnd == end) {
+        break;
+      }
+      length = chunkEnd;
+      end = chunkEnd;
+      while (is(code.charAt(end), BLANK)) {
+        ++end;
+      }
+      if (end == chunkEnd) {
+        break;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Scans the next lines of a multi-line plain scalar, after the chunks of its first line.
+   * @return the offset of the end of the last chunk of the scalar
+   */
+  private int scanPlainLines(CodeReader code, CodeBuffer.Cursor startMark, StringBuilder chunks, StringBuilder originalChunks) {
+    int indent = state.indent() + 1;
+    int end = spans.offset(code);
+    // the spaces after the last chunk are not part of the scalar
+    int length = chunks.length();
+    int originalLength = originalChunks.length();
+    boolean spaces = scanPlainSpaces(code, chunks, originalChunks);
+    while (spaces && code.charAt(0) != '#'
+      && (state.flowLevel() != 0 || code.getColumnPosition() >= indent)) {
+      int chunkEnd = skipPlainChars(code, 0);
+      // It's not clear what we should do with ':' in the flow context.
+      if (state.flowLevel() != 0 && hasUnexpectedColonAt(code, chunkEnd)) {
+        spans.forward(code, chunkEnd);
+        throw new YamlLexerException("while scanning a plain scalar", startMark,
+          "found unexpected ':'", code.getCursor());
+      }
+      if (chunkEnd == 0) {
+        break;
+      }
+      state.allowSimpleKey(false);
+      spans.forward(code, chunkEnd, chunks, originalChunks);
+      end = spans.offset(code);
+      length = chunks.length();
+      originalLength = originalChunks.length();
+      spaces = scanPlainSpaces(code, chunks, originalChunks);
+    }
+    chunks.setLength(length);
+    originalChunks.setLength(originalLength);
+    return end;
   }
 
   private static boolean hasUnexpectedColonAt(CodeReader code, int length) {
     return code.charAt(length) == ':'
-      && (",[]{}" + NULL_BL_T_LINEBR_S).indexOf(code.charAt(length + 1)) == -1;
+      && !is(code.charAt(length + 1), FLOW_INDICATOR | NULL_BL_T_LINEBR);
   }
 
-  private int skipPlainChars(CodeReader code) {
-    int length = 0;
-    while (true) {
-      char ch2 = code.charAt(length);
-      if (NULL_BL_T_LINEBR_S.indexOf(ch2) != -1
-        || (state.flowLevel() == 0 && ch2 == ':' && NULL_BL_T_LINEBR_S
-          .indexOf(code.charAt(length + 1)) != -1)
-        || (state.flowLevel() != 0 && ",:?[]{}".indexOf(ch2) != -1)) {
-        break;
+  /**
+   * @return the offset of the end of the plain chunk starting at the given offset
+   */
+  private int skipPlainChars(CodeReader code, int offset) {
+    if (state.flowLevel() == 0) {
+      // In the block context, only a ':' followed by a blank ends the chunk.
+      int length = spans.plainEnd(code, offset);
+      while (code.charAt(length) == ':' && !is(code.charAt(length + 1), NULL_BL_T_LINEBR)) {
+        length = spans.plainEnd(code, length + 1);
       }
+      return length;
+    }
+    int length = offset;
+    while (!is(code.charAt(length), NULL_BL_T_LINEBR | FLOW_INDICATOR | MAPPING_INDICATOR)) {
       length++;
     }
     return length;
@@ -407,54 +531,57 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
   /**
    * See the specification for details. SnakeYAML and libyaml allow tabs
    * inside plain scalar
+   * <p>
+   * Appends the spaces to the original text of the scalar, and to its value once folded.
+   * @return whether there are spaces, other than the line breaks before a document marker
    */
-  private String[] scanPlainSpaces(CodeReader reader) {
-    StringBuilder b = new StringBuilder();
-    StringBuilder original = new StringBuilder();
-    while (reader.charAt(0) == ' ' || reader.charAt(0) == '\t') {
-      reader.pop(b);
-    }
-    String whitespaces = b.toString();
-    original.append(whitespaces);
+  private boolean scanPlainSpaces(CodeReader reader, StringBuilder chunks, StringBuilder originalChunks) {
+    int blanks = 0;
+    while (is(reader.charAt(blanks), BLANK)) {
+      ++blanks;
+    }
+    spans.forward(reader, blanks, originalChunks);
     String lineBreak = scanLineBreak(reader);
-    original.append(lineBreak);
-    if (lineBreak.length() != 0) {
-      state.allowSimpleKey(true);
-      String prefix = new String(reader.peek(3));
-      if (isStreamDelimiter(reader, prefix)) {
-        return new String[] {"", original.toString()};
-      }
-      StringBuilder breaks = new StringBuilder();
-      while (true) {
-        if (reader.charAt(0) == ' ') {
-          reader.pop(original);
-        } else {
-          String lb = scanLineBreak(reader);
-          if (lb.length() != 0) {
-            breaks.append(lb);
-            original.append(lb);
-            prefix = new String(reader.peek(3));
-            if (isStreamDelimiter(reader, prefix)) {
-              return new String[] {"", original.toString()};
-            }
-          } else {
-            break;
-          }
+    if (lineBreak.length() == 0) {
+      chunks.append(originalChunks, originalChunks.length() - blanks, originalChunks.length());
+      return blanks != 0;
+    }
+    originalChunks.append(lineBreak);
+    state.allowSimpleKey(true);
+    if (isStreamDelimiter(reader)) {
+      return false;
+    }
+    if (!"\n".equals(lineBreak)) {
+      chunks.append(lineBreak);
+    }
+    int breaks = chunks.length();
+    while (true) {
+      if (reader.charAt(0) == ' ') {
+        reader.pop(originalChunks);
+      } else {
+        String lb = scanLineBreak(reader);
+        if (lb.length() == 0) {
+          break;
+        }
+        chunks.append(lb);
+        originalChunks.append(lb);
+        if (isStreamDelimiter(reader)) {
+          return false;
         }
       }
-      if (!"\n".equals(lineBreak)) {
-        return new String[] {lineBreak + breaks, original.toString()};
-      } else if (breaks.length() == 0) {
-        return new String[] {" ", original.toString()};
-      }
-      return new String[] {breaks.toString(), original.toString()};
     }
-    return new String[] {whitespaces, original.toString()};
+    if ("\n".equals(lineBreak) && chunks.length() == breaks) {
+      chunks.append(' ');
+    }
+    return true;
   }
 
-  private static boolean isStreamDelimiter(CodeReader reader, String prefix) {
-    return "---".equals(prefix) || "...".equals(prefix)
-      && NULL_BL_T_LINEBR_S.indexOf(reader.charAt(3)) != -1;
+  private static boolean isStreamDelimiter(CodeReader reader) {
+    char ch = reader.charAt(0);
+    if ((ch != '-' && ch != '.') || reader.charAt(1) != ch || reader.charAt(2) != ch) {
+      return false;
+    }
+    return ch == '-' || is(reader.charAt(3), NULL_BL_T_LINEBR);
   }
 
   /**
@@ -481,112 +608,14 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     char next = reader.charAt(1);
     // If the next char is NOT one of the forbidden chars above or
     // whitespace, then this is the start of a plain scalar.
-    return SPECIAL.indexOf(ch) == -1
-      || (NULL_BL_T_LINEBR_S.indexOf(next) == -1 && (ch == '-' || (state.flowLevel() == 0 && "?:".indexOf(ch) != -1)));
+    return !is(ch, SPECIAL)
+      || (!is(next, NULL_BL_T_LINEBR) && (ch == '-' || (state.flowLevel() == 0 && is(ch, MAPPING_INDICATOR))));
   }
 
 
   @VisibleForTesting
   static TokenType decodePlainScalar(String value) {
-    int len = value.length();
-    if (len == 0) {
-      return Tokens.STRING;
-    }
-    char c = value.charAt(0);
-    if ("+-.0123456789".indexOf(c) != -1) {
-      TokenType t = decodeNumberScalar(value, len);
-      if (t != null) {
-        return t;
-      }
-      return Tokens.STRING;
-    }
-    if ("null".equals(value)) {
-      return Tokens.NULL;
-    }
-    TokenType tokenType = matchYAMLBoolean(value, len);
-    if (tokenType != null) {
-      return tokenType;
-    }
-    return Tokens.STRING;
-  }
-
-  private static TokenType matchYAMLBoolean(String value, int len) {
-    switch (len) {
-      case 1:
-        switch (value.charAt(0)) {
-          case 'N':
-          case 'n':
-            return Tokens.FALSE;
-          case 'Y':
-          case 'y':
-            return Tokens.TRUE;
-          default:
-            return null;
-        }
-      case 2:
-        if ("no".equalsIgnoreCase(value)) {
-          return Tokens.FALSE;
-        }
-
-        if ("on".equalsIgnoreCase(value)) {
-          return Tokens.TRUE;
-        }
-        break;
-      case 3:
-        if ("yes".equalsIgnoreCase(value)) {
-          return Tokens.TRUE;
-        }
-
-        if ("off".equalsIgnoreCase(value)) {
-          return Tokens.FALSE;
-        }
-        break;
-      case 4:
-        if ("true".equalsIgnoreCase(value)) {
-          return Tokens.TRUE;
-        }
-        break;
-      case 5:
-        if ("false".equalsIgnoreCase(value)) {
-          return Tokens.FALSE;
-        }
-        break;
-      default:
-        return null;
-    }
-
-    return null;
-  }
-
-  private static TokenType decodeNumberScalar(String value, int len) {
-    if ("0".equals(value)) {
-      return Tokens.INTEGER;
-    } else {
-      int i;
-      if (value.charAt(0) == '-') {
-        i = 1;
-        if (len == 1) {
-          return null;
-        }
-      } else {
-        i = 0;
-      }
-
-      do {
-        int c = value.charAt(i);
-        if (c > '9' || c < '0') {
-          if (PATTERN_FLOAT.matcher(value).matches()) {
-            return Tokens.FLOAT;
-          } else {
-            return null;
-          }
-        }
-
-        ++i;
-      } while (i != len);
-
-      return Tokens.INTEGER;
-    }
+    return ScalarSchema.YAML_1_1.resolve(value);
   }
 
   /**
@@ -594,7 +623,7 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
    *
    * @see http://www.yaml.org/spec/1.1/#id863975
    */
-  private void fetchBlockScalar(char style, CodeReader code, com.sonar.sslr.impl.Lexer output) {
+  private void fetchBlockScalar(char style, CodeReader code, YamlScanner output) {
     // A simple key may follow a block scalar.
     state.allowSimpleKey(true);
 
@@ -608,6 +637,7 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     StringBuilder chunks = new StringBuilder();
     StringBuilder originalChunks = new StringBuilder();
     CodeReader.Cursor startMark = code.getCursor().clone();
+    int startOffset = spans.offset(code);
     // Scan the header
     code.pop(originalChunks);
     Chomping chompi = scanBlockScalarIndicators(code, startMark, originalChunks);
@@ -619,43 +649,37 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     if (minIndent < 1) {
       minIndent = 1;
     }
-    String breaks;
-    int maxIndent;
+    StringBuilder breaks = new StringBuilder();
     int indent;
     if (increment == -1) {
-      Object[] brme = scanBlockScalarIndentation(code, originalChunks);
-      breaks = (String) brme[0];
-      maxIndent = (Integer) brme[1];
+      int maxIndent = scanBlockScalarIndentation(code, breaks, originalChunks);
       indent = Math.max(minIndent, maxIndent);
     } else {
       indent = minIndent + increment - 1;
-      Object[] brme = scanBlockScalarBreaks(code, indent, originalChunks);
-      breaks = (String) brme[0];
+      scanBlockScalarBreaks(code, indent, breaks, originalChunks);
     }
 
     String lineBreak = "";
 
     // Scan the inner part of the block scalar.
-    while (code.getColumnPosition() == indent && code.charAt(0) != '\0') {
+    while (code.getColumnPosition() == indent && !isEndOfStream(code)) {
       chunks.append(breaks);
-      boolean leadingNonSpace = " \t".indexOf(code.charAt(0)) == -1;
-      StringBuilder innerChunk = new StringBuilder();
-      while (Lexer.NULL_OR_LINEBR_S.indexOf(code.charAt(0)) == -1) {
-        code.pop(innerChunk);
-      }
-      chunks.append(innerChunk.toString());
-      originalChunks.append(innerChunk.toString());
+      boolean leadingNonSpace = !is(code.charAt(0), BLANK);
+      // The whole line is content, up to its line break.
+      int length = spans.lineEnd(code, 0);
+      int start = originalChunks.length();
+      spans.forward(code, length, originalChunks);
+      chunks.append(originalChunks, start, originalChunks.length());
       lineBreak = scanLineBreak(code);
       originalChunks.append(lineBreak);
-      Object[] brme = scanBlockScalarBreaks(code, indent, originalChunks);
-      breaks = (String) brme[0];
-      if (code.getColumnPosition() == indent && code.charAt(0) != '\0') {
+      scanBlockScalarBreaks(code, indent, breaks, originalChunks);
+      if (code.getColumnPosition() == indent && !isEndOfStream(code)) {
 
         // Unfortunately, folding rules are ambiguous.
         //
         // This is the folding according to the specification:
         if (folded && "\n".equals(lineBreak) && leadingNonSpace
-          && " \t".indexOf(code.charAt(0)) == -1) {
+          && !is(code.charAt(0), BLANK)) {
           if (breaks.length() == 0) {
             chunks.append(" ");
           }
@@ -682,7 +706,7 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
       .setLine(startMark.getLine())
       .setColumn(startMark.getColumn())
       .build();
-    output.addToken(token);
+    output.addToken(token, startOffset, spans.offset(code));
   }
 
   /**
@@ -737,7 +761,7 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
       }
     }
     ch = reader.charAt(0);
-    if (Lexer.NULL_BL_LINEBR_S.indexOf(ch) == -1) {
+    if (!is(ch, CharClasses.NULL_BL_LINEBR)) {
       throw new YamlLexerException(WHILE_SCANNING_BLOCK_SCALAR, startMark, "expected chomping or indentation indicator but found " + ch,
         reader.getCursor());
     }
@@ -754,12 +778,12 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
    * Scan to the end of the line after a block scalar has been scanned; the
    * only things that are permitted at this time are comments and spaces.
    */
-  private void scanBlockScalarIgnoredLine(CodeReader reader, com.sonar.sslr.impl.Lexer output, CodeReader.Cursor startMark, StringBuilder originalChunks) {
+  private void scanBlockScalarIgnoredLine(CodeReader reader, YamlScanner output, CodeReader.Cursor startMark, StringBuilder originalChunks) {
     // Forward past any number of trailing spaces
     while (reader.charAt(0) == ' ') {
       reader.pop(originalChunks);
     }
-    new CommentChannel(true).consume(reader, output);
+    trailingComment.consume(reader, output);
     // If the next character is not a null or line break, an error has
     // occurred.
     char ch = reader.charAt(0);
@@ -771,6 +795,13 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     }
   }
 
+  /**
+   * The end of the input reads as '\uFFFF', which is also a line break.
+   */
+  private static boolean isEndOfStream(CodeReader code) {
+    return code.peek() == -1 || code.charAt(0) == '\0';
+  }
+
   /**
    * Scans for the indentation of a block scalar implicitly. This mechanism is
    * used only if the block did not explicitly state an indentation to be
@@ -778,60 +809,63 @@ class ScalarChannel extends Channel<com.sonar.sslr.impl.Lexer> {
    *
    * @see http://www.yaml.org/spec/1.1/#id927035
    */
-  private Object[] scanBlockScalarIndentation(CodeReader reader, StringBuilder originalChunks) {
+
+  private int scanBlockScalarIndentation(CodeReader reader, StringBuilder breaks, StringBuilder originalChunks) {
     // See the specification for details.
-    StringBuilder chunks = new StringBuilder();
     int maxIndent = 0;
     // Look ahead some number of lines until the first non-blank character
     // occurs; the determined indentation will be the maximum number of
     // leading spaces on any of these lines.
-    while ((Lexer.LINEBR_S + " \r").indexOf(reader.charAt(0)) != -1) {
+    while (!isEndOfStream(reader) && is(reader.charAt(0), CharClasses.FULL_LINEBR | CharClasses.SPACE)) {
       if (reader.charAt(0) != ' ') {
         // If the character isn't a space, it must be some kind of
         // line-break; scan the line break and track it.
-        String breaks = scanLineBreak(reader);
-        chunks.append(breaks);
-        originalChunks.append(breaks);
+        String lineBreak = scanLineBreak(reader);
+        breaks.append(lineBreak);
+        originalChunks.append(lineBreak);
       } else {
-        // If the character is a space, move forward to the next
-        // character; if we surpass our previous maximum for indent
-        // level, update that too.
-        reader.pop(originalChunks);
-        if (reader.getColumnPosition() > maxIndent) {
-          maxIndent = reader.getColumnPosition();
+        // If the character is a space, move forward past all the spaces;
+        // if we surpass our previous maximum for indent level, update that too.
+        int count = 1;
+        while (reader.charAt(count) == ' ') {
+          ++count;
         }
+        spans.forward(reader, count, originalChunks);
+        maxIndent = Math.max(maxIndent, reader.getColumnPosition());
       }
     }
-    // Pass several results back together.
-    return new Object[] {chunks.toString(), maxIndent};
+    return maxIndent;
   }
 
-  private Object[] scanBlockScalarBreaks(CodeReader reader, int indent, StringBuilder originalChunks) {
+  /**
+   * Scans the line breaks following a line of a block scalar, and the indentation of the lines they end.
+   * The breaks are set in the given builder.
+   */
+  private void scanBlockScalarBreaks(CodeReader reader, int indent, StringBuilder breaks, StringBuilder originalChunks) {
     // See the specification for details.
-    StringBuilder chunks = new StringBuilder();
-    int col = reader.getColumnPosition();
+    breaks.setLength(0);
     // Scan for up to the expected indentation-level of spaces, then move
     // forward past that amount.
-    while (col < indent && reader.charAt(0) == ' ') {
-      reader.pop(originalChunks);
-      col++;
-    }
+    scanBlockScalarIndent(reader, indent, originalChunks);
     // Consume one or more line breaks followed by any amount of spaces,
     // until we find something that isn't a line-break.
     String lineBreak;
     while ((lineBreak = scanLineBreak(reader)).length() != 0) {
-      chunks.append(lineBreak);
+      breaks.append(lineBreak);
       originalChunks.append(lineBreak);
       // Scan past up to (indent) spaces on the next line, then forward
       // past them.
-      col = reader.getColumnPosition();
-      while (col < indent && reader.charAt(0) == ' ') {
-        reader.pop(originalChunks);
-        col++;
-      }
+      scanBlockScalarIndent(reader, indent, originalChunks);
+    }
+  }
+
+  private void scanBlockScalarIndent(CodeReader reader, int indent, StringBuilder originalChunks) {
+    int count = 0;
+    int max = indent - reader.getColumnPosition();
+    while (count < max && reader.charAt(count) == ' ') {
+      ++count;
     }
-    // Return both the assembled intervening string and the end-mark.
-    return new Object[] {chunks.toString()};
+    spans.forward(reader, count, originalChunks);
   }
 
   /**
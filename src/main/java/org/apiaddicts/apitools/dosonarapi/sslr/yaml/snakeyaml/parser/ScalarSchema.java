@@ -0,0 +1,342 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.TokenType;
+
+/**
+ * The rules resolving the type of the plain scalars: {@link Tokens#STRING}, {@link Tokens#INTEGER},
+ * {@link Tokens#FLOAT}, {@link Tokens#TRUE}, {@link Tokens#FALSE} or {@link Tokens#NULL}. Quoted and block scalars are
+ * always strings.
+ * <p>
+ * The values are classified in a single pass over their characters, without regular expressions or allocations.
+ */
+public enum ScalarSchema {
+  /**
+   * The historical rules of the lexer, with the YAML 1.1 booleans: {@code y}, {@code n}, {@code yes}, {@code no},
+   * {@code on}, {@code off}, {@code true} and {@code false}, in any case. Only decimal integers and floats with a
+   * decimal point are numbers, and {@code null} is the only null.
+   */
+  YAML_1_1 {
+    @Override
+    public TokenType resolve(CharSequence value) {
+      int length = value.length();
+      if (length == 0) {
+        return Tokens.STRING;
+      }
+      char c = value.charAt(0);
+      if (isDigit(c) || c == '-' || c == '+' || c == '.') {
+        return resolveNumber11(value, length);
+      }
+      if (isWord(value, "null")) {
+        return Tokens.NULL;
+      }
+      return resolveBoolean11(value, length);
+    }
+  },
+
+  /**
+   * The YAML 1.2 core schema: {@code null}, {@code ~} and the empty value are nulls, the booleans are {@code true} and
+   * {@code false}, and the numbers include the octal ({@code 0o}) and hexadecimal ({@code 0x}) integers, the
+   * exponents, {@code .inf} and {@code .nan}.
+   */
+  CORE {
+    @Override
+    public TokenType resolve(CharSequence value) {
+      int length = value.length();
+      if (length == 0) {
+        return Tokens.NULL;
+      }
+      switch (value.charAt(0)) {
+        case '~':
+          return length == 1 ? Tokens.NULL : Tokens.STRING;
+        case 'n':
+        case 'N':
+          return equalsInCoreCase(value, 0, "null") ? Tokens.NULL : Tokens.STRING;
+        case 't':
+        case 'T':
+          return equalsInCoreCase(value, 0, "true") ? Tokens.TRUE : Tokens.STRING;
+        case 'f':
+        case 'F':
+          return equalsInCoreCase(value, 0, "false") ? Tokens.FALSE : Tokens.STRING;
+        default:
+          return resolveCoreNumber(value, length);
+      }
+    }
+  },
+
+  /**
+   * The YAML 1.2 JSON schema: only {@code null}, {@code true}, {@code false} and the JSON numbers are typed. Integers
+   * are the numbers without fraction nor exponent.
+   */
+  JSON {
+    @Override
+    public TokenType resolve(CharSequence value) {
+      int length = value.length();
+      if (length == 0) {
+        return Tokens.STRING;
+      }
+      switch (value.charAt(0)) {
+        case 'n':
+          return isWord(value, "null") ? Tokens.NULL : Tokens.STRING;
+        case 't':
+          return isWord(value, "true") ? Tokens.TRUE : Tokens.STRING;
+        case 'f':
+          return isWord(value, "false") ? Tokens.FALSE : Tokens.STRING;
+        default:
+          return resolveJsonNumber(value, length);
+      }
+    }
+  };
+
+  /**
+   * Resolves the type of a plain scalar.
+   * @param value the value of the scalar
+   * @return the type of the scalar token
+   */
+  public abstract TokenType resolve(CharSequence value);
+
+  /**
+   * {@code -?[0-9]+} is an integer, {@code [-+]?([0-9][0-9_]*)?\.[0-9]*([eE][-+][0-9]+)?} a float.
+   */
+  private static TokenType resolveNumber11(CharSequence value, int length) {
+    int i = value.charAt(0) == '-' ? 1 : 0;
+    int digits = skipDigits(value, i, length);
+    if (digits == length && digits > i) {
+      return Tokens.INTEGER;
+    }
+    i = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+    if (i < length && isDigit(value.charAt(i))) {
+      do {
+        ++i;
+      } while (i < length && (isDigit(value.charAt(i)) || value.charAt(i) == '_'));
+    }
+    if (i == length || value.charAt(i) != '.') {
+      return Tokens.STRING;
+    }
+    i = skipDigits(value, i + 1, length);
+    if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+      ++i;
+      if (i == length || (value.charAt(i) != '-' && value.charAt(i) != '+')) {
+        return Tokens.STRING;
+      }
+      int exponent = i + 1;
+      i = skipDigits(value, exponent, length);
+      if (i == exponent) {
+        return Tokens.STRING;
+      }
+    }
+    return i == length ? Tokens.FLOAT : Tokens.STRING;
+  }
+
+  private static TokenType resolveBoolean11(CharSequence value, int length) {
+    switch (length) {
+      case 1:
+        switch (value.charAt(0)) {
+          case 'N':
+          case 'n':
+            return Tokens.FALSE;
+          case 'Y':
+          case 'y':
+            return Tokens.TRUE;
+          default:
+            return Tokens.STRING;
+        }
+      case 2:
+        if (equalsIgnoreCase(value, "no")) {
+          return Tokens.FALSE;
+        }
+        return equalsIgnoreCase(value, "on") ? Tokens.TRUE : Tokens.STRING;
+      case 3:
+        if (equalsIgnoreCase(value, "yes")) {
+          return Tokens.TRUE;
+        }
+        return equalsIgnoreCase(value, "off") ? Tokens.FALSE : Tokens.STRING;
+      case 4:
+        return equalsIgnoreCase(value, "true") ? Tokens.TRUE : Tokens.STRING;
+      case 5:
+        return equalsIgnoreCase(value, "false") ? Tokens.FALSE : Tokens.STRING;
+      default:
+        return Tokens.STRING;
+    }
+  }
+
+  /**
+   * {@code [-+]?[0-9]+}, {@code 0o[0-7]+} and {@code 0x[0-9a-fA-F]+} are integers;
+   * {@code [-+]?(\.[0-9]+|[0-9]+(\.[0-9]*)?)([eE][-+]?[0-9]+)?}, {@code [-+]?\.(inf|Inf|INF)} and
+   * {@code \.nan|\.NaN|\.NAN} are floats.
+   */
+  private static TokenType resolveCoreNumber(CharSequence value, int length) {
+    if (length > 2 && value.charAt(0) == '0') {
+      char radix = value.charAt(1);
+      if (radix == 'o') {
+        return skipOctalDigits(value, 2, length) == length ? Tokens.INTEGER : Tokens.STRING;
+      } else if (radix == 'x') {
+        return skipHexDigits(value, 2, length) == length ? Tokens.INTEGER : Tokens.STRING;
+      }
+    }
+    int i = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+    if (i == length) {
+      return Tokens.STRING;
+    }
+    if (value.charAt(i) == '.' && length - i == 4
+      && (equalsInCoreCase(value, i, ".inf") || (i == 0 && (isWord(value, ".nan") || isWord(value, ".NaN") || isWord(value, ".NAN"))))) {
+      return Tokens.FLOAT;
+    }
+    int integerEnd = skipDigits(value, i, length);
+    if (integerEnd == length) {
+      return integerEnd > i ? Tokens.INTEGER : Tokens.STRING;
+    }
+    int end = integerEnd;
+    if (value.charAt(end) == '.') {
+      end = skipDigits(value, end + 1, length);
+      if (integerEnd == i && end == integerEnd + 1) {
+        // a lone '.'
+        return Tokens.STRING;
+      }
+    } else if (integerEnd == i) {
+      return Tokens.STRING;
+    }
+    return skipExponent(value, end, length) == length ? Tokens.FLOAT : Tokens.STRING;
+  }
+
+  /**
+   * {@code -?(0|[1-9][0-9]*)} is an integer, {@code -?(0|[1-9][0-9]*)(\.[0-9]*)?([eE][-+]?[0-9]+)?} a float.
+   */
+  private static TokenType resolveJsonNumber(CharSequence value, int length) {
+    int i = value.charAt(0) == '-' ? 1 : 0;
+    if (i == length || !isDigit(value.charAt(i))) {
+      return Tokens.STRING;
+    }
+    int end = value.charAt(i) == '0' ? i + 1 : skipDigits(value, i, length);
+    if (end == length) {
+      return Tokens.INTEGER;
+    }
+    if (value.charAt(end) == '.') {
+      end = skipDigits(value, end + 1, length);
+    }
+    return skipExponent(value, end, length) == length ? Tokens.FLOAT : Tokens.STRING;
+  }
+
+  /**
+   * Skips an optional {@code [eE][-+]?[0-9]+} exponent.
+   * @return the end of the exponent, or {@code -1} if it is malformed
+   */
+  private static int skipExponent(CharSequence value, int start, int length) {
+    if (start == length || (value.charAt(start) != 'e' && value.charAt(start) != 'E')) {
+      return start;
+    }
+    int i = start + 1;
+    if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+      ++i;
+    }
+    int end = skipDigits(value, i, length);
+    return end == i ? -1 : end;
+  }
+
+  private static int skipDigits(CharSequence value, int start, int length) {
+    int i = start;
+    while (i < length && isDigit(value.charAt(i))) {
+      ++i;
+    }
+    return i;
+  }
+
+  private static int skipOctalDigits(CharSequence value, int start, int length) {
+    int i = start;
+    while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '7') {
+      ++i;
+    }
+    return i;
+  }
+
+  private static int skipHexDigits(CharSequence value, int start, int length) {
+    int i = start;
+    while (i < length && (isDigit(value.charAt(i)) || (value.charAt(i) >= 'a' && value.charAt(i) <= 'f')
+      || (value.charAt(i) >= 'A' && value.charAt(i) <= 'F'))) {
+      ++i;
+    }
+    return i;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isWord(CharSequence value, String word) {
+    if (value.length() != word.length()) {
+      return false;
+    }
+    for (int i = 0; i < word.length(); ++i) {
+      if (value.charAt(i) != word.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compares the characters as {@link String#equalsIgnoreCase(String)} does.
+   */
+  private static boolean equalsIgnoreCase(CharSequence value, String word) {
+    if (value.length() != word.length()) {
+      return false;
+    }
+    for (int i = 0; i < word.length(); ++i) {
+      char c1 = value.charAt(i);
+      char c2 = word.charAt(i);
+      if (c1 != c2) {
+        char u1 = Character.toUpperCase(c1);
+        char u2 = Character.toUpperCase(c2);
+        if (u1 != u2 && Character.toLowerCase(u1) != Character.toLowerCase(u2)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Matches the three spellings of a lower case word allowed by the core schema: lower case, capitalized and upper
+   * case. The leading '.' of {@code .inf} is not a letter.
+   */
+  private static boolean equalsInCoreCase(CharSequence value, int start, String word) {
+    if (value.length() - start != word.length()) {
+      return false;
+    }
+    int letters = word.charAt(0) == '.' ? 1 : 0;
+    return equalsWithUpperCase(value, start, word, 0)
+      || equalsWithUpperCase(value, start, word, letters + 1)
+      || equalsWithUpperCase(value, start, word, word.length());
+  }
+
+  /**
+   * @param upperCaseEnd the end of the upper case prefix of the expected spelling
+   */
+  private static boolean equalsWithUpperCase(CharSequence value, int start, String word, int upperCaseEnd) {
+    for (int i = 0; i < word.length(); ++i) {
+      char expected = i < upperCaseEnd ? Character.toUpperCase(word.charAt(i)) : word.charAt(i);
+      if (value.charAt(start + i) != expected) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -32,12 +32,21 @@ final class SimpleKey {
     private boolean required;
     private int line;
     private int column;
+    private boolean possible;
 
-    public SimpleKey(int tokenNumber, boolean required, int line, int column) {
+    /**
+     * Reuses the key for a new possible simple key.
+     */
+    void set(int tokenNumber, boolean required, int line, int column) {
         this.tokenNumber = tokenNumber;
         this.required = required;
         this.line = line;
         this.column = column;
+        this.possible = true;
+    }
+
+    public int getTokenNumber() {
+        return tokenNumber;
     }
 
     public int getColumn() {
@@ -52,6 +61,17 @@ final class SimpleKey {
         return required;
     }
 
+    /**
+     * @return {@code false} once the key has been found, removed or staled
+     */
+    boolean isPossible() {
+        return possible;
+    }
+
+    void setPossible(boolean possible) {
+        this.possible = possible;
+    }
+
     @Override
     public String toString() {
         return "SimpleKey - tokenNumber=" + tokenNumber + " required=" + required + " index="
@@ -0,0 +1,169 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import org.sonar.sslr.channel.CodeReader;
+
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.NULL_BL_T_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.NULL_OR_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.is;
+
+/**
+ * Finds the end of the spans of characters that the channels skip, such as the rest of a line, and moves a
+ * {@link CodeReader} past them. Offsets are relative to the current position of the reader, as for
+ * {@link CodeReader#charAt(int)}, and a span always ends at the end of the input.
+ * <p>
+ * The characters are read from the array scanned by the reader, given by {@link CodeReaders#array(CodeReader)}: a
+ * span is found by looking up the {@link CharClasses} of its characters in that array, copied out of it in one go, and
+ * skipped by moving the reader to its end at once, unless it holds line breaks or tabs that the reader must count. If
+ * the array of the reader cannot be read, the scanner reads a copy of the text instead, and the reader is moved one
+ * character at a time.
+ * <p>
+ * The strings of the scalars are looked up in a {@link StringTable} before they are built, so that repeated scalars
+ * share them.
+ */
+final class SpanScanner {
+  private final int textLength;
+  private final StringTable strings;
+  private final char[] text;
+
+  /**
+   * Scans the characters left to read by a reader.
+   */
+  SpanScanner(CodeReader code, StringTable strings) {
+    this.textLength = code.length();
+    this.strings = strings;
+    char[] array = CodeReaders.array(code);
+    this.text = array != null ? array : code.peek(textLength);
+  }
+
+  /**
+   * @return the offset of the first line break or NUL character from the given offset
+   */
+  int lineEnd(CodeReader code, int offset) {
+    int start = start(code);
+    int i = start + offset;
+    while (i < text.length && !is(text[i], NULL_OR_LINEBR)) {
+      ++i;
+    }
+    return i - start;
+  }
+
+  /**
+   * @return the offset of the first character of one of the given {@link CharClasses} from the given offset
+   */
+  int spanEnd(CodeReader code, int offset, int classes) {
+    int start = start(code);
+    int i = start + offset;
+    while (i < text.length && !is(text[i], classes)) {
+      ++i;
+    }
+    return i - start;
+  }
+
+  /**
+   * @return the offset of the first blank, line break, NUL or {@code ':'} character from the given offset
+   */
+  int plainEnd(CodeReader code, int offset) {
+    int start = start(code);
+    int i = start + offset;
+    while (i < text.length && text[i] != ':' && !is(text[i], NULL_BL_T_LINEBR)) {
+      ++i;
+    }
+    return i - start;
+  }
+
+  /**
+   * @return the offset of the next character of the reader, from the start of the text
+   */
+  int offset(CodeReader code) {
+    return textLength - code.length();
+  }
+
+  /**
+   * Moves the reader past the next characters.
+   * @return the characters
+   */
+  String forward(CodeReader code, int count) {
+    String string = new String(text, start(code), count);
+    skip(code, count);
+    return string;
+  }
+
+  /**
+   * Moves the reader past the next characters of a scalar.
+   * @return the characters, as the string shared by the previous spans of the same characters if the table holds it
+   */
+  String forwardShared(CodeReader code, int count) {
+    String string = strings.get(text, start(code), count);
+    skip(code, count);
+    return string;
+  }
+
+  /**
+   * @return the characters of a scalar from the given offset, as the string shared by the previous spans of the same
+   * characters if the table holds it
+   */
+  String shared(CodeReader code, int offset, int count) {
+    return strings.get(text, start(code) + offset, count);
+  }
+
+  /**
+   * Moves the reader past the next characters, which are appended to the given builder.
+   */
+  void forward(CodeReader code, int count, StringBuilder target) {
+    target.append(text, start(code), count);
+    skip(code, count);
+  }
+
+  /**
+   * Moves the reader past the next characters, which are appended to both builders.
+   */
+  void forward(CodeReader code, int count, StringBuilder target, StringBuilder other) {
+    int start = start(code);
+    target.append(text, start, count);
+    other.append(text, start, count);
+    skip(code, count);
+  }
+
+  /**
+   * Moves the reader past the next characters, without copying them.
+   */
+  void skip(CodeReader code, int count) {
+    int start = start(code);
+    for (int i = start; i < start + count; ++i) {
+      char c = text[i];
+      if (c == '\n' || c == '\r' || c == '\t') {
+        for (int j = 0; j < count; ++j) {
+          code.pop();
+        }
+        return;
+      }
+    }
+    CodeReaders.skipInLine(code, count);
+  }
+
+  /**
+   * @return the index of the next character of the reader in the array
+   */
+  private int start(CodeReader code) {
+    return text.length - code.length();
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+/**
+ * Whether the scanners share the strings of the scalars that a document repeats, such as its keys, references and
+ * enumerated values. Only the single line scalars of up to 64 characters are shared, and the tables
+ * holding them have a fixed size, so a document of unique scalars costs a lookup per scalar and no more memory.
+ */
+public enum StringInterning {
+  /**
+   * Each scalar gets its own strings.
+   */
+  NONE {
+    @Override
+    StringTable table() {
+      return StringTable.NONE;
+    }
+  },
+
+  /**
+   * The scalars of a document share their strings, in a table dropped once the document is scanned.
+   */
+  DOCUMENT {
+    @Override
+    StringTable table() {
+      return new StringTable(DOCUMENT_CAPACITY, MAX_LENGTH);
+    }
+  },
+
+  /**
+   * The scalars of all the documents share their strings, in a single table for the whole JVM. The strings stay
+   * reachable from the table until other strings replace them.
+   */
+  SHARED {
+    @Override
+    StringTable table() {
+      return SharedTable.INSTANCE;
+    }
+  };
+
+  private static final int MAX_LENGTH = 64;
+  private static final int DOCUMENT_CAPACITY = 4096;
+  private static final int SHARED_CAPACITY = 16384;
+
+  /**
+   * @return the table of the strings of a new document
+   */
+  abstract StringTable table();
+
+  /**
+   * Lazy holder of the shared table, only allocated when it is used.
+   */
+  private static final class SharedTable {
+    private static final StringTable INSTANCE = new StringTable(SHARED_CAPACITY, MAX_LENGTH);
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+/**
+ * A bounded table of the strings scanned from spans of characters, so that the keys and values repeated across a
+ * document share a single instance. The strings are looked up by their characters, before any string is built.
+ * <p>
+ * The table is an array of slots indexed by the hash of the characters, and a string replaces the one of its slot.
+ * Strings are immutable, so the slots are read and written without locks: a thread may miss the string just stored by
+ * another one, and then builds its own. Spans longer than the maximum length are never looked up, as long scalars,
+ * such as descriptions, are seldom repeated.
+ */
+final class StringTable {
+  /**
+   * A table that keeps no string.
+   */
+  static final StringTable NONE = new StringTable(1, -1);
+
+  private final String[] slots;
+  private final int mask;
+  private final int maxLength;
+
+  /**
+   * @param capacity the number of slots, a power of 2
+   * @param maxLength the length of the longest strings kept
+   */
+  StringTable(int capacity, int maxLength) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("The capacity must be a power of 2: " + capacity);
+    }
+    this.slots = new String[capacity];
+    this.mask = capacity - 1;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * @return the string of the characters, from the table if it holds them
+   */
+  String get(char[] chars, int offset, int length) {
+    if (length > maxLength) {
+      return new String(chars, offset, length);
+    }
+    int hash = 0;
+    for (int i = offset; i < offset + length; ++i) {
+      hash = 31 * hash + chars[i];
+    }
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    String string = slots[slot];
+    if (string == null || !matches(string, chars, offset, length)) {
+      string = new String(chars, offset, length);
+      slots[slot] = string;
+    }
+    return string;
+  }
+
+  /**
+   * @return the string of the characters from {@code start} to {@code end}, from the table if it holds them
+   */
+  String get(CharSequence text, int start, int end) {
+    int length = end - start;
+    if (length > maxLength) {
+      return text.subSequence(start, end).toString();
+    }
+    int hash = 0;
+    for (int i = start; i < end; ++i) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    String string = slots[slot];
+    if (string == null || !matches(string, text, start, length)) {
+      string = text.subSequence(start, end).toString();
+      slots[slot] = string;
+    }
+    return string;
+  }
+
+  private static boolean matches(String string, char[] chars, int offset, int length) {
+    if (string.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; ++i) {
+      if (string.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matches(String string, CharSequence text, int start, int length) {
+    if (string.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; ++i) {
+      if (string.charAt(i) != text.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
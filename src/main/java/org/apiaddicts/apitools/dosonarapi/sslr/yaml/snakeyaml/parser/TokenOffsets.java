@@ -0,0 +1,92 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import java.util.Arrays;
+
+/**
+ * The character offsets of the tokens of a document, from the start of the document, filled by the scanners as they
+ * scan the tokens. The offsets of a token are found at the index of the token in the token list of the document, and
+ * are stored as two {@code int}s per token rather than on the tokens themselves.
+ * <p>
+ * A token spans its source text, from its first character to the one after its last: the quotes of a quoted scalar, or
+ * the indicators and the lines of a block scalar, are part of it. The tokens that the scanner inserts, such as KEY or
+ * BLOCK-END, and the EOF token, are empty and sit where the next token starts.
+ */
+public final class TokenOffsets {
+  private int[] offsets = new int[32];
+  private int size = 0;
+
+  /**
+   * @return the number of tokens
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param index the index of a token
+   * @return the offset of the first character of the token
+   */
+  public int getStart(int index) {
+    checkIndex(index);
+    return offsets[2 * index];
+  }
+
+  /**
+   * @param index the index of a token
+   * @return the offset of the character after the token
+   */
+  public int getEnd(int index) {
+    checkIndex(index);
+    return offsets[2 * index + 1];
+  }
+
+  void add(int start, int end) {
+    insert(size, start, end);
+  }
+
+  /**
+   * Inserts the offsets of a token in front of the token at the given index. The tokens are inserted close to the end
+   * of the document scanned so far, so few offsets are moved.
+   */
+  void insert(int index, int start, int end) {
+    if (2 * size == offsets.length) {
+      offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+    }
+    System.arraycopy(offsets, 2 * index, offsets, 2 * index + 2, 2 * (size - index));
+    offsets[2 * index] = start;
+    offsets[2 * index + 1] = end;
+    ++size;
+  }
+
+  /**
+   * Drops the offsets of the tokens from the given index on.
+   */
+  void truncate(int index) {
+    size = Math.min(size, index);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
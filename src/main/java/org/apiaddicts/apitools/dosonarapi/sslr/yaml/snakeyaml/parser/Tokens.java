@@ -41,7 +41,9 @@ public enum Tokens implements TokenType {
     FLOW_SEQUENCE_END,
     FLOW_ENTRY,
     KEY,
-    VALUE;
+    VALUE,
+    ANCHOR,
+    ALIAS;
 
     @Override
     public String getName() {
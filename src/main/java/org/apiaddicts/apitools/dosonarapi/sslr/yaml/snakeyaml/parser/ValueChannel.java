@@ -24,7 +24,7 @@ import org.sonar.sslr.channel.Channel;
 import org.sonar.sslr.channel.CodeBuffer;
 import org.sonar.sslr.channel.CodeReader;
 
-public class ValueChannel extends Channel<com.sonar.sslr.impl.Lexer> {
+public class ValueChannel extends Channel<YamlScanner> {
     private final LexerState state;
     private final Token.Builder tokenBuilder = Token.builder();
 
@@ -33,9 +33,9 @@ public class ValueChannel extends Channel<com.sonar.sslr.impl.Lexer> {
     }
 
     @Override
-    public boolean consume(CodeReader code, com.sonar.sslr.impl.Lexer output) {
+    public boolean consume(CodeReader code, YamlScanner output) {
         int c = code.peek();
-        if (c == ':' && ((state.flowLevel() != 0) || Lexer.NULL_BL_T_LINEBR_S.indexOf(code.charAt(1)) != -1)) {
+        if (c == ':' && ((state.flowLevel() != 0) || CharClasses.is(code.charAt(1), CharClasses.NULL_BL_T_LINEBR))) {
             fetchValue(code, output);
             return true;
         } else {
@@ -48,11 +48,11 @@ public class ValueChannel extends Channel<com.sonar.sslr.impl.Lexer> {
      *
      * @see http://www.yaml.org/spec/1.1/#id863975
      */
-    private void fetchValue(CodeReader reader, com.sonar.sslr.impl.Lexer output) {
+    private void fetchValue(CodeReader reader, YamlScanner output) {
         // Do we determine a simple key?
-        SimpleKey key = state.possibleSimpleKeys().remove(state.flowLevel());
+        SimpleKey key = state.takePossibleSimpleKey();
         if (key != null) {
-            // Add KEY.
+            // Insert KEY in front of the first token of the key.
             Token token = tokenBuilder
                     .setType(Tokens.KEY)
                     .setValueAndOriginalValue("?", "")
@@ -60,9 +60,9 @@ public class ValueChannel extends Channel<com.sonar.sslr.impl.Lexer> {
                     .setLine(key.getLine())
                     .setColumn(key.getColumn())
                     .build();
-            output.addToken(token);
+            output.insertToken(key.getTokenNumber(), token);
 
-            // If this key starts a new block mapping, we need to add
+            // If this key starts a new block mapping, we need to insert
             // BLOCK-MAPPING-START.
             if (state.flowLevel() == 0 && state.addIndent(key.getColumn())) {
                 token = tokenBuilder
@@ -72,7 +72,7 @@ public class ValueChannel extends Channel<com.sonar.sslr.impl.Lexer> {
                         .setLine(key.getLine())
                         .setColumn(key.getColumn())
                         .build();
-                output.addToken(token);
+                output.insertToken(key.getTokenNumber(), token);
             }
             // There cannot be two simple keys one after another.
             state.allowSimpleKey(false);
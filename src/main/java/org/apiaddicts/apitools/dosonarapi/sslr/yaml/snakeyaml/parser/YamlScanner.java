@@ -0,0 +1,409 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.LexerException;
+import java.io.Reader;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.sslr.channel.CodeReader;
+
+/**
+ * A pull tokenizer for YAML documents: tokens are scanned on demand, as the caller reads them.
+ * <p>
+ * The scanner dispatches each token on its first character to the channel that fetches it, as SnakeYAML's
+ * {@code fetchMoreTokens} does, rather than trying a chain of channels in turn. The tokens go through a small ring
+ * buffer, where they are held while they may still start a simple key: the KEY (and BLOCK-MAPPING-START) of a simple
+ * key is only known once its ':' is scanned, and is then inserted at the position saved with the key. A simple key
+ * cannot span several lines, so only the tokens of the current line are held at any time.
+ * <p>
+ * The scanner may record the character offsets of the tokens, in the order they are read, as the tokens are scanned or
+ * inserted.
+ * <p>
+ * A scanner reads a single document and must not be shared between threads.
+ */
+public final class YamlScanner {
+  private static final Consumer<Token> NO_OBSERVER = token -> {
+  };
+
+  private final CodeReader code;
+  private final SpanScanner spans;
+  private final URI uri;
+  private final Consumer<Token> observer;
+  @Nullable
+  private final TokenOffsets offsets;
+  private final int firstOffset;
+  private final LexerState state = new LexerState();
+  private final IndentUnwinder unwinder = new IndentUnwinder(state);
+  private final CommentChannel comments;
+  private final LineBreakChannel lineBreaks = new LineBreakChannel(state);
+  private final BlockEntryChannel blockEntries = new BlockEntryChannel(state);
+  private final FlowCollectionChannel flowCollections = new FlowCollectionChannel(state);
+  private final KeyChannel keys = new KeyChannel(state);
+  private final ValueChannel values = new ValueChannel(state);
+  private final AnchorChannel anchors = new AnchorChannel(state);
+  private final ScalarChannel scalars;
+  private final List<Trivia> trivia = new ArrayList<>();
+  private final Deque<Token> ready = new ArrayDeque<>();
+  private final Token.Builder tokenBuilder = Token.builder();
+
+  // ring buffer of the tokens produced by the channels, held until no simple key may start at them
+  private Token[] buffer = new Token[8];
+  private int head = 0;
+  private int size = 0;
+
+  private int tokenCount = 0;
+  private int lastTokenLine = 0;
+  private boolean endOfInput = false;
+  // the lines where the simple keys were last staled, and where the indentation was last unwound in the block context
+  private int staledLine = 0;
+  private int unwoundLine = 0;
+
+  /**
+   * Creates a scanner. The reader is read and closed by the constructor.
+   * @param reader the document to scan
+   * @param uri the URI set on the tokens
+   */
+  public YamlScanner(Reader reader, URI uri) {
+    this(new CodeReader(reader), uri, NO_OBSERVER, LexerOptions.DEFAULT, null);
+  }
+
+  /**
+   * Creates a scanner that reports each token to an observer as soon as it is scanned, or inserted in front of a
+   * simple key, and may record the character offsets of the tokens. The observer may abort the scan by throwing an
+   * exception. A document held in an array of its exact length, such as a {@link java.nio.CharBuffer} wrapping the whole
+   * array, is scanned in place, and any other document is copied once.
+   * @param text the document to scan
+   * @param uri the URI set on the tokens
+   * @param observer the observer of the scanned tokens
+   * @param options the schema, string interning and comments of the scan
+   * @param offsets the offsets where the offsets of the tokens are added, in the order the tokens are read, or
+   * {@code null} not to record them
+   */
+  public YamlScanner(CharSequence text, URI uri, Consumer<Token> observer, LexerOptions options,
+    @Nullable TokenOffsets offsets) {
+    this(CodeReaders.of(text), uri, observer, options, offsets);
+  }
+
+  YamlScanner(CodeReader code, URI uri, Consumer<Token> observer, LexerOptions options, @Nullable TokenOffsets offsets) {
+    this.code = code;
+    this.offsets = offsets;
+    this.firstOffset = offsets == null ? 0 : offsets.size();
+    this.spans = new SpanScanner(code, options.getStringInterning().table());
+    this.uri = uri;
+    this.observer = observer;
+    this.comments = new CommentChannel(false, options.keepsComments());
+    this.scalars = new ScalarChannel(state, options.getScalarSchema(), spans, options.keepsComments());
+  }
+
+  /**
+   * Returns the next token, without consuming it.
+   * @return the next token, or {@code null} once the EOF token has been consumed
+   */
+  @CheckForNull
+  public Token peek() {
+    while (ready.isEmpty()) {
+      if (!release()) {
+        return null;
+      }
+    }
+    return ready.peekFirst();
+  }
+
+  /**
+   * Consumes the next token. The last token of a document is always an EOF token.
+   * @return the next token
+   * @throws NoSuchElementException if the EOF token has already been consumed
+   */
+  public Token next() {
+    if (peek() == null) {
+      throw new NoSuchElementException();
+    }
+    return ready.pollFirst();
+  }
+
+  /**
+   * Wraps an error of the scan as the SSLR lexer does, with the position where the scan stopped.
+   * @param cause the exception thrown by {@link #peek()} or {@link #next()}
+   * @return the exception to throw
+   */
+  public LexerException lexerException(RuntimeException cause) {
+    return new LexerException("Unable to lex source code at line : " + code.getLinePosition() + " and column : "
+      + code.getColumnPosition() + " in file : " + uri, cause);
+  }
+
+  URI getURI() {
+    return uri;
+  }
+
+  SpanScanner getSpans() {
+    return spans;
+  }
+
+  /**
+   * Adds tokens scanned by a channel. The first one gets the trivia collected since the previous token. The tokens
+   * must start on the current line, and end at the current position unless they are empty.
+   */
+  void addToken(Token... tokens) {
+    for (int i = 0; i < tokens.length; ++i) {
+      Token token = tokens[i];
+      int start = 0;
+      int end = 0;
+      if (offsets != null) {
+        end = spans.offset(code);
+        start = end - code.getColumnPosition() + token.getColumn();
+        if (token.getOriginalValue().isEmpty() || token.getType() == GenericTokenType.EOF) {
+          end = start;
+        }
+      }
+      add(i == 0, token, start, end);
+    }
+  }
+
+  /**
+   * Adds a token scanned by a channel, which gets the trivia collected since the previous token.
+   * @param start the offset of the first character of the token
+   * @param end the offset of the character after the token
+   */
+  void addToken(Token token, int start, int end) {
+    add(true, token, start, end);
+  }
+
+  private void add(boolean first, Token token, int start, int end) {
+    if (first && (!trivia.isEmpty() || token.hasTrivia())) {
+      token = Token.builder(token).setTrivia(trivia).build();
+      trivia.clear();
+    }
+    observer.accept(token);
+    push(token);
+    lastTokenLine = token.getLine();
+    ++tokenCount;
+    if (offsets != null) {
+      offsets.add(start, end);
+    }
+  }
+
+  /**
+   * Inserts a token scanned by a channel in front of the token with the given number, which must still be held. The
+   * token takes the trivia of the one it is inserted before.
+   * @param tokenNumber the number of the token, as returned by {@link #getTokenCount()} before it was added
+   */
+  void insertToken(int tokenNumber, Token token) {
+    int index = tokenNumber - (tokenCount - size);
+    Token next = get(index);
+    if (next.hasTrivia()) {
+      token = Token.builder(token).setTrivia(next.getTrivia()).build();
+      set(index, Token.builder(next).setTrivia(Collections.emptyList()).build());
+    }
+    observer.accept(token);
+    push(token);
+    for (int i = size - 1; i > index; --i) {
+      set(i, get(i - 1));
+    }
+    set(index, token);
+    if (offsets != null) {
+      int start = offsets.getStart(firstOffset + tokenNumber);
+      offsets.insert(firstOffset + tokenNumber, start, start);
+    }
+    ++tokenCount;
+  }
+
+  void addTrivia(Trivia trivia) {
+    this.trivia.add(trivia);
+  }
+
+  /**
+   * The number of tokens scanned so far, including the inserted ones.
+   */
+  int getTokenCount() {
+    return tokenCount;
+  }
+
+  /**
+   * Tells whether the document may go on after the scanned input with a key starting a line at column 0: the input
+   * ends in the block context, where a simple key is allowed, and without a simple key still waiting for its
+   * {@code ':'}.
+   */
+  boolean endsInBlockContext() {
+    return state.flowLevel() == 0 && state.allowSimpleKey() && !state.hasRequiredSimpleKey();
+  }
+
+  /**
+   * The line of the last token scanned, or 0 if there is none yet.
+   */
+  int getLastTokenLine() {
+    return lastTokenLine;
+  }
+
+  /**
+   * Moves the next scanned token to the queue of tokens ready to be read, once no simple key may start at it.
+   * @return {@code false} if all the tokens have been read
+   */
+  private boolean release() {
+    while (!endOfInput && (size == 0 || state.nextPossibleSimpleKey() <= tokenCount - size)) {
+      scan();
+    }
+    if (size == 0) {
+      return false;
+    }
+    Token token = buffer[head];
+    if (token.getType() == GenericTokenType.EOF) {
+      // close the blocks still open at the end of the document
+      List<Token> blockEnds = unwinder.unwindIndent(-1, token.getLine(), token.getColumn(), token.getURI());
+      ready.addAll(blockEnds);
+      if (offsets != null) {
+        int eof = firstOffset + tokenCount - 1;
+        int start = offsets.getStart(eof);
+        for (int i = 0; i < blockEnds.size(); ++i) {
+          offsets.insert(eof, start, start);
+        }
+      }
+    }
+    ready.add(token);
+    buffer[head] = null;
+    head = (head + 1) % buffer.length;
+    --size;
+    return true;
+  }
+
+  /**
+   * Scans the next token, or skips the spaces before it.
+   */
+  private void scan() {
+    int c = code.peek();
+    if (c == -1) {
+      addToken(tokenBuilder
+        .setType(GenericTokenType.EOF)
+        .setValueAndOriginalValue("EOF")
+        .setURI(uri)
+        .setLine(code.getLinePosition())
+        .setColumn(code.getColumnPosition())
+        .build());
+      endOfInput = true;
+    } else if (c == ' ') {
+      do {
+        code.pop();
+      } while (code.peek() == ' ');
+    } else if (c == '#') {
+      comments.consume(code, this);
+    } else {
+      if (code.getLinePosition() != staledLine || code.getLinePosition() != unwoundLine) {
+        startLine();
+      }
+      if (fetch((char) c)) {
+        return;
+      }
+      char unknownChar = (char) code.pop();
+      addToken(tokenBuilder
+        .setType(GenericTokenType.UNKNOWN_CHAR)
+        .setValueAndOriginalValue(String.valueOf(unknownChar))
+        .setURI(uri)
+        .setLine(code.getLinePosition())
+        .setColumn(code.getColumnPosition() - 1)
+        .build());
+    }
+  }
+
+  /**
+   * Closes the blocks and drops the simple keys left behind by the first token of a line. The later tokens of the line
+   * cannot change them: they cannot end a simple key saved on the same line, and they stand right of the indentation
+   * set by the tokens before them. The indentation is ignored in the flow context, so it is unwound again once the
+   * flow collections of the line are closed.
+   */
+  private void startLine() {
+    int line = code.getLinePosition();
+    if (line != staledLine) {
+      state.stalePossibleSimpleKeys(code);
+      staledLine = line;
+    }
+    if (state.flowLevel() == 0) {
+      List<Token> blockEnds = unwinder.unwindIndent(code.getColumnPosition(), line, code.getColumnPosition(), uri);
+      if (!blockEnds.isEmpty()) {
+        addToken(blockEnds.toArray(new Token[0]));
+      }
+      unwoundLine = line;
+    }
+  }
+
+  /**
+   * Runs the channel of a token starting with the given character. The '-', '?' and ':' indicators are plain
+   * scalars when they are not followed by a blank.
+   * @return {@code false} if no token starts with the character
+   */
+  private boolean fetch(char c) {
+    switch (c) {
+      case '\n':
+      case '\r':
+      case '\u0085':
+      case '\u2028':
+      case '\u2029':
+        return lineBreaks.consume(code, this);
+      case '-':
+        return blockEntries.consume(code, this) || scalars.consume(code, this);
+      case '[':
+      case ']':
+      case '{':
+      case '}':
+      case ',':
+        return flowCollections.consume(code, this);
+      case '?':
+        return keys.consume(code, this) || scalars.consume(code, this);
+      case ':':
+        return values.consume(code, this) || scalars.consume(code, this);
+      case '&':
+      case '*':
+        return anchors.consume(code, this);
+      default:
+        return scalars.consume(code, this);
+    }
+  }
+
+  private Token get(int offset) {
+    return buffer[(head + offset) % buffer.length];
+  }
+
+  private void set(int offset, Token token) {
+    buffer[(head + offset) % buffer.length] = token;
+  }
+
+  private void push(Token token) {
+    if (size == buffer.length) {
+      Token[] grown = new Token[2 * buffer.length];
+      for (int i = 0; i < size; ++i) {
+        grown[i] = get(i);
+      }
+      buffer = grown;
+      head = 0;
+    }
+    buffer[(head + size) % buffer.length] = token;
+    ++size;
+  }
+}
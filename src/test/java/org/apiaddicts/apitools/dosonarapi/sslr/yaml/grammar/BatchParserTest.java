@@ -0,0 +1,161 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchParserTest {
+  private final YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).build();
+
+  @Test
+  public void parses_all_files() throws Exception {
+    List<Path> paths = Arrays.asList(resource("/parser/array.yaml"), resource("/parser/minimal.yaml"), resource("/parser/patterns.yaml"));
+
+    List<FileParseResult> results = parser.parseAll(paths, ForkJoinPool.commonPool()).collect(Collectors.toList());
+
+    assertThat(results).extracting(FileParseResult::getPath).containsOnlyElementsOf(paths).hasSize(3);
+    assertThat(results).allMatch(FileParseResult::isSuccess);
+    for (FileParseResult result : results) {
+      String expected = parser.parseResult(result.getPath().toFile()).getRoot().getTokenValue();
+      assertThat(result.getResult().getRoot().getTokenValue()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void reports_errors_per_file() throws Exception {
+    Path missing = Paths.get("does/not/exist.yaml");
+    Path valid = resource("/parser/minimal.yaml");
+
+    List<FileParseResult> results = parser.parseAll(Arrays.asList(missing, valid), ForkJoinPool.commonPool()).collect(Collectors.toList());
+
+    assertThat(results).hasSize(2);
+    FileParseResult failed = results.stream().filter(r -> r.getPath().equals(missing)).findFirst().get();
+    assertThat(failed.isSuccess()).isFalse();
+    assertThat(failed.getResult()).isNull();
+    assertThat(failed.getError()).hasMessageContaining("exist.yaml");
+    FileParseResult succeeded = results.stream().filter(r -> r.getPath().equals(valid)).findFirst().get();
+    assertThat(succeeded.isSuccess()).isTrue();
+  }
+
+  @Test
+  public void caps_parses_in_flight() throws Exception {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 20; ++i) {
+      paths.add(resource("/parser/array-compound.yaml"));
+    }
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    // counted inside the parse, so that a parse is done before its result is published and the next file submitted
+    YamlParser counting = new YamlParser(StandardCharsets.UTF_8) {
+      @Override
+      public ParseResult parseResult(File file) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          return super.parseResult(file);
+        } finally {
+          running.decrementAndGet();
+        }
+      }
+    };
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      long count = counting.parseAll(paths, pool, 3).filter(FileParseResult::isSuccess).count();
+
+      assertThat(count).isEqualTo(20);
+      assertThat(maxRunning.get()).isLessThanOrEqualTo(3);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void reports_stack_overflows_per_file() throws Exception {
+    Path deep = resource("/parser/array.yaml");
+    Path valid = resource("/parser/minimal.yaml");
+    YamlParser overflowing = new YamlParser(StandardCharsets.UTF_8) {
+      @Override
+      public ParseResult parseResult(File file) {
+        if (file.toPath().equals(deep)) {
+          throw new StackOverflowError();
+        }
+        return super.parseResult(file);
+      }
+    };
+
+    List<FileParseResult> results = overflowing.parseAll(Arrays.asList(deep, valid), ForkJoinPool.commonPool()).collect(Collectors.toList());
+
+    assertThat(results).hasSize(2);
+    FileParseResult failed = results.stream().filter(r -> r.getPath().equals(deep)).findFirst().get();
+    assertThat(failed.isSuccess()).isFalse();
+    assertThat(failed.getError()).hasCauseInstanceOf(StackOverflowError.class);
+    assertThat(results.stream().filter(r -> r.getPath().equals(valid)).findFirst().get().isSuccess()).isTrue();
+  }
+
+  @Test
+  public void cancels_the_queued_parses_when_the_stream_is_closed() throws Exception {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 10; ++i) {
+      paths.add(resource("/parser/minimal.yaml"));
+    }
+    AtomicInteger parsed = new AtomicInteger();
+    YamlParser counting = new YamlParser(StandardCharsets.UTF_8) {
+      @Override
+      public ParseResult parseResult(File file) {
+        parsed.incrementAndGet();
+        return super.parseResult(file);
+      }
+    };
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = queued::add;
+
+    try (Stream<FileParseResult> results = counting.parseAll(paths, executor, 3)) {
+      assertThat(queued).hasSize(3);
+      queued.remove(0).run();
+      Iterator<FileParseResult> iterator = results.iterator();
+      assertThat(iterator.next().isSuccess()).isTrue();
+      assertThat(queued).hasSize(3);
+    }
+    queued.forEach(Runnable::run);
+
+    assertThat(parsed.get()).isEqualTo(1);
+  }
+
+  private static Path resource(String name) throws URISyntaxException {
+    return new File(BatchParserTest.class.getResource(name).toURI()).toPath();
+  }
+}
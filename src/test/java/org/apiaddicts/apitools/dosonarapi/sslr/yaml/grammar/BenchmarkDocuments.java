@@ -0,0 +1,97 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+/**
+ * Synthetic documents shared by the benchmarks. They mimic the shape of an OpenAPI description: nested block mappings,
+ * block and flow sequences, plain, quoted and multi-line scalars, and comments.
+ */
+public final class BenchmarkDocuments {
+  private BenchmarkDocuments() {
+    // utility class
+  }
+
+  /**
+   * Builds a YAML document.
+   * @param operations the number of path entries in the document, each describing one operation
+   * @return the document text
+   */
+  public static String yaml(int operations) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("# Generated benchmark document\n");
+    sb.append("openapi: \"3.0.1\"\n");
+    sb.append("info:\n");
+    sb.append("  title: Benchmark API\n");
+    sb.append("  version: 1.0.0\n");
+    sb.append("  description: |\n");
+    sb.append("    A generated description spanning\n");
+    sb.append("    several lines of text.\n");
+    sb.append("paths:\n");
+    for (int i = 0; i < operations; ++i) {
+      sb.append("  /resources/").append(i).append("/{id}:\n");
+      sb.append("    get:\n");
+      sb.append("      operationId: 'getResource").append(i).append("'\n");
+      sb.append("      tags: [ resources, generated, \"v1\" ]\n");
+      sb.append("      deprecated: false # not yet\n");
+      sb.append("      parameters:\n");
+      sb.append("        - name: id\n");
+      sb.append("          in: path\n");
+      sb.append("          required: true\n");
+      sb.append("          schema:\n");
+      sb.append("            type: integer\n");
+      sb.append("            minimum: ").append(i).append("\n");
+      sb.append("            maximum: 1.5e3\n");
+      sb.append("      responses:\n");
+      sb.append("        '200':\n");
+      sb.append("          description: >\n");
+      sb.append("            The resource with the\n");
+      sb.append("            requested identifier.\n");
+      sb.append("          content: { application/json: { schema: { $ref: \"#/components/schemas/R").append(i).append("\" } } }\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Builds a JSON document with the same content model as {@link #yaml(int)}.
+   * @param operations the number of path entries in the document
+   * @return the document text
+   */
+  public static String json(int operations) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\n  \"openapi\": \"3.0.1\",\n");
+    sb.append("  \"info\": { \"title\": \"Benchmark API\", \"version\": \"1.0.0\" },\n");
+    sb.append("  \"paths\": {\n");
+    for (int i = 0; i < operations; ++i) {
+      sb.append("    \"/resources/").append(i).append("/{id}\": {\n");
+      sb.append("      \"get\": {\n");
+      sb.append("        \"operationId\": \"getResource").append(i).append("\",\n");
+      sb.append("        \"tags\": [ \"resources\", \"generated\", \"v1\" ],\n");
+      sb.append("        \"deprecated\": false,\n");
+      sb.append("        \"parameters\": [ { \"name\": \"id\", \"in\": \"path\", \"required\": true,\n");
+      sb.append("          \"schema\": { \"type\": \"integer\", \"minimum\": ").append(i).append(", \"maximum\": 1500.0 } } ],\n");
+      sb.append("        \"responses\": { \"200\": { \"description\": \"The resource with the\\nrequested identifier.\",\n");
+      sb.append("          \"content\": { \"application/json\": { \"schema\": { \"$ref\": \"#/components/schemas/R").append(i).append("\" } } } } }\n");
+      sb.append("      }\n");
+      sb.append(i + 1 < operations ? "    },\n" : "    }\n");
+    }
+    sb.append("  }\n}\n");
+    return sb.toString();
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import java.io.File;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.YamlGrammarBuilderTest.TestGrammar.ROOT;
+
+public class ParseLimitsTest {
+
+  @Test
+  public void rejects_large_documents() {
+    YamlParser parser = parser(ParseLimits.builder().withMaxBytes(10).build(), InputFormat.AUTO);
+
+    assertThat(parser.parse("p1: v1").propertyMap()).containsOnlyKeys("p1");
+    assertExceeded(() -> parser.parse("p1: v1\np2: v2"), ParseLimits.Limit.BYTES);
+    assertExceeded(() -> parser.parse(new File("src/test/resources/parser/array.yaml")), ParseLimits.Limit.BYTES);
+  }
+
+  @Test
+  public void rejects_documents_with_too_many_tokens() {
+    ParseLimits limits = ParseLimits.builder().withMaxTokens(100).build();
+    String yaml = BenchmarkDocuments.yaml(1);
+    String json = BenchmarkDocuments.json(1);
+
+    for (ParserImplementation implementation : ParserImplementation.values()) {
+      YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withParserImplementation(implementation)
+        .withParseLimits(limits).build();
+      assertExceeded(() -> parser.parse(yaml), ParseLimits.Limit.TOKENS);
+      assertExceeded(() -> parser.parse(json), ParseLimits.Limit.TOKENS);
+      assertThat(parser.parse("[ 1, 2, 3 ]").elements()).hasSize(3);
+    }
+    assertExceeded(() -> parser(limits, InputFormat.YAML).parse(json), ParseLimits.Limit.TOKENS);
+    assertExceeded(() -> parser(limits, InputFormat.AUTO).parseDocuments(new StringReader(yaml)).count(), ParseLimits.Limit.TOKENS);
+  }
+
+  @Test
+  public void rejects_deep_nesting_before_building_the_tree() {
+    StringBuilder document = new StringBuilder();
+    for (int i = 0; i < 10000; ++i) {
+      document.append('[');
+    }
+    for (int i = 0; i < 10000; ++i) {
+      document.append(']');
+    }
+    ParseLimits limits = ParseLimits.builder().withMaxDepth(10).build();
+
+    assertExceeded(() -> parser(limits, InputFormat.AUTO).parse(document.toString()), ParseLimits.Limit.DEPTH);
+    assertExceeded(() -> parser(limits, InputFormat.YAML).parse(document.toString()), ParseLimits.Limit.DEPTH);
+    assertExceeded(() -> parser(limits, InputFormat.AUTO).parse("a:\n b:\n  c:\n   d:\n    e:\n     f:\n      g:\n       h:\n        i:\n         j:\n          k: v"),
+      ParseLimits.Limit.DEPTH);
+    assertThat(parser(limits, InputFormat.AUTO).parse("a: [ [ { b: c } ] ]").at("/a/0/0/b").stringValue()).isEqualTo("c");
+  }
+
+  @Test
+  public void rejects_alias_expansion() {
+    StringBuilder document = new StringBuilder("a0: &a0 [ lol, lol, lol, lol, lol, lol, lol, lol, lol, lol ]\n");
+    for (int i = 1; i < 10; ++i) {
+      document.append('a').append(i).append(": &a").append(i).append(" [");
+      for (int j = 0; j < 10; ++j) {
+        document.append(j == 0 ? " *a" : ", *a").append(i - 1);
+      }
+      document.append(" ]\n");
+    }
+    ParseLimits limits = ParseLimits.builder().withMaxAliasExpansion(100_000).build();
+
+    assertThat(parser(ParseLimits.NONE, InputFormat.AUTO).parse(document.toString()).at("/a9/9/9/9/9/9/9/9/9/9/9").stringValue())
+      .isEqualTo("lol");
+    for (ParserImplementation implementation : ParserImplementation.values()) {
+      YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withParserImplementation(implementation)
+        .withParseLimits(limits).build();
+      assertExceeded(() -> parser.parse(document.toString()), ParseLimits.Limit.ALIAS_EXPANSION);
+      assertThat(parser.parse("a: &a [ 1, 2 ]\nb: *a").at("/b/1").intValue()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void rejects_long_validations() {
+    YamlGrammarBuilder b = new YamlGrammarBuilder();
+    b.setRootRule(ROOT);
+    b.rule(ROOT).is(b.object(b.property("items", b.array(b.firstOf(b.integer(), b.bool(), b.string())))));
+    StringBuilder document = new StringBuilder("items:\n");
+    for (int i = 0; i < 100; ++i) {
+      document.append("  - item").append(i).append('\n');
+    }
+    YamlParser.Builder builder = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withGrammar(b);
+
+    assertThat(builder.build().parse(document.toString()).at("/items").elements()).hasSize(100);
+    YamlParser parser = builder.withParseLimits(ParseLimits.builder().withMaxValidationSteps(100).build()).build();
+    assertExceeded(() -> parser.parseResult(document.toString()), ParseLimits.Limit.VALIDATION_STEPS);
+  }
+
+  @Test
+  public void rejects_slow_documents() {
+    YamlParser parser = parser(ParseLimits.builder().withTimeout(Duration.ofNanos(1)).build(), InputFormat.AUTO);
+
+    assertExceeded(() -> parser.parse(BenchmarkDocuments.yaml(20)), ParseLimits.Limit.TIME);
+    assertExceeded(() -> parser.parse(BenchmarkDocuments.json(20)), ParseLimits.Limit.TIME);
+  }
+
+  @Test
+  public void checks_the_chunks_lexed_in_parallel() {
+    ParseBudget budget = new ParseBudget(ParseLimits.builder().withMaxTokens(300).withMaxDepth(1).build());
+    Supplier<Consumer<Token>> chunkBudgets = budget.chunkBudgets();
+    Consumer<Token> first = chunkBudgets.get();
+    Consumer<Token> second = chunkBudgets.get();
+
+    // each chunk starts at the root of the document
+    first.accept(token(Tokens.BLOCK_MAPPING_START));
+    second.accept(token(Tokens.BLOCK_MAPPING_START));
+    assertExceeded(() -> first.accept(token(Tokens.FLOW_SEQUENCE_START)), ParseLimits.Limit.DEPTH);
+    // the tokens of the chunks are counted together
+    for (int i = 0; i < 255; ++i) {
+      first.accept(token(Tokens.STRING));
+    }
+    for (int i = 0; i < 254; ++i) {
+      second.accept(token(Tokens.STRING));
+    }
+    assertExceeded(() -> second.accept(token(Tokens.STRING)), ParseLimits.Limit.TOKENS);
+  }
+
+  @Test
+  public void requires_positive_limits() {
+    assertThat(catchThrowable(() -> ParseLimits.builder().withMaxTokens(0))).isInstanceOf(IllegalArgumentException.class);
+    assertThat(catchThrowable(() -> ParseLimits.builder().withMaxAliasExpansion(0))).isInstanceOf(IllegalArgumentException.class);
+    assertThat(catchThrowable(() -> ParseLimits.builder().withTimeout(Duration.ZERO))).isInstanceOf(IllegalArgumentException.class);
+    assertThat(ParseLimits.NONE.getTimeout()).isNull();
+    assertThat(ParseLimits.NONE.getMaxDepth()).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  private static YamlParser parser(ParseLimits limits, InputFormat inputFormat) {
+    return YamlParser.builder().withCharset(StandardCharsets.UTF_8).withInputFormat(inputFormat).withParseLimits(limits).build();
+  }
+
+  private static Token token(TokenType type) {
+    return Token.builder().setType(type).setValueAndOriginalValue("").setURI(URI.create("tests://unittest")).setLine(1)
+      .setColumn(0).build();
+  }
+
+  private static void assertExceeded(Runnable parse, ParseLimits.Limit limit) {
+    Throwable thrown = catchThrowable(parse::run);
+
+    assertThat(thrown).isInstanceOf(ParseLimitExceededException.class);
+    assertThat(((ParseLimitExceededException) thrown).getLimit()).isEqualTo(limit);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.Rule;
+import com.sonar.sslr.api.Token;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.sslr.internal.vm.CompilableGrammarRule;
+import org.sonar.sslr.internal.vm.CompiledGrammar;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.MutableGrammarCompiler;
+
+/**
+ * Compares a parse that compiles the YAML grammar for every document, as {@link YamlParser} used to do, with a parse
+ * that uses the grammar compiled once by a shared {@link ParserEngine}. Also compares the {@link ParserImplementation}s
+ * on already lexed tokens, and the lexing of a token list with the streaming parse (run with {@code -prof gc} to
+ * compare the allocations).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserEngineBenchmark {
+  @Param({"1", "50"})
+  private int operations;
+
+  private String document;
+  private List<Token> tokens;
+  private ParserEngine engine;
+  private ParserEngine recursiveDescentEngine;
+  private ParserEngine streamingEngine;
+
+  @Setup
+  public void setUp() {
+    document = BenchmarkDocuments.yaml(operations);
+    engine = YamlParser.builder().withCharset(StandardCharsets.UTF_8).buildEngine();
+    recursiveDescentEngine = YamlParser.builder().withCharset(StandardCharsets.UTF_8)
+      .withParserImplementation(ParserImplementation.RECURSIVE_DESCENT).buildEngine();
+    streamingEngine = YamlParser.builder().withCharset(StandardCharsets.UTF_8)
+      .withParserImplementation(ParserImplementation.STREAMING).buildEngine();
+    tokens = engine.newLexer().lex(document);
+  }
+
+  @Benchmark
+  public JsonNode compileGrammarPerParse() {
+    List<Token> tokens = engine.newLexer().lex(document);
+    Rule rootRule = YamlGrammar.create().build().getRootRule();
+    CompiledGrammar grammar = MutableGrammarCompiler.compile((CompilableGrammarRule) rootRule);
+    return (JsonNode) JsonAstCreator.create(Machine.parse(tokens, grammar), tokens).getFirstChild();
+  }
+
+  @Benchmark
+  public JsonNode sharedEngine() {
+    return engine.parseAst(engine.newLexer().lex(document));
+  }
+
+  @Benchmark
+  public JsonNode machineTokensToTree() {
+    return engine.parseAst(tokens);
+  }
+
+  @Benchmark
+  public JsonNode recursiveDescentTokensToTree() {
+    return recursiveDescentEngine.parseAst(tokens);
+  }
+
+  @Benchmark
+  public JsonNode recursiveDescentTextToTree() {
+    return recursiveDescentEngine.parse(document);
+  }
+
+  @Benchmark
+  public JsonNode streamingTextToTree() {
+    return streamingEngine.parse(document);
+  }
+
+  @Benchmark
+  public JsonNode yamlParser() {
+    return new YamlParser(engine, false).parse(document);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ParserEngineBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.AstNode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ObjectNode;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParserEngineTest {
+
+  @Test
+  public void parses_with_shared_grammar() {
+    ParserEngine engine = ParserEngine.create(StandardCharsets.UTF_8, null);
+
+    JsonNode first = engine.parseAst(engine.newLexer().lex("p1: v1"));
+    JsonNode second = engine.parseAst(engine.newLexer().lex("p2: [ v2 ]"));
+
+    assertThat(first).isInstanceOf(ObjectNode.class);
+    assertThat(first.propertyMap()).containsOnlyKeys("p1");
+    assertThat(second.at("/p2").elements()).extracting(JsonNode::stringValue).containsExactly("v2");
+  }
+
+  @Test
+  public void parsers_share_engine_across_threads() throws Exception {
+    ParserEngine engine = YamlParser.builder().withCharset(StandardCharsets.UTF_8).buildEngine();
+    String document = BenchmarkDocuments.yaml(20);
+    String expected = dump(new YamlParser(engine, false).parse(document));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Callable<String>> tasks = new ArrayList<>();
+      for (int i = 0; i < 16; ++i) {
+        tasks.add(() -> dump(new YamlParser(engine, false).parse(document)));
+      }
+      for (Future<String> result : executor.invokeAll(tasks)) {
+        assertThat(result.get()).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void parses_json_with_either_scanner() {
+    ParserEngine yaml = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withInputFormat(InputFormat.YAML).buildEngine();
+    ParserEngine json = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withInputFormat(InputFormat.JSON).buildEngine();
+    ParserEngine auto = YamlParser.builder().withCharset(StandardCharsets.UTF_8).buildEngine();
+    String document = BenchmarkDocuments.json(5);
+
+    assertThat(auto.getInputFormat()).isEqualTo(InputFormat.AUTO);
+    assertThat(dump(json.parse(document))).isEqualTo(dump(yaml.parse(document)));
+    assertThat(dump(auto.parse(document))).isEqualTo(dump(yaml.parse(document)));
+    // documents that are not JSON are read by the YAML lexer
+    assertThat(dump(json.parse("p: [ v ]"))).isEqualTo(dump(yaml.parse("p: [ v ]")));
+  }
+
+  private static String dump(JsonNode node) {
+    StringBuilder sb = new StringBuilder();
+    dump(node, sb);
+    return sb.toString();
+  }
+
+  private static void dump(AstNode node, StringBuilder sb) {
+    sb.append(node.getName()).append('@').append(node.getTokenLine()).append('[').append(node.getTokenOriginalValue());
+    for (AstNode child : node.getChildren()) {
+      dump(child, sb);
+    }
+    sb.append(']');
+  }
+}
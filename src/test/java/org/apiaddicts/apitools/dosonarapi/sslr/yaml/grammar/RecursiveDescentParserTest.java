@@ -0,0 +1,158 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecursiveDescentParserTest {
+  private final ParserEngine machine = ParserEngine.create(StandardCharsets.UTF_8, null, ParserImplementation.SSLR_MACHINE);
+  private final ParserEngine recursiveDescent = ParserEngine.create(StandardCharsets.UTF_8, null, ParserImplementation.RECURSIVE_DESCENT);
+
+  @Test
+  public void builds_same_trees_as_machine_on_resources() throws Exception {
+    List<Path> resources;
+    try (Stream<Path> files = Files.walk(new File(RecursiveDescentParserTest.class.getResource("/").toURI()).toPath())) {
+      resources = files.filter(p -> p.toString().endsWith(".yaml") || p.toString().endsWith(".json"))
+        .filter(p -> !p.endsWith("multi-document.yaml"))
+        .collect(Collectors.toList());
+    }
+    assertThat(resources).isNotEmpty();
+
+    for (Path resource : resources) {
+      assertSameResult(machine.newLexer().lex(resource.toFile()));
+    }
+  }
+
+  @Test
+  public void builds_same_trees_as_machine_on_snippets() {
+    String[] snippets = {
+      "",
+      "# only a comment",
+      "42",
+      "p1: v1",
+      "p1:\n  - a\n  - b\np2: v2",
+      "- a\n- b: c\n  d: e\n-\n- [x, y]",
+      "[ a, b, ]",
+      "[]",
+      "{ a: b, c, d: }",
+      "{ }",
+      "[ a: b, { c: [ d ] } ]",
+      "? complex\n: value",
+      "p1:\np2: ~\np3: true",
+      "p1: |\n  literal\np2: >\n  folded\n",
+      "p1:\n- a\n- b\np2:\n  - c"
+    };
+    for (String snippet : snippets) {
+      assertSameResult(machine.newLexer().lex(snippet));
+    }
+  }
+
+  @Test
+  public void reports_same_errors_as_machine() {
+    Random random = new Random(42);
+    TokenType[] alphabet = {
+      Tokens.BLOCK_SEQUENCE_START, Tokens.BLOCK_MAPPING_START, Tokens.BLOCK_END, Tokens.BLOCK_ENTRY, Tokens.STRING,
+      Tokens.NULL, Tokens.FLOW_MAPPING_START, Tokens.FLOW_SEQUENCE_START, Tokens.FLOW_MAPPING_END,
+      Tokens.FLOW_SEQUENCE_END, Tokens.FLOW_ENTRY, Tokens.KEY, Tokens.VALUE
+    };
+    int failures = 0;
+    for (int i = 0; i < 20000; ++i) {
+      List<Token> tokens = new ArrayList<>();
+      int length = random.nextInt(12);
+      for (int j = 0; j < length; ++j) {
+        tokens.add(token(alphabet[random.nextInt(alphabet.length)], j));
+      }
+      tokens.add(token(GenericTokenType.EOF, length));
+      if (!assertSameResult(tokens)) {
+        ++failures;
+      }
+    }
+    // make sure both the success and the error paths are covered
+    assertThat(failures).isBetween(1000, 19000);
+  }
+
+  private boolean assertSameResult(List<Token> tokens) {
+    String expected;
+    boolean success = true;
+    try {
+      expected = dump(machine.parseAst(tokens).getParent());
+    } catch (RecognitionException e) {
+      expected = e.getLine() + ": " + e.getMessage();
+      success = false;
+    }
+    String actual;
+    try {
+      actual = dump(recursiveDescent.parseAst(tokens).getParent());
+    } catch (RecognitionException e) {
+      actual = e.getLine() + ": " + e.getMessage();
+    }
+    assertThat(actual).as(tokens.toString()).isEqualTo(expected);
+    return success;
+  }
+
+  private static Token token(TokenType type, int column) {
+    return Token.builder()
+      .setType(type)
+      .setValueAndOriginalValue(type == Tokens.STRING ? "s" : type.getValue())
+      .setURI(URI.create("tests://unittest"))
+      .setLine(1)
+      .setColumn(column * 20)
+      .build();
+  }
+
+  private static String dump(AstNode node) {
+    StringBuilder sb = new StringBuilder();
+    dump(node, sb, 0);
+    return sb.toString();
+  }
+
+  private static void dump(AstNode node, StringBuilder sb, int depth) {
+    for (int i = 0; i < depth; ++i) {
+      sb.append("  ");
+    }
+    sb.append(node.getClass().getSimpleName()).append(' ').append(node.getType()).append(' ').append(node.getName())
+      .append(" [").append(node.getFromIndex()).append(", ").append(node.getToIndex()).append("] ")
+      .append(node.getToken() == null ? "-" : Integer.toHexString(System.identityHashCode(node.getToken())))
+      .append(node.getParent() == null ? "" : " #" + node.getParent().getChildren().indexOf(node))
+      .append('\n');
+    for (AstNode child : node.getChildren()) {
+      dump(child, sb, depth + 1);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.LexerOptions;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.YamlScanner;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ScannerInputTest {
+  private final ParserEngine recursiveDescent = ParserEngine.create(StandardCharsets.UTF_8, null, ParserImplementation.RECURSIVE_DESCENT);
+  private final ParserEngine streaming = ParserEngine.create(StandardCharsets.UTF_8, null, ParserImplementation.STREAMING);
+
+  @Test
+  public void parses_resources_as_the_token_list() throws Exception {
+    List<Path> resources;
+    try (Stream<Path> files = Files.walk(new File(ScannerInputTest.class.getResource("/").toURI()).toPath())) {
+      resources = files.filter(p -> p.toString().endsWith(".yaml") || p.toString().endsWith(".json"))
+        .filter(p -> !p.endsWith("multi-document.yaml"))
+        .collect(Collectors.toList());
+    }
+    assertThat(resources).isNotEmpty();
+
+    for (Path resource : resources) {
+      String expected;
+      try {
+        expected = dump(recursiveDescent.parseAst(recursiveDescent.newLexer().lex(resource.toFile())).getParent());
+      } catch (RecognitionException e) {
+        expected = e.getMessage();
+      }
+      try (InputStreamReader reader = new InputStreamReader(Files.newInputStream(resource), StandardCharsets.UTF_8)) {
+        String actual;
+        try {
+          actual = dump(RecursiveDescentParser.parse(new ScannerInput(new YamlScanner(reader, resource.toFile().toURI()))));
+        } catch (RecognitionException e) {
+          actual = e.getMessage();
+        }
+        assertThat(actual).as(resource.toString()).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  public void reports_syntax_errors_in_a_single_pass() {
+    String document = "p1: [ v1\np2: v2\np3: v3";
+    List<Token> scanned = new ArrayList<>();
+    ScannerInput input = new ScannerInput(new YamlScanner(document, URI.create("tests://unittest"), scanned::add,
+      LexerOptions.DEFAULT, null));
+
+    Throwable error = catchThrowable(() -> RecursiveDescentParser.parse(input));
+
+    assertThat(error).isInstanceOf(RecognitionException.class)
+      .hasMessage(catchThrowable(() -> recursiveDescent.parse(document)).getMessage());
+    assertThat(scanned).hasSize(streaming.newLexer().lex(document).size());
+  }
+
+  @Test
+  public void reports_same_errors_as_token_list() {
+    String[] documents = {"p1: [ v1\np2: v2", "p1: v1\n  p2: v2", "- a\nb: c", "{ a: b", "p1: [ v1\np2: 'v2"};
+    for (String document : documents) {
+      Throwable expected = catchThrowable(() -> recursiveDescent.parse(document));
+      Throwable actual = catchThrowable(() -> streaming.parse(document));
+
+      assertThat(actual).as(document).isNotNull().hasSameClassAs(expected).hasMessage(expected.getMessage());
+      if (actual instanceof RecognitionException) {
+        assertThat(((RecognitionException) actual).getLine()).isEqualTo(((RecognitionException) expected).getLine());
+      }
+    }
+  }
+
+  @Test
+  public void parses_files() throws Exception {
+    File file = new File(ScannerInputTest.class.getResource("/parser/mapped-properties.yaml").toURI());
+
+    String expected = dump(recursiveDescent.parse(file).getParent());
+
+    assertThat(dump(streaming.parse(file).getParent())).isEqualTo(expected);
+  }
+
+  private static String dump(AstNode node) {
+    StringBuilder sb = new StringBuilder();
+    dump(node, sb, 0);
+    return sb.toString();
+  }
+
+  private static void dump(AstNode node, StringBuilder sb, int depth) {
+    for (int i = 0; i < depth; ++i) {
+      sb.append("  ");
+    }
+    sb.append(node.getClass().getSimpleName()).append(' ').append(node.getType())
+      .append(" [").append(node.getFromIndex()).append(", ").append(node.getToIndex()).append("] ");
+    Token token = node.getToken();
+    if (token != null) {
+      sb.append(token.getType()).append(' ').append(token.getValue()).append(' ').append(token.getOriginalValue())
+        .append(' ').append(token.getLine()).append(':').append(token.getColumn()).append(' ').append(token.getURI());
+      token.getTrivia().forEach(t -> sb.append(" #").append(t.getToken().getValue()).append('@').append(t.getToken().getLine()));
+    }
+    sb.append('\n');
+    for (AstNode child : node.getChildren()) {
+      dump(child, sb, depth + 1);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SourceDecoderTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void widens_ascii_bytes() {
+    assertThat(decode("key: value\n", StandardCharsets.UTF_8)).isEqualTo("key: value\n");
+    assertThat(decode("key: value\n", StandardCharsets.US_ASCII)).isEqualTo("key: value\n");
+  }
+
+  @Test
+  public void decodes_the_rest_after_a_non_ascii_byte() {
+    String text = "key: caf\u00e9 \u20ac \ud83d\ude00\nnext: value\n";
+
+    assertThat(decode(text, StandardCharsets.UTF_8)).isEqualTo(text);
+    assertThat(decode("caf\u00e9", StandardCharsets.ISO_8859_1)).isEqualTo("caf\u00e9");
+    assertThat(decode(text, StandardCharsets.UTF_16)).isEqualTo(text);
+  }
+
+  @Test
+  public void wraps_arrays_of_the_length_of_the_text() {
+    String text = "key: caf\u00e9\n";
+    for (Charset charset : new Charset[] {StandardCharsets.US_ASCII, StandardCharsets.UTF_8, StandardCharsets.UTF_16}) {
+      CharBuffer chars = SourceDecoder.decode(ByteBuffer.wrap(text.getBytes(charset)), charset);
+
+      assertThat(chars.arrayOffset()).isZero();
+      assertThat(chars.position()).isZero();
+      assertThat(chars.array()).hasSize(chars.limit());
+    }
+  }
+
+  @Test
+  public void replaces_malformed_input() {
+    byte[] bytes = {'a', (byte) 0xC3, 'b', (byte) 0xFF};
+
+    assertThat(SourceDecoder.decode(ByteBuffer.wrap(bytes), StandardCharsets.UTF_8).toString())
+      .isEqualTo(new String(bytes, StandardCharsets.UTF_8));
+    assertThat(SourceDecoder.decode(ByteBuffer.wrap(bytes), StandardCharsets.US_ASCII).toString())
+      .isEqualTo(new String(bytes, StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void reads_small_and_mapped_files() throws IOException {
+    String small = "p1: v\u00e9\n";
+    StringBuilder large = new StringBuilder();
+    while (large.length() <= SourceDecoder.MAPPING_THRESHOLD) {
+      large.append("p").append(large.length()).append(": v\u00e9\n");
+    }
+
+    assertThat(read(small)).isEqualTo(small);
+    assertThat(read(large.toString())).isEqualTo(large.toString());
+    assertThat(read("")).isEmpty();
+  }
+
+  private static String decode(String text, Charset charset) {
+    return SourceDecoder.decode(ByteBuffer.wrap(text.getBytes(charset)), charset).toString();
+  }
+
+  private String read(String text) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    try (FileChannel channel = FileChannel.open(file.toPath())) {
+      return SourceDecoder.decode(channel, StandardCharsets.UTF_8).toString();
+    }
+  }
+}
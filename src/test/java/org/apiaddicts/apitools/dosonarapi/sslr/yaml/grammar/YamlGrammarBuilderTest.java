@@ -27,6 +27,7 @@ import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.AliasNode;
 
 import org.assertj.core.api.Assertions;
 import org.junit.Assert;
@@ -248,6 +249,40 @@ public class YamlGrammarBuilderTest {
     assertThat(node.propertyMap().keySet()).containsExactlyInAnyOrder("p1", "recurse", "p2");
   }
 
+  @Test
+  public void validates_aliases_as_their_anchored_nodes() {
+    b.rule(CHILD1).is(yb.object(yb.mandatoryProperty("c1", b.string())));
+    b.rule(ROOT).is(yb.object(yb.patternProperty(".*", CHILD1)));
+    b.setRootRule(ROOT);
+
+    JsonNode node = parseText(yb, "first: &child\n  c1: v1\nsecond: *child");
+
+    assertThat(node.at("/second/c1").stringValue()).isEqualTo("v1");
+    assertThat(node.at("/first").getType()).isEqualTo(CHILD1);
+  }
+
+  @Test
+  public void validates_aliases_against_the_parsed_type_of_their_anchored_nodes() {
+    b.rule(CHILD1).is(yb.scalar());
+    b.rule(ROOT).is(yb.object(yb.patternProperty(".*", CHILD1)));
+    b.setRootRule(ROOT);
+
+    JsonNode node = parseText(yb, "first: &value v1\nsecond: *value");
+
+    assertThat(node.at("/first").getType()).isEqualTo(CHILD1);
+    assertThat(((AliasNode) node.at("/second")).getAnchoredType()).isEqualTo(YamlGrammar.SCALAR);
+    assertThat(node.at("/second").stringValue()).isEqualTo("v1");
+  }
+
+  @Test(expected = ValidationException.class)
+  public void rejects_aliases_of_anchored_nodes_of_another_type() {
+    b.rule(CHILD1).is(yb.object(yb.property("c1", b.string())));
+    b.rule(ROOT).is(yb.object(yb.property("first", CHILD1), yb.property("second", yb.scalar())));
+    b.setRootRule(ROOT);
+
+    parseText(yb, "first: &child\n  c1: v1\nsecond: *child");
+  }
+
   @Test
   public void can_report_dual_property_errors() {
     b.rule(ROOT).is(b.object(
@@ -20,8 +20,27 @@
 package org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar;
 
 import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.RecognitionException;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.ScalarSchema;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.StringInterning;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens;
 import org.junit.Test;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.AliasNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ArrayNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ObjectNode;
 import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.PropertyNode;
@@ -31,6 +50,8 @@ import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.impl.ValidationTestB
 
 import static com.sonar.sslr.api.GenericTokenType.EOF;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.fail;
 import static org.assertj.core.api.Assertions.tuple;
 
 public class YamlParserTest extends ValidationTestBase {
@@ -110,4 +131,326 @@ public class YamlParserTest extends ValidationTestBase {
     assertThat(jsonNode.getType()).isEqualTo(YamlGrammar.SCALAR);
     assertThat(jsonNode.isNull()).isTrue();
   }
+
+  @Test
+  public void resolves_scalars_with_the_selected_schema() {
+    String document = "hex: 0x1F\ninfinite: -.inf\nempty: ~\nflag: yes\n";
+    JsonNode yaml11 = YamlParser.builder().build().parse(document);
+    JsonNode core = YamlParser.builder().withScalarSchema(ScalarSchema.CORE).build().parse(document);
+    JsonNode json = YamlParser.builder().withScalarSchema(ScalarSchema.CORE).withInputFormat(InputFormat.JSON).build()
+      .parse("{\"hex\": 0x1F, \"count\": 1e3}");
+
+    assertThat(yaml11.at("/hex").getToken().getType()).isEqualTo(Tokens.STRING);
+    assertThat(yaml11.at("/flag").booleanValue()).isTrue();
+    assertThat(core.at("/hex").intValue()).isEqualTo(31);
+    assertThat(core.at("/infinite").floatValue()).isEqualTo(Double.NEGATIVE_INFINITY);
+    assertThat(core.at("/empty").isNull()).isTrue();
+    assertThat(core.at("/flag").getToken().getType()).isEqualTo(Tokens.STRING);
+    assertThat(json.at("/hex").intValue()).isEqualTo(31);
+    assertThat(json.at("/count").getToken().getType()).isEqualTo(Tokens.FLOAT);
+  }
+
+  @Test
+  public void shares_the_strings_of_repeated_scalars() {
+    for (ParserImplementation implementation : ParserImplementation.values()) {
+      YamlParser parser = YamlParser.builder().withParserImplementation(implementation).withStringInterning(StringInterning.DOCUMENT).build();
+
+      JsonNode yaml = parser.parse("a:\n  type: string\nb:\n  type: string\n");
+      JsonNode json = parser.parse("{\"a\": {\"type\": \"string\"}, \"b\": {\"type\": \"string\"}}");
+
+      assertThat(yaml.at("/b/type").stringValue()).isSameAs(yaml.at("/a/type").stringValue());
+      assertThat(yaml.at("/b").propertyNames()).containsExactly("type");
+      assertThat(yaml.at("/b").propertyNames().get(0)).isSameAs(yaml.at("/a").propertyNames().get(0));
+      assertThat(json.at("/b/type").stringValue()).isSameAs(json.at("/a/type").stringValue());
+    }
+  }
+
+  @Test
+  public void returns_parse_result_with_metrics() {
+    YamlParser parser = new YamlParser(StandardCharsets.UTF_8);
+
+    ParseResult result = parser.parseResult("p1: v1");
+
+    assertThat(result.getRoot()).isInstanceOf(ObjectNode.class);
+    assertThat(result.getRoot().at("/p1").stringValue()).isEqualTo("v1");
+    assertThat(result.getIssues()).isEmpty();
+    // BLOCK_MAPPING_START, KEY, p1, VALUE, v1, BLOCK_END, EOF
+    assertThat(result.getTokenCount()).isEqualTo(7);
+    // the mapping, its start and end tokens, the property with its 4 children, and the EOF
+    assertThat(result.getNodeCount()).isEqualTo(9);
+  }
+
+  @Test
+  public void skips_comments_on_demand() {
+    assertThat(YamlParser.builder().withComments(false).buildEngine().getLexerOptions().keepsComments()).isFalse();
+    for (ParserImplementation implementation : ParserImplementation.values()) {
+      YamlParser parser = YamlParser.builder().withParserImplementation(implementation).withComments(false).build();
+
+      ParseResult result = parser.parseResult("# header\np1: v1 # trailing\n# last\n");
+
+      assertThat(result.getRoot().at("/p1").stringValue()).isEqualTo("v1");
+      assertThat(result.getRoot().getToken().hasTrivia()).isFalse();
+      assertThat(result.getRoot().getLastChild().getType()).isEqualTo(Tokens.BLOCK_END);
+      // the same nodes as with the comments, but the EOF
+      assertThat(result.getNodeCount()).isEqualTo(8);
+    }
+  }
+
+  @Test
+  public void lexes_large_documents_in_parallel() {
+    AtomicInteger chunks = new AtomicInteger();
+    Executor executor = command -> {
+      chunks.incrementAndGet();
+      command.run();
+    };
+    assertThat(YamlParser.builder().withParallelLexing(executor).buildEngine().getLexerOptions().getLexingExecutor()).isSameAs(executor);
+    // three chunks of a megabyte
+    StringBuilder document = new StringBuilder();
+    for (int i = 0; document.length() < 2_500_000; ++i) {
+      document.append("# schema ").append(i).append("\nschema").append(i).append(":\n  type: object\n  required: [id]\n");
+    }
+
+    ParseResult sequential = YamlParser.builder().build().parseResult(document.toString());
+    ParseResult parallel = YamlParser.builder().withParallelLexing(executor).build().parseResult(document.toString());
+
+    assertThat(chunks.get()).isEqualTo(2);
+    assertThat(parallel.getTokenCount()).isEqualTo(sequential.getTokenCount());
+    assertThat(parallel.getNodeCount()).isEqualTo(sequential.getNodeCount());
+    assertThat(parallel.getRoot().at("/schema40000/required/0").getToken().getLine()).isEqualTo(160004);
+    // the comment before a key is held by the end of the previous schema
+    assertThat(parallel.getRoot().at("/schema39999").getLastChild().getToken().getTrivia()).extracting(trivia -> trivia.getToken().getLine())
+      .containsExactly(160001);
+  }
+
+  @Test
+  public void parse_results_do_not_share_issues() {
+    YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withGrammar(mandatoryP1()).build();
+
+    ParseResult invalid = parser.parseResult("p2: v2");
+    ParseResult valid = parser.parseResult("p1: v1");
+
+    assertThat(invalid.getIssues()).extracting(ValidationIssue::getMessage).containsExactly("Unexpected property: \"p2\"", "Missing required properties: [p1]");
+    assertThat(valid.getIssues()).isEmpty();
+    assertThat(parser.getIssues()).isEmpty();
+  }
+
+  @Test
+  public void strict_parse_result_only_fails_on_its_own_issues() {
+    YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withGrammar(mandatoryP1()).withStrictValidation(true).build();
+
+    try {
+      parser.parseResult("p2: v2");
+      fail("Expected validation errors");
+    } catch (ValidationException e) {
+      assertThat(e.getCauses()).hasSize(2);
+    }
+    assertThat(parser.parseResult("p1: v1").getIssues()).isEmpty();
+  }
+
+  @Test
+  public void defers_validation_until_issues_are_requested() {
+    YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withGrammar(mandatoryP1()).build();
+
+    DeferredParseResult deferred = parser.parseDeferred("p2: v2");
+
+    assertThat(deferred.getRoot().at("/p2").stringValue()).isEqualTo("v2");
+    assertThat(deferred.getRoot().getLastChild().getType()).isEqualTo(EOF);
+    assertThat(deferred.getIssues()).extracting(ValidationIssue::getMessage)
+      .containsExactlyElementsOf(parser.parseResult("p2: v2").getIssues().stream().map(ValidationIssue::getMessage).collect(Collectors.toList()));
+    assertThat(deferred.getIssues()).hasSize(2);
+    assertThat(deferred.getResult().getTokenCount()).isEqualTo(parser.parseResult("p2: v2").getTokenCount());
+    assertThat(parser.getIssues()).isEmpty();
+  }
+
+  @Test
+  public void validates_deferred_results_on_an_executor() throws Exception {
+    YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withGrammar(mandatoryP1()).withStrictValidation(true).build();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      DeferredParseResult valid = parser.parseDeferred("p1: v1");
+      DeferredParseResult invalid = parser.parseDeferred("p2: v2");
+
+      CompletableFuture<List<ValidationIssue>> future = valid.validateAsync(executor);
+      assertThat(valid.validateAsync(executor)).isSameAs(future);
+      assertThat(future.get()).isEmpty();
+      assertThat(valid.getIssues()).isEmpty();
+      try {
+        invalid.validateAsync(executor).join();
+        fail("Expected validation errors");
+      } catch (CompletionException e) {
+        assertThat(e.getCause()).isInstanceOf(ValidationException.class);
+      }
+      try {
+        invalid.getIssues();
+        fail("Expected validation errors");
+      } catch (ValidationException e) {
+        assertThat(e.getCauses()).hasSize(2);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void fails_deferred_results_on_errors_of_the_validation() {
+    JsonNode root = new YamlParser(StandardCharsets.UTF_8).parse("p1: v1");
+    DeferredParseResult deferred = new DeferredParseResult(root, 1, () -> {
+      throw new StackOverflowError();
+    });
+
+    assertThat(catchThrowable(deferred::getIssues)).isInstanceOf(StackOverflowError.class);
+    assertThat(catchThrowable(deferred::getResult)).isInstanceOf(StackOverflowError.class);
+    assertThat(deferred.validateAsync(Runnable::run)).isCompletedExceptionally();
+  }
+
+  @Test
+  public void parses_paths_and_files_alike() throws Exception {
+    YamlParser parser = new YamlParser(StandardCharsets.UTF_8);
+    File file = new File(YamlParserTest.class.getResource("/parser/minimal.yaml").toURI());
+
+    JsonNode fromPath = parser.parse(file.toPath());
+    JsonNode fromFile = parser.parse(file);
+
+    assertThat(fromPath.at("/p3/p2").floatValue()).isEqualTo(-23.0);
+    assertThat(fromPath.getToken().getURI()).isEqualTo(file.toPath().toUri());
+    assertThat(fromFile.getToken().getURI()).isEqualTo(file.toURI());
+    assertThat(parser.parseResult(file.toPath()).getTokenCount()).isEqualTo(parser.parseResult(file).getTokenCount());
+    assertThat(parser.parseDeferred(file.toPath()).getResult().getTokenCount()).isEqualTo(parser.parseResult(file).getTokenCount());
+  }
+
+  @Test
+  public void parses_multi_document_streams() throws Exception {
+    YamlParser parser = new YamlParser(StandardCharsets.UTF_8);
+    File file = new File(YamlParserTest.class.getResource("/parser/multi-document.yaml").toURI());
+
+    List<JsonNode> documents;
+    try (Stream<JsonNode> stream = parser.parseDocuments(file)) {
+      documents = stream.collect(Collectors.toList());
+    }
+
+    assertThat(documents).hasSize(3);
+    assertThat(documents.get(0).at("/name").stringValue()).isEqualTo("first");
+    assertThat(documents.get(0).at("/name").getTokenLine()).isEqualTo(4);
+    assertThat(documents.get(0).getToken().getURI()).isEqualTo(file.toURI());
+    assertThat(documents.get(1).at("/replicas").intValue()).isEqualTo(3);
+    assertThat(documents.get(1).at("/replicas").getTokenLine()).isEqualTo(7);
+    assertThat(documents.get(2).elements()).extracting(JsonNode::stringValue).containsExactly("a", "b");
+    assertThat(documents.get(2).getToken().getLine()).isEqualTo(10);
+    assertThat(documents.get(2).getToken().getColumn()).isEqualTo(4);
+  }
+
+  @Test
+  public void relocates_comments_of_documents() {
+    YamlParser parser = new YamlParser(StandardCharsets.UTF_8);
+
+    List<JsonNode> documents = parser.parseDocuments(new StringReader("p1: v1\n---\n# comment\np2: v2\n")).collect(Collectors.toList());
+
+    assertThat(documents).hasSize(2);
+    assertThat(documents.get(1).getToken().getTrivia()).extracting(t -> t.getToken().getLine()).containsExactly(3);
+    assertThat(documents.get(1).at("/p2").getTokenLine()).isEqualTo(4);
+  }
+
+  @Test
+  public void parses_single_document_streams() {
+    YamlParser parser = new YamlParser(StandardCharsets.UTF_8);
+
+    List<JsonNode> documents = parser.parseDocuments(new StringReader("p1: ---\np2: ...")).collect(Collectors.toList());
+
+    assertThat(documents).hasSize(1);
+    assertThat(documents.get(0).propertyMap()).containsOnlyKeys("p1", "p2");
+  }
+
+  @Test
+  public void resolves_aliases_to_the_anchored_nodes() {
+    for (ParserImplementation implementation : ParserImplementation.values()) {
+      YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withParserImplementation(implementation).build();
+
+      JsonNode root = parser.parse("base: &base\n  x: 1\n  list: &list [a, b]\nuse: *base\nitems: *list\nname: &name n\nagain: *name\n");
+
+      JsonNode alias = root.at("/use");
+      assertThat(alias).isInstanceOf(AliasNode.class);
+      assertThat(alias.isAlias()).isTrue();
+      assertThat(((AliasNode) alias).getAnchorName()).isEqualTo("base");
+      assertThat(((AliasNode) alias).getAnchoredNode()).isSameAs(root.at("/base"));
+      assertThat(alias.resolve()).isSameAs(root.at("/base"));
+      assertThat(alias.isObject()).isTrue();
+      assertThat(alias.propertyMap()).containsOnlyKeys("x", "list");
+      assertThat(root.at("/use/x").intValue()).isEqualTo(1);
+      assertThat(root.at("/use/list/1").stringValue()).isEqualTo("b");
+      assertThat(root.at("/items").elements()).extracting(JsonNode::stringValue).containsExactly("a", "b");
+      assertThat(root.at("/again").stringValue()).isEqualTo("n");
+      assertThat(root.at("/base").getToken().getType()).isEqualTo(Tokens.BLOCK_MAPPING_START);
+    }
+  }
+
+  @Test
+  public void rejects_undefined_and_recursive_aliases() {
+    for (ParserImplementation implementation : ParserImplementation.values()) {
+      YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withParserImplementation(implementation).build();
+
+      assertThat(catchThrowable(() -> parser.parse("a: 1\nb: *a\n"))).isInstanceOf(RecognitionException.class)
+        .hasMessageContaining("Undefined alias: *a");
+      assertThat(catchThrowable(() -> parser.parse("a: &a\n  b: *a\n"))).isInstanceOf(RecognitionException.class)
+        .hasMessageContaining("Recursive alias: *a is inside its anchored node");
+    }
+  }
+
+  @Test
+  public void slices_the_source_of_the_nodes() throws IOException {
+    String yaml = "openapi: 3.0.0\ninfo:\n  title: 'My API'  # the title\n  tags: [a, {b: c}]\npaths:\n  /a:\n    get: |\n      text\n"
+      + "# end\n";
+    String json = "{\"a\": [1, {\"b\": true}]}\n";
+    Path file = Files.createTempFile("source", ".yaml");
+    try {
+      Files.write(file, yaml.getBytes(StandardCharsets.UTF_8));
+      for (ParserImplementation implementation : ParserImplementation.values()) {
+        YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withParserImplementation(implementation)
+          .withSourceRanges(true).build();
+
+        for (JsonNode root : new JsonNode[] {parser.parse(yaml), parser.parse(file.toFile())}) {
+          assertThat(root.getSourceText()).isEqualTo(yaml.substring(0, yaml.indexOf("# end")));
+          assertThat(root.at("/info").getSourceText()).isEqualTo("title: 'My API'  # the title\n  tags: [a, {b: c}]");
+          assertThat(root.at("/info/title").getSourceText()).isEqualTo("'My API'");
+          assertThat(root.at("/info/tags/1").getSourceText()).isEqualTo("{b: c}");
+          assertThat(root.at("/paths/~1a/get").getSourceText()).isEqualTo("|\n      text\n");
+          SourceRange title = root.at("/info/title").getSourceRange();
+          assertThat(title.getStart()).isEqualTo(yaml.indexOf("'My"));
+          assertThat(title.getLength()).isEqualTo(8);
+          assertThat(title).extracting(SourceRange::getStartLine, SourceRange::getStartColumn, SourceRange::getEndLine, SourceRange::getEndColumn)
+            .containsExactly(3, 9, 3, 17);
+        }
+        JsonNode root = parser.parse(json);
+        assertThat(root.at("/a/1").getSourceText()).isEqualTo("{\"b\": true}");
+        assertThat(root.at("/a/1/b").getSourceRange()).isEqualTo(new SourceRange(16, 20, 1, 16, 1, 20));
+
+        YamlParser withoutRanges = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withParserImplementation(implementation).build();
+        assertThat(withoutRanges.parse(yaml).at("/info").getSourceRange()).isNull();
+        assertThat(withoutRanges.parse(json).at("/a").getSourceText()).isNull();
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void slices_the_source_of_each_document() {
+    YamlParser parser = YamlParser.builder().withCharset(StandardCharsets.UTF_8).withSourceRanges(true).build();
+
+    List<JsonNode> documents = parser.parseDocuments(new StringReader("a: 1\n---\n# comment\nb: [x, y]\n")).collect(Collectors.toList());
+
+    assertThat(documents).hasSize(2);
+    assertThat(documents.get(0).at("/a").getSourceText()).isEqualTo("1");
+    assertThat(documents.get(1).at("/b").getSourceText()).isEqualTo("[x, y]");
+    SourceRange list = documents.get(1).at("/b").getSourceRange();
+    assertThat(list.getStartLine()).isEqualTo(documents.get(1).at("/b").getTokenLine());
+    assertThat(list).extracting(SourceRange::getStartLine, SourceRange::getStartColumn, SourceRange::getEndLine, SourceRange::getEndColumn)
+      .containsExactly(4, 3, 4, 9);
+  }
+
+  private static YamlGrammarBuilder mandatoryP1() {
+    YamlGrammarBuilder b = new YamlGrammarBuilder();
+    b.setRootRule(YamlGrammarBuilderTest.TestGrammar.ROOT);
+    b.rule(YamlGrammarBuilderTest.TestGrammar.ROOT).is(b.object(b.mandatoryProperty("p1", b.string())));
+    return b;
+  }
 }
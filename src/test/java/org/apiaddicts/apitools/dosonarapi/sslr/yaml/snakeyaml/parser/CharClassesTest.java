@@ -0,0 +1,52 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import org.junit.Test;
+
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.BLANK;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.FULL_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.NULL_BL_T_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.NULL_OR_LINEBR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.QUOTE;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.CharClasses.SPECIAL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CharClassesTest {
+  private static final String LINEBR_S = "\n\u0085\u2028\u2029\uFFFF";
+  private static final String NULL_BL_T_LINEBR_S = "\t \0\r" + LINEBR_S;
+
+  @Test
+  public void classifies_like_the_yaml_character_sets() {
+    for (char c = 0; c < Character.MAX_VALUE; ++c) {
+      assertClass(c, FULL_LINEBR, "\r" + LINEBR_S);
+      assertClass(c, NULL_OR_LINEBR, "\0\r" + LINEBR_S);
+      assertClass(c, NULL_BL_T_LINEBR, NULL_BL_T_LINEBR_S);
+      assertClass(c, BLANK, " \t");
+      assertClass(c, QUOTE, "'\"\\");
+      assertClass(c, SPECIAL, NULL_BL_T_LINEBR_S + "-?:,[]{}#&*!|>'\"%@`");
+    }
+    assertThat(CharClasses.is(Character.MAX_VALUE, CharClasses.END)).isTrue();
+  }
+
+  private static void assertClass(char c, int mask, String chars) {
+    assertThat(CharClasses.is(c, mask)).as("character %d", (int) c).isEqualTo(chars.indexOf(c) != -1);
+  }
+}
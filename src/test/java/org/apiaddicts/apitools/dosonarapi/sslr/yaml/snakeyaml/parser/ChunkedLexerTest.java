@@ -0,0 +1,232 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.LexerException;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ChunkedLexerTest {
+  private static final URI FILE_URI = URI.create("file://test.yaml");
+
+  @Test
+  public void splits_at_the_keys_starting_a_line() {
+    String document = "a: 1\n# comment\n- b\n  c: 2\n...\n? d\n: e\nf: |\n  g\nh: 3\ri: 4\n";
+
+    List<ChunkedLexer.Chunk> chunks = ChunkedLexer.split(document, 1);
+
+    assertThat(chunks).extracting(chunk -> document.substring(chunk.start, chunk.end))
+      .containsExactly("a: 1\n# comment\n- b\n  c: 2\n...\n? d\n: e\n", "f: |\n  g\n", "h: 3\ri: 4\n");
+    assertThat(chunks).extracting(chunk -> chunk.line).containsExactly(1, 8, 10);
+    assertThat(ChunkedLexer.split(document, document.length())).hasSize(1);
+  }
+
+  @Test
+  public void lexes_like_a_single_scanner() {
+    assertSameTokens("a: 1\nb: 2\nc: 3\n");
+    assertSameTokens("a:\n  b: 1\n  c:\n    - d\n# before e\ne: 2 # after\n\n# before f\nf:\n  - g: 3\n# end\n");
+    assertSameTokens("a: 1\n  # indented\n# root\nb:\n  c: |\n    text\n\n  d: >-\n    folded\n    text\n\ne: 'quoted'\n");
+    assertSameTokens("a: b\n  c\nd: \"x\\\n  y\"\ne: &anchor\n  f: 1\ng: *anchor\n");
+    assertSameTokens("a: 1\r\nb: 2\r\nc: 3");
+  }
+
+  @Test
+  public void lexes_the_test_documents_like_a_single_scanner() throws IOException {
+    for (String directory : new String[] {"src/test/resources/parser", "src/test/resources/newlexer"}) {
+      File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(".yaml"));
+      assertThat(files).isNotEmpty();
+      for (File file : files) {
+        String document = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertSameTokens(document);
+      }
+    }
+  }
+
+  @Test
+  public void leaves_the_documents_that_cannot_be_cut_to_a_single_scanner() {
+    assertThat(lexInChunks("a: 1\n")).isNull();
+    assertThat(lexInChunks("- a\n- b\n")).isNull();
+    assertThat(lexInChunks("a: [1,\nb]\nc: 2\n")).isNull();
+    assertThat(lexInChunks("a: {b: 1,\nc: 2}\n")).isNull();
+    assertThat(lexInChunks("a: \"1\nb: 2\"\n")).isNull();
+    assertThat(lexInChunks("a: 1\nb\nc: 2\n")).isNull();
+    assertThat(lexInChunks("a: 1\nb: c: 2\n")).isNull();
+    assertThat(lexInChunks("a: 1\n--- b\n")).isNull();
+  }
+
+  @Test
+  public void lexes_the_chunks_on_an_executor() {
+    StringBuilder document = new StringBuilder();
+    for (int i = 0; i < 200; ++i) {
+      document.append("key").append(i).append(":\n  # entry ").append(i).append("\n  value: ").append(i).append('\n');
+    }
+    List<Token> expected = new ArrayList<>();
+    List<Token> observed = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      LexerOptions options = LexerOptions.builder().withStringInterning(StringInterning.DOCUMENT).withParallelLexing(executor).build();
+      List<Token> tokens = ChunkedLexer.lex(document, FILE_URI, observed::add, options, 64);
+      List<Token> single = Lexer.lex(document.toString(), FILE_URI, expected::add, options, null);
+
+      assertThat(describe(tokens)).isEqualTo(describe(single));
+      assertThat(describe(observed)).isEqualTo(describe(expected));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void lexes_on_a_thread_of_its_own_executor() throws Exception {
+    String document = "a: 1\nb: 2\nc: 3\nd: 4\n";
+    List<Token> single = Lexer.lex(document, FILE_URI, token -> {
+    }, LexerOptions.DEFAULT, null);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<List<Token>> tokens = executor.submit(() -> ChunkedLexer.lex(document, FILE_URI, token -> {
+      }, LexerOptions.builder().withParallelLexing(executor).build(), 1));
+
+      assertThat(describe(tokens.get(10, TimeUnit.SECONDS))).isEqualTo(describe(single));
+    } finally {
+      executor.shutdown();
+    }
+    List<Token> rejected = ChunkedLexer.lex(document, FILE_URI, token -> {
+    }, LexerOptions.builder().withParallelLexing(task -> {
+      throw new RejectedExecutionException();
+    }).build(), 1);
+    assertThat(describe(rejected)).isEqualTo(describe(single));
+  }
+
+  @Test
+  public void stops_all_the_chunks_once_one_fails() {
+    String document = "a: 1\nb: 2\nc: 3\nd: 4\n";
+    AtomicInteger checked = new AtomicInteger();
+    List<Token> observed = new ArrayList<>();
+    List<Token> tokens = ChunkedLexer.lex(document, FILE_URI, observed::add, () -> token -> {
+      if (checked.incrementAndGet() == 3) {
+        throw new IllegalStateException("limit");
+      }
+    }, LexerOptions.builder().withParallelLexing(Runnable::run).build(), 1, null);
+
+    assertThat(tokens).isNull();
+    assertThat(observed).isEmpty();
+    // the other chunks are not scanned once the first one fails
+    assertThat(checked.get()).isEqualTo(3);
+  }
+
+  @Test(timeout = 10000)
+  public void reports_the_errors_thrown_on_the_threads_of_the_executor() {
+    String document = "a: 1\nb: 2\nc: 3\nd: 4\n";
+    Thread caller = Thread.currentThread();
+    Executor executor = task -> {
+      Thread thread = new Thread(task);
+      thread.setUncaughtExceptionHandler((t, e) -> {
+      });
+      thread.start();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    assertThatThrownBy(() -> ChunkedLexer.lex(document, FILE_URI, token -> {
+    }, () -> token -> {
+      if (Thread.currentThread() != caller) {
+        throw new StackOverflowError();
+      }
+    }, LexerOptions.builder().withParallelLexing(executor).build(), 1, null)).isInstanceOf(StackOverflowError.class);
+  }
+
+  private static void assertSameTokens(String document) {
+    for (boolean keepComments : new boolean[] {true, false}) {
+      LexerOptions options = LexerOptions.builder().withComments(keepComments).withParallelLexing(Runnable::run).build();
+      List<Token> expected = new ArrayList<>();
+      TokenOffsets expectedOffsets = new TokenOffsets();
+      List<Token> single;
+      try {
+        single = Lexer.lex(document, FILE_URI, expected::add, options, expectedOffsets);
+      } catch (LexerException e) {
+        // some of the test documents are not valid
+        assertThat(lexInChunks(document)).isNull();
+        continue;
+      }
+      for (int chunkSize = 1; chunkSize < document.length(); chunkSize *= 2) {
+        List<Token> observed = new ArrayList<>();
+        TokenOffsets offsets = new TokenOffsets();
+        List<Token> tokens = ChunkedLexer.lex(document, FILE_URI, observed::add, () -> token -> {
+        }, options, chunkSize, offsets);
+        if (tokens != null) {
+          assertThat(describe(tokens)).as(document).isEqualTo(describe(single));
+          assertThat(describe(observed)).as(document).isEqualTo(describe(expected));
+          assertThat(describe(offsets)).as(document).isEqualTo(describe(expectedOffsets));
+        } else {
+          assertThat(observed).isEmpty();
+          assertThat(offsets.size()).isZero();
+        }
+      }
+    }
+  }
+
+  private static List<Token> lexInChunks(String document) {
+    return ChunkedLexer.lex(document, FILE_URI, token -> {
+    }, LexerOptions.builder().withParallelLexing(Runnable::run).build(), 1);
+  }
+
+  private static List<String> describe(List<Token> tokens) {
+    return tokens.stream().map(ChunkedLexerTest::describe).collect(Collectors.toList());
+  }
+
+  private static List<String> describe(TokenOffsets offsets) {
+    List<String> ranges = new ArrayList<>();
+    for (int i = 0; i < offsets.size(); ++i) {
+      ranges.add(offsets.getStart(i) + "-" + offsets.getEnd(i));
+    }
+    return ranges;
+  }
+
+  private static String describe(Token token) {
+    StringBuilder description = new StringBuilder()
+      .append(token.getType()).append(' ').append(token.getValue()).append(' ').append(token.getOriginalValue())
+      .append(" at ").append(token.getLine()).append(':').append(token.getColumn());
+    for (Trivia trivia : token.getTrivia()) {
+      description.append(" / ").append(trivia.getToken().getOriginalValue()).append(" at ").append(trivia.getToken().getLine());
+    }
+    return description.toString();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import java.nio.CharBuffer;
+import org.junit.Test;
+import org.sonar.sslr.channel.CodeReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CodeReadersTest {
+  @Test
+  public void reads_whole_arrays_in_place() {
+    char[] chars = "key: value".toCharArray();
+    CodeReader code = CodeReaders.of(CharBuffer.wrap(chars));
+    chars[0] = 'K';
+
+    assertThat(code.length()).isEqualTo(10);
+    assertThat(code.charAt(0)).isEqualTo('K');
+  }
+
+  @Test
+  public void copies_other_texts() {
+    char[] chars = "key: value".toCharArray();
+    CodeReader code = CodeReaders.of(CharBuffer.wrap(chars, 0, 3));
+    chars[0] = 'K';
+
+    assertThat(read(code)).isEqualTo("key");
+    assertThat(read(CodeReaders.of("key: value", 5, 10))).isEqualTo("value");
+    assertThat(read(CodeReaders.of(new StringBuilder("a\nb")))).isEqualTo("a\nb");
+  }
+
+  @Test
+  public void tracks_the_lines_of_the_texts() {
+    CodeReader code = CodeReaders.of(CharBuffer.wrap("a\nbc".toCharArray()));
+    code.pop();
+    code.pop();
+    code.pop();
+
+    assertThat(code.getLinePosition()).isEqualTo(2);
+    assertThat(code.getColumnPosition()).isEqualTo(1);
+    assertThat(code.peek()).isEqualTo('c');
+  }
+
+  private static String read(CodeReader code) {
+    StringBuilder text = new StringBuilder();
+    for (int c = code.pop(); c != -1; c = code.pop()) {
+      text.append((char) c);
+    }
+    return text.toString();
+  }
+}
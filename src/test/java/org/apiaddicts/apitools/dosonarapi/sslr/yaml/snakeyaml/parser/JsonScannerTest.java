@@ -0,0 +1,173 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.Token;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.apiaddicts.apitools.dosonarapi.sslr.yaml.grammar.BenchmarkDocuments;
+import org.junit.Test;
+
+import static com.sonar.sslr.api.GenericTokenType.EOF;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOAT;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_ENTRY;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_MAPPING_END;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_MAPPING_START;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_SEQUENCE_END;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_SEQUENCE_START;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.INTEGER;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.KEY;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.NULL;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.STRING;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.TRUE;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.VALUE;
+
+public class JsonScannerTest {
+  private static final URI STRING_URI = URI.create("tests://unittest");
+
+  @Test
+  public void scans_json_tokens() {
+    List<Token> tokens = JsonScanner.scan("{\"a\\n\": [1, -2.5,\n true, null]}\n", STRING_URI);
+
+    assertThat(tokens).extracting(Token::getType, Token::getLine, Token::getColumn, Token::getValue, Token::getOriginalValue)
+      .containsExactly(
+        tuple(FLOW_MAPPING_START, 1, 0, "{", "{"),
+        tuple(KEY, 1, 1, "?", ""),
+        tuple(STRING, 1, 1, "a\n", "\"a\\n\""),
+        tuple(VALUE, 1, 6, ":", ":"),
+        tuple(FLOW_SEQUENCE_START, 1, 8, "[", "["),
+        tuple(INTEGER, 1, 9, "1", "1"),
+        tuple(FLOW_ENTRY, 1, 10, ",", ","),
+        tuple(FLOAT, 1, 12, "-2.5", "-2.5"),
+        tuple(FLOW_ENTRY, 1, 16, ",", ","),
+        tuple(TRUE, 2, 1, "true", "true"),
+        tuple(FLOW_ENTRY, 2, 5, ",", ","),
+        tuple(NULL, 2, 7, "null", "null"),
+        tuple(FLOW_SEQUENCE_END, 2, 11, "]", "]"),
+        tuple(FLOW_MAPPING_END, 2, 12, "}", "}"),
+        tuple(EOF, 3, 0, "EOF", "EOF"));
+    assertThat(tokens).extracting(Token::getURI).containsOnly(STRING_URI);
+  }
+
+  @Test
+  public void produces_the_tokens_of_the_lexer() throws IOException, URISyntaxException {
+    assertSameTokens(BenchmarkDocuments.json(3));
+    assertSameTokens("[ \"\\u00e9\\t\\\"\", {}, [], {\"k\" : {\"\": 0}} ]");
+    assertSameTokens("\r\n  {\"a\": 1}\r\n");
+    for (String name : new String[] {"array-objects.json", "nested-objects.json", "simple-array.json", "simple-property.json"}) {
+      assertSameTokens(new String(Files.readAllBytes(Paths.get(JsonScannerTest.class.getResource("/lexer/json/" + name).toURI())), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void leaves_other_documents_to_the_lexer() {
+    // not JSON
+    assertThat(JsonScanner.scan("a: 1", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("\"a\"", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[1,]", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("{1: 2}", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[01]", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[\"\\/\"]", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[1] [2]", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[\"a", STRING_URI)).isNull();
+    // JSON, but scanned differently by YAML
+    assertThat(JsonScanner.scan("{\"a\"\n: 1}", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[1]\r[2]", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[\t1]", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[\" \"]", STRING_URI)).isNull();
+    // YAML only
+    assertThat(JsonScanner.scan("[1] # comment", STRING_URI)).isNull();
+    assertThat(JsonScanner.scan("[a b]", STRING_URI)).isNull();
+  }
+
+  @Test
+  public void records_the_offsets_of_the_tokens() {
+    String document = "{\"a\\n\" : [1, -2.5,\r\n true]}\n";
+    TokenOffsets offsets = new TokenOffsets();
+
+    List<Token> tokens = JsonScanner.scan(document, STRING_URI, token -> {
+    }, LexerOptions.DEFAULT, offsets);
+
+    assertThat(offsets.size()).isEqualTo(tokens.size());
+    assertThat(slices(document, offsets))
+      .containsExactly("{", "", "\"a\\n\"", ":", "[", "1", ",", "-2.5", ",", "true", "]", "}", "");
+    assertThat(offsets.getStart(1)).isEqualTo(1);
+    assertThat(offsets.getStart(tokens.size() - 1)).isEqualTo(document.length());
+
+    TokenOffsets notJson = new TokenOffsets();
+    assertThat(JsonScanner.scan("[1, a]", STRING_URI, token -> {
+    }, LexerOptions.DEFAULT, notJson)).isNull();
+    assertThat(notJson.size()).isZero();
+  }
+
+  @Test
+  public void detects_json_documents() {
+    assertThat(JsonScanner.startsLikeJson("\n  {}")).isTrue();
+    assertThat(JsonScanner.startsLikeJson("[]")).isTrue();
+    assertThat(JsonScanner.startsLikeJson("a: {}")).isFalse();
+    assertThat(JsonScanner.startsLikeJson("# {}")).isFalse();
+    assertThat(JsonScanner.startsLikeJson(" ")).isFalse();
+  }
+
+  private static void assertSameTokens(String document) {
+    List<Token> expected = Lexer.create(StandardCharsets.UTF_8).lex(document);
+    TokenOffsets offsets = new TokenOffsets();
+    List<Token> actual = JsonScanner.scan(document, STRING_URI, token -> {
+    }, LexerOptions.DEFAULT, offsets);
+
+    assertThat(actual).isNotNull().hasSameSizeAs(expected);
+    for (int i = 0; i < expected.size(); ++i) {
+      assertThat(describe(actual.get(i))).isEqualTo(describe(expected.get(i)));
+    }
+    TokenOffsets expectedOffsets = new TokenOffsets();
+    Lexer.lex(document, STRING_URI, token -> {
+    }, LexerOptions.DEFAULT, expectedOffsets);
+    assertThat(ranges(offsets)).isEqualTo(ranges(expectedOffsets));
+  }
+
+  private static List<String> slices(String document, TokenOffsets offsets) {
+    List<String> slices = new ArrayList<>();
+    for (int i = 0; i < offsets.size(); ++i) {
+      slices.add(document.substring(offsets.getStart(i), offsets.getEnd(i)));
+    }
+    return slices;
+  }
+
+  private static List<String> ranges(TokenOffsets offsets) {
+    List<String> ranges = new ArrayList<>();
+    for (int i = 0; i < offsets.size(); ++i) {
+      ranges.add(offsets.getStart(i) + "-" + offsets.getEnd(i));
+    }
+    return ranges;
+  }
+
+  private static String describe(Token token) {
+    return token.getType() + " " + token.getValue() + " " + token.getOriginalValue() + " " + token.getLine() + ":"
+      + token.getColumn() + " " + token.getURI() + " " + token.getTrivia().size();
+  }
+}
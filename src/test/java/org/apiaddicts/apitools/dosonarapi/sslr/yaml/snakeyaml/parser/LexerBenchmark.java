@@ -0,0 +1,122 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.Token;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the {@link Lexer} on documents made of large scalars, where most of the time goes to classifying the
+ * characters of the scalars. Each document is a mapping of the given number of entries whose values are scalars of the
+ * given style and length: 100 entries make a document of about 100 KB, 5000 entries one of about 5 MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+  @Param({"plain", "single", "double", "literal", "folded", "comment"})
+  private String style;
+
+  @Param({"1000"})
+  private int length;
+
+  @Param({"100", "5000"})
+  private int entries;
+
+  private String document;
+
+  @Setup
+  public void setUp() {
+    document = document(style, length, entries);
+  }
+
+  @Benchmark
+  public List<Token> lex() {
+    return Lexer.create(StandardCharsets.UTF_8).lex(document);
+  }
+
+  static String document(String style, int length, int entries) {
+    StringBuilder words = new StringBuilder();
+    while (words.length() < length) {
+      words.append("lorem").append(words.length()).append(' ');
+    }
+    String text = words.substring(0, length).trim();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < entries; ++i) {
+      sb.append("key").append(i).append(": ");
+      switch (style) {
+        case "plain":
+          sb.append(text).append('\n');
+          break;
+        case "single":
+          sb.append('\'').append(text).append("'\n");
+          break;
+        case "double":
+          sb.append('"').append(text).append("\\t\"\n");
+          break;
+        case "literal":
+          sb.append("|\n");
+          for (int start = 0; start < text.length(); start += 80) {
+            sb.append("  ").append(text, start, Math.min(text.length(), start + 80)).append('\n');
+          }
+          break;
+        case "folded":
+          // paragraphs of two lines, the way descriptions are written in markdown
+          sb.append(">\n");
+          for (int start = 0; start < text.length(); start += 80) {
+            if (start % 160 == 0 && start != 0) {
+              sb.append('\n');
+            }
+            sb.append("  ").append(text, start, Math.min(text.length(), start + 80)).append('\n');
+          }
+          break;
+        case "comment":
+          sb.append("value # ").append(text).append('\n');
+          break;
+        default:
+          throw new IllegalArgumentException(style);
+      }
+    }
+    return sb.toString();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(LexerBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import java.io.StringReader;
+import java.net.URI;
+import org.junit.Test;
+import org.sonar.sslr.channel.CodeReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LexerStateTest {
+  private final YamlScanner output = new YamlScanner(new StringReader(""), URI.create("file:///test.yaml"));
+
+  @Test
+  public void pops_the_indentation_levels_in_reverse_order() {
+    LexerState state = new LexerState();
+    for (int column = 0; column < 40; ++column) {
+      assertThat(state.addIndent(column)).isTrue();
+    }
+    assertThat(state.addIndent(10)).isFalse();
+
+    for (int column = 38; column >= -1; --column) {
+      assertThat(state.popIndent()).isEqualTo(column);
+    }
+    assertThat(state.indent()).isEqualTo(-1);
+  }
+
+  @Test
+  public void keeps_one_simple_key_per_flow_level() {
+    LexerState state = new LexerState();
+    CodeReader code = new CodeReader("abcdefghijklmnopqrstuvwxyz");
+    state.decreaseFlowLevel();
+    state.decreaseFlowLevel();
+    for (int level = -2; level < 20; ++level) {
+      state.savePossibleSimpleKey(code, output);
+      code.pop();
+      state.increaseFlowLevel();
+    }
+
+    for (int level = 19; level >= -2; --level) {
+      state.decreaseFlowLevel();
+      SimpleKey key = state.takePossibleSimpleKey();
+      assertThat(key.getColumn()).isEqualTo(level + 2);
+      assertThat(state.takePossibleSimpleKey()).isNull();
+    }
+  }
+
+  @Test
+  public void stales_the_simple_keys_of_previous_lines() {
+    LexerState state = new LexerState();
+    state.allowSimpleKey(true);
+    CodeReader code = new CodeReader("[a\nb");
+    state.increaseFlowLevel();
+    code.pop();
+    state.savePossibleSimpleKey(code, output);
+    code.pop();
+    code.pop();
+
+    state.stalePossibleSimpleKeys(code);
+
+    assertThat(state.takePossibleSimpleKey()).isNull();
+  }
+
+  @Test
+  public void fails_on_a_stale_required_key() {
+    LexerState state = new LexerState();
+    CodeReader code = new CodeReader("a\nb");
+    state.addIndent(0);
+    state.savePossibleSimpleKey(code, output);
+    code.pop();
+    code.pop();
+
+    assertThatThrownBy(() -> state.stalePossibleSimpleKeys(code))
+      .isInstanceOf(YamlLexerException.class)
+      .hasMessageContaining("could not find expected ':'");
+  }
+}
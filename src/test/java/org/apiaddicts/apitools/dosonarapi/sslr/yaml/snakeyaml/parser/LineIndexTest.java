@@ -0,0 +1,68 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class LineIndexTest {
+
+  @Test
+  public void finds_the_lines_as_the_scanners_count_them() {
+    String text = "a: 1\nb: 2\r\nc: 3\rd: 4\u2028e";
+    LineIndex lines = LineIndex.of(text);
+
+    assertThat(lines.getLineCount()).isEqualTo(4);
+    assertThat(lines.getLineStart(1)).isZero();
+    assertThat(lines.getLineStart(2)).isEqualTo(5);
+    assertThat(lines.getLineStart(3)).isEqualTo(11);
+    assertThat(lines.getLineStart(4)).isEqualTo(16);
+    assertThat(lines.getOffset(3, 3)).isEqualTo(text.indexOf('3'));
+  }
+
+  @Test
+  public void converts_offsets_to_lines_and_columns() {
+    String text = "a:\n  b: 1\n\n  c: 2\n";
+    LineIndex lines = LineIndex.of(text);
+
+    int c = text.indexOf('c');
+    assertThat(lines.getLine(c)).isEqualTo(4);
+    assertThat(lines.getColumn(c)).isEqualTo(2);
+    // a line break is the last character of its line
+    assertThat(lines.getLine(2)).isEqualTo(1);
+    assertThat(lines.getLine(3)).isEqualTo(2);
+    assertThat(lines.getLine(10)).isEqualTo(3);
+    assertThat(lines.getLine(text.length())).isEqualTo(5);
+    assertThat(lines.getColumn(text.length())).isZero();
+    assertThat(catchThrowable(() -> lines.getLine(text.length() + 1))).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThat(catchThrowable(() -> lines.getLineStart(6))).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  public void indexes_empty_documents() {
+    LineIndex lines = LineIndex.of("");
+
+    assertThat(lines.getLineCount()).isEqualTo(1);
+    assertThat(lines.getLine(0)).isEqualTo(1);
+    assertThat(lines.getColumn(0)).isZero();
+  }
+}
@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import static com.sonar.sslr.api.GenericTokenType.EOF;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.Assert.assertEquals;
 import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.ScalarChannel.decodePlainScalar;
@@ -76,6 +77,53 @@ public class ScalarChannelTest {
       .contains(tuple(STRING, 1, 0, "multi\n\nline", "multi\n \n\nline"));
   }
 
+  @Test
+  public void single_line_plain() {
+    List<Token> tokens = lexer.lex("key: some\t text  # comment\nnext: [a b , c]");
+
+    assertThat(tokens).extracting("type", "line", "column", "value", "originalValue")
+      .contains(
+        tuple(STRING, 1, 5, "some\t text", "some\t text"),
+        tuple(STRING, 2, 7, "a b", "a b"),
+        tuple(STRING, 2, 13, "c", "c"));
+    Token value = tokens.get(4);
+    assertThat(value.getOriginalValue()).isSameAs(value.getValue());
+  }
+
+  @Test
+  public void plain_ending_with_blanks_before_a_line_break() {
+    List<Token> tokens = lexer.lex("a: one two  \n  three\nb: c");
+
+    assertThat(tokens).extracting("type", "line", "column", "value", "originalValue")
+      .contains(tuple(STRING, 1, 3, "one two three", "one two  \n  three"));
+  }
+
+  @Test
+  public void multiline_plain_ending_before_a_document_marker() {
+    assertThat(lexer.lex("multi\n  line\n---\nnext")).extracting("type", "value", "originalValue")
+      .contains(tuple(STRING, "multi line", "multi\n  line"));
+    assertThat(lexer.lex("multi\n\n...\n")).extracting("type", "value", "originalValue")
+      .contains(tuple(STRING, "multi", "multi"));
+    assertThat(lexer.lex("multi\n..x\n---x\n")).extracting("type", "value", "originalValue")
+      .contains(tuple(STRING, "multi ..x", "multi\n..x"));
+    assertThat(lexer.lex("multi\u2028line \n")).extracting("type", "value", "originalValue")
+      .contains(tuple(STRING, "multi\u2028line", "multi\u2028line"));
+  }
+
+  @Test(timeout = 5000)
+  public void block_scalar_at_end_of_input() {
+    assertThat(lexer.lex("a: |\n")).extracting("type", "value")
+      .contains(tuple(STRING, ""));
+    assertThat(lexer.lex("|-\n  l1\n  l2\n  ")).extracting("type", "value")
+      .contains(tuple(STRING, "l1\nl2"));
+  }
+
+  @Test(timeout = 5000)
+  public void unterminated_quoted_scalar() {
+    assertThat(catchThrowable(() -> lexer.lex("'abc"))).hasStackTraceContaining("found unexpected end of stream");
+    assertThat(catchThrowable(() -> lexer.lex("a: \"x\n  y"))).hasStackTraceContaining("found unexpected end of stream");
+  }
+
   @Test
   public void block_multiline_with_space() {
     List<Token> tokens = lexer
@@ -88,6 +136,14 @@ public class ScalarChannelTest {
       .contains(tuple(STRING, 1, 2, "\nmulti\n line", ">\n\n    multi\n     line"));
   }
 
+  @Test
+  public void block_folded_with_more_indented_lines() {
+    List<Token> tokens = lexer.lex("a: >2-  # c\r\n\r\n    more\t x\r\n  para\r\n\r\n  end\r\n\r\nb: c");
+
+    assertThat(tokens).extracting("type", "line", "column", "value", "originalValue")
+      .contains(tuple(STRING, 1, 3, "\n  more\t x\npara\nend", ">2-  \n\n    more\t x\n  para\n\n  end\n\n"));
+  }
+
   @Test
   public void block_with_chomping() {
     List<Token> tokens = lexer
@@ -173,6 +229,32 @@ public class ScalarChannelTest {
     assertEquals("\"Some \\_ \\x34\"", token.getOriginalValue());
   }
 
+  @Test
+  public void double_quotes_unicode_escapes() {
+    List<Token> tokens = lexer.lex("[\"\\u00e9t\\u00C9\", \"\\U0001F600\\0\"]");
+
+    assertThat(tokens).extracting("type", "value", "originalValue")
+      .contains(
+        tuple(STRING, "\u00e9t\u00c9", "\"\\u00e9t\\u00C9\""),
+        tuple(STRING, "\ud83d\ude00\0", "\"\\U0001F600\\0\""));
+    assertThat(catchThrowable(() -> lexer.lex("\"\\u00g9\""))).hasStackTraceContaining("expected escape sequence of 4 hexadecimal numbers, but found: 00g9");
+    assertThat(catchThrowable(() -> lexer.lex("\"\\q\""))).hasStackTraceContaining("found unknown escape character q(113)");
+    assertThat(catchThrowable(() -> lexer.lex("\"\\U00110000\""))).hasStackTraceContaining("found escape sequence of a code point beyond 10FFFF");
+    assertThat(catchThrowable(() -> lexer.lex("\"\\UFFFFFFFF\""))).hasStackTraceContaining("found escape sequence of a code point beyond 10FFFF");
+    assertThat(lexer.lex("\"a\\U0010FFFFb \\t c\"").get(0).getValue()).isEqualTo("a\udbff\udfffb \t c");
+  }
+
+  @Test
+  public void quoted_on_one_line() {
+    List<Token> tokens = lexer.lex("a: 'it''s' \nb: \"it's\"\nc: 'back\\slash'");
+
+    assertThat(tokens).extracting("type", "line", "column", "value", "originalValue")
+      .contains(
+        tuple(STRING, 1, 3, "it's", "'it''s'"),
+        tuple(STRING, 2, 3, "it's", "\"it's\""),
+        tuple(STRING, 3, 3, "back\\slash", "'back\\slash'"));
+  }
+
   @Test
   public void double_quotes_swallow_breaks() {
     String original = "\"Some \r\n\t  \nquoted with breaks\"";
@@ -0,0 +1,98 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import org.junit.Test;
+
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.ScalarSchema.CORE;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.ScalarSchema.JSON;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.ScalarSchema.YAML_1_1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScalarSchemaTest {
+
+  @Test
+  public void resolves_yaml_1_1_scalars() {
+    assertThat(YAML_1_1.resolve("")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("0")).isEqualTo(Tokens.INTEGER);
+    assertThat(YAML_1_1.resolve("-12")).isEqualTo(Tokens.INTEGER);
+    assertThat(YAML_1_1.resolve("007")).isEqualTo(Tokens.INTEGER);
+    assertThat(YAML_1_1.resolve("+12")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("-")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("1.5")).isEqualTo(Tokens.FLOAT);
+    assertThat(YAML_1_1.resolve("+.5")).isEqualTo(Tokens.FLOAT);
+    assertThat(YAML_1_1.resolve("1_000.5")).isEqualTo(Tokens.FLOAT);
+    assertThat(YAML_1_1.resolve("1.5e+3")).isEqualTo(Tokens.FLOAT);
+    assertThat(YAML_1_1.resolve("1.5e3")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("1e5")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("1.0.3")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("2021-01-01")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("0x1F")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("null")).isEqualTo(Tokens.NULL);
+    assertThat(YAML_1_1.resolve("~")).isEqualTo(Tokens.STRING);
+    assertThat(YAML_1_1.resolve("Yes")).isEqualTo(Tokens.TRUE);
+    assertThat(YAML_1_1.resolve("OFF")).isEqualTo(Tokens.FALSE);
+  }
+
+  @Test
+  public void resolves_core_scalars() {
+    assertThat(CORE.resolve("")).isEqualTo(Tokens.NULL);
+    assertThat(CORE.resolve("~")).isEqualTo(Tokens.NULL);
+    assertThat(CORE.resolve("Null")).isEqualTo(Tokens.NULL);
+    assertThat(CORE.resolve("nULL")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("TRUE")).isEqualTo(Tokens.TRUE);
+    assertThat(CORE.resolve("False")).isEqualTo(Tokens.FALSE);
+    assertThat(CORE.resolve("yes")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("n")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("+12")).isEqualTo(Tokens.INTEGER);
+    assertThat(CORE.resolve("0o17")).isEqualTo(Tokens.INTEGER);
+    assertThat(CORE.resolve("0x1F")).isEqualTo(Tokens.INTEGER);
+    assertThat(CORE.resolve("0x")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("0o8")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("1e5")).isEqualTo(Tokens.FLOAT);
+    assertThat(CORE.resolve("1.")).isEqualTo(Tokens.FLOAT);
+    assertThat(CORE.resolve("-.5E-2")).isEqualTo(Tokens.FLOAT);
+    assertThat(CORE.resolve("-.Inf")).isEqualTo(Tokens.FLOAT);
+    assertThat(CORE.resolve(".NaN")).isEqualTo(Tokens.FLOAT);
+    assertThat(CORE.resolve(".Nan")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("-.nan")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve(".")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("1_000")).isEqualTo(Tokens.STRING);
+    assertThat(CORE.resolve("1.0.3")).isEqualTo(Tokens.STRING);
+  }
+
+  @Test
+  public void resolves_json_scalars() {
+    assertThat(JSON.resolve("null")).isEqualTo(Tokens.NULL);
+    assertThat(JSON.resolve("Null")).isEqualTo(Tokens.STRING);
+    assertThat(JSON.resolve("true")).isEqualTo(Tokens.TRUE);
+    assertThat(JSON.resolve("false")).isEqualTo(Tokens.FALSE);
+    assertThat(JSON.resolve("y")).isEqualTo(Tokens.STRING);
+    assertThat(JSON.resolve("-0")).isEqualTo(Tokens.INTEGER);
+    assertThat(JSON.resolve("120")).isEqualTo(Tokens.INTEGER);
+    assertThat(JSON.resolve("012")).isEqualTo(Tokens.STRING);
+    assertThat(JSON.resolve("+1")).isEqualTo(Tokens.STRING);
+    assertThat(JSON.resolve("1.5")).isEqualTo(Tokens.FLOAT);
+    assertThat(JSON.resolve("-1e+5")).isEqualTo(Tokens.FLOAT);
+    assertThat(JSON.resolve("1e")).isEqualTo(Tokens.STRING);
+    assertThat(JSON.resolve(".5")).isEqualTo(Tokens.STRING);
+    assertThat(JSON.resolve("~")).isEqualTo(Tokens.STRING);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import org.junit.Test;
+import org.sonar.sslr.channel.CodeReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpanScannerTest {
+
+  @Test
+  public void finds_the_line_ends() {
+    String line = "0123456789 abcdefghijklmnopqrstuvwxyz\t# comment";
+    for (String end : new String[] {"\n", "\r\n", "\0", "\u0085", "\u2028", "\u2029"}) {
+      CodeReader code = new CodeReader("key: " + line + end + "next");
+      SpanScanner spans = new SpanScanner(code, StringTable.NONE);
+      code.pop();
+      code.pop();
+
+      assertThat(spans.lineEnd(code, 0)).isEqualTo(line.length() + 3);
+      assertThat(spans.lineEnd(code, 20)).isEqualTo(line.length() + 3);
+    }
+    CodeReader code = new CodeReader(line);
+    assertThat(new SpanScanner(code, StringTable.NONE).lineEnd(code, 0)).isEqualTo(line.length());
+    assertThat(new SpanScanner(code, StringTable.NONE).lineEnd(code, line.length() + 1)).isEqualTo(line.length() + 1);
+  }
+
+  @Test
+  public void goes_on_over_the_chars_that_end_no_line() {
+    String line = "\u00e9t\u00e9\t\u0007 \ud83d\ude00" + (char) 0x7f + "abc\u2027\u202a";
+    CodeReader code = new CodeReader(line + "\n");
+
+    assertThat(new SpanScanner(code, StringTable.NONE).lineEnd(code, 0)).isEqualTo(line.length());
+  }
+
+  @Test
+  public void finds_the_plain_chunk_ends() {
+    CodeReader code = new CodeReader("abcdefghijklm:n opq\trs\nt\u00e9\u2028abcd");
+    SpanScanner spans = new SpanScanner(code, StringTable.NONE);
+
+    assertThat(spans.plainEnd(code, 0)).isEqualTo(13);
+    assertThat(spans.plainEnd(code, 14)).isEqualTo(15);
+    assertThat(spans.plainEnd(code, 16)).isEqualTo(19);
+    assertThat(spans.plainEnd(code, 20)).isEqualTo(22);
+    assertThat(spans.plainEnd(code, 23)).isEqualTo(25);
+    assertThat(spans.plainEnd(code, 26)).isEqualTo(30);
+    assertThat(spans.plainEnd(code, 31)).isEqualTo(31);
+  }
+
+  @Test
+  public void moves_the_reader_past_the_spans() {
+    CodeReader code = new CodeReader("key: value\n\tnext: 'a\r\nb'");
+    SpanScanner spans = new SpanScanner(code, StringTable.NONE);
+
+    assertThat(spans.forward(code, 3)).isEqualTo("key");
+    spans.skip(code, 2);
+    assertThat(spans.forwardShared(code, spans.lineEnd(code, 0))).isEqualTo("value");
+    assertThat(code.getLinePosition()).isEqualTo(1);
+    assertThat(code.getColumnPosition()).isEqualTo(10);
+    assertThat(spans.offset(code)).isEqualTo(10);
+
+    StringBuilder text = new StringBuilder();
+    spans.forward(code, 8, text);
+    assertThat(text).hasToString("\n\tnext: ");
+    assertThat(code.getLinePosition()).isEqualTo(2);
+    assertThat(code.getColumnPosition()).isEqualTo(7);
+    assertThat(spans.shared(code, 1, 4)).isEqualTo("a\r\nb");
+    spans.skip(code, 5);
+    assertThat(code.getLinePosition()).isEqualTo(3);
+    assertThat(code.getColumnPosition()).isEqualTo(1);
+    assertThat(code.peek()).isEqualTo((int) '\'');
+  }
+}
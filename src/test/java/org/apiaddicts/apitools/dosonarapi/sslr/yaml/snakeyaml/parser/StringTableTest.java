@@ -0,0 +1,105 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import com.sonar.sslr.api.Token;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class StringTableTest {
+  private static final URI FILE_URI = URI.create("file://test.yaml");
+
+  @Test
+  public void returns_the_same_string_for_the_same_characters() {
+    StringTable table = new StringTable(16, 8);
+    char[] chars = "type: type".toCharArray();
+
+    String first = table.get(chars, 0, 4);
+    String second = table.get(chars, 6, 4);
+
+    assertThat(first).isEqualTo("type");
+    assertThat(second).isSameAs(first);
+    assertThat(table.get(new StringBuilder("a type"), 2, 6)).isSameAs(first);
+    assertThat(table.get(chars, 0, 3)).isEqualTo("typ");
+  }
+
+  @Test
+  public void keeps_a_bounded_number_of_short_strings() {
+    StringTable table = new StringTable(1, 8);
+    char[] chars = "description".toCharArray();
+
+    String type = table.get("type".toCharArray(), 0, 4);
+    assertThat(table.get("in".toCharArray(), 0, 2)).isEqualTo("in");
+    assertThat(table.get("type".toCharArray(), 0, 4)).isEqualTo(type).isNotSameAs(type);
+    assertThat(table.get(chars, 0, chars.length)).isNotSameAs(table.get(chars, 0, chars.length));
+    assertThat(StringTable.NONE.get(chars, 0, 4)).isEqualTo("desc").isNotSameAs(StringTable.NONE.get(chars, 0, 4));
+    assertThat(catchThrowable(() -> new StringTable(12, 8))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shares_the_strings_of_the_scanned_scalars() {
+    String document = "- name: id\n  in: 'path'\n- name: id\n  in: 'path'\n";
+
+    List<Token> shared = scalars(scan(document, StringInterning.DOCUMENT));
+    List<Token> distinct = scalars(scan(document, StringInterning.NONE));
+
+    assertThat(shared).extracting(Token::getValue).containsExactly("name", "id", "in", "path", "name", "id", "in", "path");
+    for (int i = 0; i < 4; ++i) {
+      assertThat(shared.get(i + 4).getValue()).isSameAs(shared.get(i).getValue());
+      assertThat(shared.get(i + 4).getOriginalValue()).isSameAs(shared.get(i).getOriginalValue());
+      assertThat(distinct.get(i + 4).getValue()).isEqualTo(distinct.get(i).getValue()).isNotSameAs(distinct.get(i).getValue());
+    }
+    assertThat(scalars(scan(document, StringInterning.SHARED)).get(0).getValue())
+      .isSameAs(scalars(scan(document, StringInterning.SHARED)).get(0).getValue());
+  }
+
+  @Test
+  public void shares_the_strings_of_json_keys_and_values() {
+    String document = "[{\"in\": \"path\"}, {\"in\": \"path\"}]";
+
+    List<Token> tokens = JsonScanner.scan(document, FILE_URI, token -> {
+    }, LexerOptions.builder().withStringInterning(StringInterning.DOCUMENT).build(), null);
+
+    List<Token> scalars = scalars(tokens);
+    assertThat(scalars).extracting(Token::getOriginalValue).containsExactly("\"in\"", "\"path\"", "\"in\"", "\"path\"");
+    assertThat(scalars.get(2).getValue()).isSameAs(scalars.get(0).getValue());
+    assertThat(scalars.get(3).getOriginalValue()).isSameAs(scalars.get(1).getOriginalValue());
+  }
+
+  private static List<Token> scan(String document, StringInterning interning) {
+    YamlScanner scanner = new YamlScanner(document, FILE_URI, token -> {
+    }, LexerOptions.builder().withStringInterning(interning).build(), null);
+    List<Token> tokens = new ArrayList<>();
+    for (Token token = scanner.next(); tokens.add(token) && scanner.peek() != null; token = scanner.next()) {
+      // all the tokens, up to EOF
+    }
+    return tokens;
+  }
+
+  private static List<Token> scalars(List<Token> tokens) {
+    return tokens.stream().filter(token -> token.getType() == Tokens.STRING).collect(Collectors.toList());
+  }
+}
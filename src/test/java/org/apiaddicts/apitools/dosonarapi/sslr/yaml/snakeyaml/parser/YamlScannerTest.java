@@ -0,0 +1,239 @@
+/*
+ * doSonarAPI SSLR :: YAML Parser
+ * Copyright (C) 2021-2022 Apiaddicts
+ * contacta AT apiaddicts DOT org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser;
+
+import com.sonar.sslr.api.Token;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+import static com.sonar.sslr.api.GenericTokenType.EOF;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.ALIAS;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.ANCHOR;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.BLOCK_END;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.BLOCK_MAPPING_START;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_ENTRY;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_MAPPING_END;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_MAPPING_START;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_SEQUENCE_END;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.FLOW_SEQUENCE_START;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.KEY;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.STRING;
+import static org.apiaddicts.apitools.dosonarapi.sslr.yaml.snakeyaml.parser.Tokens.VALUE;
+
+public class YamlScannerTest {
+  private static final URI FILE_URI = URI.create("file:///test.yaml");
+
+  @Test
+  public void moves_implicit_keys_before_their_scalar() {
+    YamlScanner scanner = new YamlScanner(new StringReader("# header\nkey: value"), FILE_URI);
+
+    List<Token> tokens = readAll(scanner);
+
+    assertThat(tokens).extracting(Token::getType, Token::getLine, Token::getColumn, Token::getValue)
+      .containsExactly(
+        tuple(BLOCK_MAPPING_START, 2, 0, "{"),
+        tuple(KEY, 2, 0, "?"),
+        tuple(STRING, 2, 0, "key"),
+        tuple(VALUE, 2, 3, ":"),
+        tuple(STRING, 2, 5, "value"),
+        tuple(BLOCK_END, 2, 10, "}"),
+        tuple(EOF, 2, 10, "EOF"));
+    assertThat(tokens.get(0).getTrivia()).extracting(t -> t.getToken().getValue()).containsExactly(" header");
+    assertThat(tokens.get(2).hasTrivia()).isFalse();
+    assertThat(tokens).extracting(Token::getURI).containsOnly(FILE_URI);
+  }
+
+  @Test
+  public void inserts_the_implicit_keys_before_their_flow_collection() {
+    YamlScanner scanner = new YamlScanner(new StringReader("[a]: b"), FILE_URI);
+
+    List<Token> tokens = readAll(scanner);
+
+    assertThat(tokens).extracting(Token::getType, Token::getLine, Token::getColumn)
+      .containsExactly(
+        tuple(BLOCK_MAPPING_START, 1, 0),
+        tuple(KEY, 1, 0),
+        tuple(FLOW_SEQUENCE_START, 1, 0),
+        tuple(STRING, 1, 1),
+        tuple(FLOW_SEQUENCE_END, 1, 2),
+        tuple(VALUE, 1, 3),
+        tuple(STRING, 1, 5),
+        tuple(BLOCK_END, 1, 6),
+        tuple(EOF, 1, 6));
+  }
+
+  @Test
+  public void skips_comments_without_trivia() {
+    String document = "# header\nkey: value # trailing\n  # indented\nblock: | # after the indicator\n  text\nlist:\n- a\n# last";
+
+    List<Token> kept = readAll(new YamlScanner(document, FILE_URI, token -> {
+    }, LexerOptions.DEFAULT, null));
+    List<Token> skipped = readAll(new YamlScanner(document, FILE_URI, token -> {
+    }, LexerOptions.builder().withComments(false).build(), null));
+
+    assertThat(kept.stream().mapToInt(token -> token.getTrivia().size()).sum()).isEqualTo(5);
+    assertThat(skipped).extracting(Token::hasTrivia).containsOnly(false);
+    assertThat(skipped).extracting(Token::getType, Token::getLine, Token::getColumn, Token::getValue)
+      .containsExactlyElementsOf(kept.stream().map(token -> tuple(token.getType(), token.getLine(), token.getColumn(), token.getValue()))
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void scans_anchors_and_aliases() {
+    YamlScanner scanner = new YamlScanner(new StringReader("&a key: [*b, &c {}]\n*d: v"), FILE_URI);
+
+    List<Token> tokens = readAll(scanner);
+
+    assertThat(tokens).extracting(Token::getType, Token::getValue, Token::getOriginalValue, Token::getColumn)
+      .containsExactly(
+        tuple(BLOCK_MAPPING_START, "{", "", 0),
+        tuple(KEY, "?", "", 0),
+        tuple(ANCHOR, "a", "&a", 0),
+        tuple(STRING, "key", "key", 3),
+        tuple(VALUE, ":", ":", 6),
+        tuple(FLOW_SEQUENCE_START, "[", "[", 8),
+        tuple(ALIAS, "b", "*b", 9),
+        tuple(FLOW_ENTRY, ",", ",", 11),
+        tuple(ANCHOR, "c", "&c", 13),
+        tuple(FLOW_MAPPING_START, "{", "{", 16),
+        tuple(FLOW_MAPPING_END, "}", "}", 17),
+        tuple(FLOW_SEQUENCE_END, "]", "]", 18),
+        tuple(KEY, "?", "", 0),
+        tuple(ALIAS, "d", "*d", 0),
+        tuple(VALUE, ":", ":", 2),
+        tuple(STRING, "v", "v", 4),
+        tuple(BLOCK_END, "}", "", 5),
+        tuple(EOF, "EOF", "EOF", 5));
+  }
+
+  @Test
+  public void rejects_anchors_without_name() {
+    YamlScanner scanner = new YamlScanner(new StringReader("key: & value"), FILE_URI);
+
+    assertThat(catchThrowable(() -> readAll(scanner))).isInstanceOf(YamlLexerException.class)
+      .hasMessageContaining("while scanning an anchor; expected the name of an anchor, but found ' '");
+  }
+
+  @Test
+  public void peek_does_not_consume() {
+    YamlScanner scanner = new YamlScanner(new StringReader("a"), FILE_URI);
+
+    Token first = scanner.peek();
+
+    assertThat(scanner.peek()).isSameAs(first);
+    assertThat(scanner.next()).isSameAs(first);
+    assertThat(scanner.next().getType()).isEqualTo(EOF);
+    assertThat(scanner.peek()).isNull();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void fails_after_end_of_file() {
+    YamlScanner scanner = new YamlScanner(new StringReader(""), FILE_URI);
+
+    assertThat(scanner.next().getType()).isEqualTo(EOF);
+    scanner.next();
+  }
+
+  @Test
+  public void produces_the_tokens_of_the_lexer() {
+    String document = "openapi: 3.0.0 # version\ninfo:\n  title: t\n  tags: [a, {b: c}]\npaths:\n  - |\n    text\n  -\n    k: v\n# end\n";
+
+    List<Token> expected = Lexer.create(StandardCharsets.UTF_8).lex(document);
+    List<Token> actual = readAll(new YamlScanner(new StringReader(document), URI.create("tests://unittest")));
+
+    assertThat(actual).hasSameSizeAs(expected);
+    for (int i = 0; i < expected.size(); ++i) {
+      assertThat(describe(actual.get(i))).isEqualTo(describe(expected.get(i)));
+    }
+  }
+
+  @Test
+  public void closes_the_blocks_once_the_flow_collections_of_a_line_are_closed() {
+    YamlScanner scanner = new YamlScanner(new StringReader("a:\n    b: [x,\ny], c\n"), FILE_URI);
+
+    List<Token> tokens = readAll(scanner);
+
+    assertThat(tokens.subList(12, tokens.size())).extracting(Token::getType, Token::getLine, Token::getColumn)
+      .containsExactly(
+        tuple(FLOW_SEQUENCE_END, 3, 1),
+        tuple(BLOCK_END, 3, 2),
+        tuple(FLOW_ENTRY, 3, 2),
+        tuple(STRING, 3, 4),
+        tuple(BLOCK_END, 4, 0),
+        tuple(EOF, 4, 0));
+  }
+
+  @Test
+  public void records_the_offsets_of_the_tokens() {
+    String document = "# header\nkey: |\n  text\nlist:\n- 'a'\n- b c\r\n  d\n";
+    TokenOffsets offsets = new TokenOffsets();
+    YamlScanner scanner = new YamlScanner(document, FILE_URI, token -> {
+    }, LexerOptions.DEFAULT, offsets);
+
+    List<Token> tokens = readAll(scanner);
+
+    assertThat(offsets.size()).isEqualTo(tokens.size());
+    List<String> slices = new ArrayList<>();
+    for (int i = 0; i < tokens.size(); ++i) {
+      Token token = tokens.get(i);
+      slices.add(token.getType() + " " + offsets.getStart(i) + " " + document.substring(offsets.getStart(i), offsets.getEnd(i)));
+    }
+    assertThat(slices).containsExactly(
+      "BLOCK_MAPPING_START 9 ",
+      "KEY 9 ",
+      "STRING 9 key",
+      "VALUE 12 :",
+      "STRING 14 |\n  text\n",
+      "KEY 23 ",
+      "STRING 23 list",
+      "VALUE 27 :",
+      "BLOCK_ENTRY 29 -",
+      "STRING 31 'a'",
+      "BLOCK_ENTRY 35 -",
+      "STRING 37 b c\r\n  d",
+      "BLOCK_END 46 ",
+      "EOF 46 ");
+  }
+
+  private static List<Token> readAll(YamlScanner scanner) {
+    List<Token> tokens = new ArrayList<>();
+    while (scanner.peek() != null) {
+      tokens.add(scanner.next());
+    }
+    return tokens;
+  }
+
+  private static String describe(Token token) {
+    StringBuilder sb = new StringBuilder()
+      .append(token.getType()).append(' ').append(token.getValue()).append(' ').append(token.getOriginalValue())
+      .append(' ').append(token.getLine()).append(':').append(token.getColumn());
+    token.getTrivia().forEach(t -> sb.append(" #").append(t.getToken().getValue()).append('@').append(t.getToken().getLine()));
+    return sb.toString();
+  }
+}